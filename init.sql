@@ -4,8 +4,12 @@ CREATE DATABASE IF NOT EXISTS trackingdb
   DEFAULT COLLATE utf8mb4_unicode_ci;
 USE trackingdb;
 
+-- Os ids de packages e tracking_events vêm do gerador Snowflake da aplicação
+-- (sem AUTO_INCREMENT), o que permite ao Hibernate gravar em batches.
+-- A chave primária inclui estimated_delivery_date porque o MySQL exige que
+-- toda chave única contenha a coluna de particionamento
 CREATE TABLE IF NOT EXISTS packages (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT NOT NULL,
     description VARCHAR(255) NOT NULL,
     sender VARCHAR(100) NOT NULL,
     recipient VARCHAR(100) NOT NULL,
@@ -15,8 +19,12 @@ CREATE TABLE IF NOT EXISTS packages (
     delivered_at TIMESTAMP NULL,
     is_holliday BOOLEAN,
     fun_fact TEXT,
-    estimated_delivery_date DATE,
-    INDEX idx_estimated_delivery_date (estimated_delivery_date)
+    estimated_delivery_date DATE NOT NULL,
+    PRIMARY KEY (id, estimated_delivery_date),
+    INDEX idx_estimated_delivery_date (estimated_delivery_date),
+    INDEX idx_status_id (status, id),
+    INDEX idx_created_at (created_at),
+    INDEX idx_delivered_at (delivered_at)
 ) ENGINE=InnoDB
 PARTITION BY RANGE (TO_DAYS(estimated_delivery_date)) (
     PARTITION p2025_01 VALUES LESS THAN (TO_DAYS('2025-02-01')),
@@ -34,19 +42,97 @@ PARTITION BY RANGE (TO_DAYS(estimated_delivery_date)) (
     PARTITION p_future VALUES LESS THAN MAXVALUE
 );
 
+-- Sem FK para packages: tabelas particionadas não aceitam chaves estrangeiras.
+-- Os eventos de um pacote são removidos explicitamente pelo expurgo.
+-- Particionada por mês de date_time: a chave primária e a chave única incluem
+-- date_time, então a unicidade de event_key vale por instante do evento (o
+-- EventDeduplicator continua barrando reenvios do mesmo evento).
 CREATE TABLE IF NOT EXISTS tracking_events (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT NOT NULL,
     location VARCHAR(255) NOT NULL,
     description TEXT,
     date_time TIMESTAMP NOT NULL,
     package_id BIGINT,
-    CONSTRAINT fk_package FOREIGN KEY (package_id) REFERENCES packages(id)
-        ON DELETE CASCADE
-        ON UPDATE CASCADE,
-    INDEX idx_package_id (package_id),
+    event_key CHAR(64) NULL,
+    PRIMARY KEY (id, date_time),
+    UNIQUE KEY uk_event_key (event_key, date_time),
+    INDEX idx_package_date_time (package_id, date_time),
     INDEX idx_date_time (date_time)
+) ENGINE=InnoDB
+PARTITION BY RANGE (UNIX_TIMESTAMP(date_time)) (
+    PARTITION p2025_01 VALUES LESS THAN (UNIX_TIMESTAMP('2025-02-01 00:00:00')),
+    PARTITION p2025_02 VALUES LESS THAN (UNIX_TIMESTAMP('2025-03-01 00:00:00')),
+    PARTITION p2025_03 VALUES LESS THAN (UNIX_TIMESTAMP('2025-04-01 00:00:00')),
+    PARTITION p2025_04 VALUES LESS THAN (UNIX_TIMESTAMP('2025-05-01 00:00:00')),
+    PARTITION p2025_05 VALUES LESS THAN (UNIX_TIMESTAMP('2025-06-01 00:00:00')),
+    PARTITION p2025_06 VALUES LESS THAN (UNIX_TIMESTAMP('2025-07-01 00:00:00')),
+    PARTITION p2025_07 VALUES LESS THAN (UNIX_TIMESTAMP('2025-08-01 00:00:00')),
+    PARTITION p2025_08 VALUES LESS THAN (UNIX_TIMESTAMP('2025-09-01 00:00:00')),
+    PARTITION p2025_09 VALUES LESS THAN (UNIX_TIMESTAMP('2025-10-01 00:00:00')),
+    PARTITION p2025_10 VALUES LESS THAN (UNIX_TIMESTAMP('2025-11-01 00:00:00')),
+    PARTITION p2025_11 VALUES LESS THAN (UNIX_TIMESTAMP('2025-12-01 00:00:00')),
+    PARTITION p2025_12 VALUES LESS THAN (UNIX_TIMESTAMP('2026-01-01 00:00:00')),
+    PARTITION p_future VALUES LESS THAN MAXVALUE
+);
+
+-- Índice do arquivo morto de eventos: onde está o segmento gzip de cada pacote
+CREATE TABLE IF NOT EXISTS event_archive_segments (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    package_id BIGINT NOT NULL,
+    file_name VARCHAR(64) NOT NULL,
+    file_offset BIGINT NOT NULL,
+    segment_length INT NOT NULL,
+    event_count INT NOT NULL,
+    archived_at DATETIME NOT NULL,
+    INDEX idx_segment_package_id (package_id)
+) ENGINE=InnoDB;
+
+-- Progresso do expurgo, para retomar uma execução interrompida
+CREATE TABLE IF NOT EXISTS purge_checkpoints (
+    job VARCHAR(50) PRIMARY KEY,
+    cutoff DATETIME NOT NULL,
+    last_id BIGINT NOT NULL,
+    purged_packages BIGINT NOT NULL,
+    started_at DATETIME NOT NULL,
+    updated_at DATETIME NULL,
+    completed_at DATETIME NULL
+) ENGINE=InnoDB;
+
+-- Índice de trigramas para busca por substring em sender/recipient
+CREATE TABLE IF NOT EXISTS package_search_ngrams (
+    field VARCHAR(10) NOT NULL,
+    ngram VARCHAR(3) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_bin NOT NULL,
+    package_id BIGINT NOT NULL,
+    PRIMARY KEY (field, ngram, package_id),
+    INDEX idx_ngram_package_id (package_id)
+) ENGINE=InnoDB;
+
+-- Progresso do backfill do índice de trigramas: só os pacotes depois de last_id são examinados
+CREATE TABLE IF NOT EXISTS search_index_checkpoints (
+    job VARCHAR(50) PRIMARY KEY,
+    last_id BIGINT NOT NULL,
+    updated_at DATETIME NOT NULL
+) ENGINE=InnoDB;
+
+-- Eventos aceitos pela ingestão que não chegaram a tracking_events, para reenvio
+CREATE TABLE IF NOT EXISTS tracking_event_dead_letters (
+    id BIGINT NOT NULL PRIMARY KEY,
+    token BIGINT NOT NULL,
+    package_id VARCHAR(255) NOT NULL,
+    location VARCHAR(255),
+    description TEXT,
+    event_date DATETIME,
+    event_id VARCHAR(128),
+    outcome VARCHAR(16) NOT NULL,
+    reason VARCHAR(512),
+    failed_at DATETIME NOT NULL
 ) ENGINE=InnoDB;
 
 -- Inserindo dados iniciais na tabela packages
-INSERT INTO packages (description, sender, recipient, status, created_at, updated_at, estimated_delivery_date)
-VALUES ('Pacote de Teste', 'Loja ABC', 'Joao Silva', 'CREATED', NOW(), NOW(), '2025-10-24');
\ No newline at end of file
+INSERT INTO packages (id, description, sender, recipient, status, created_at, updated_at, estimated_delivery_date)
+VALUES (1, 'Pacote de Teste', 'Loja ABC', 'Joao Silva', 'CREATED', NOW(), NOW(), '2025-10-24');
+
+INSERT INTO package_search_ngrams (field, ngram, package_id)
+VALUES ('SENDER', 'loj', 1), ('SENDER', 'oja', 1), ('SENDER', 'ja ', 1), ('SENDER', 'a a', 1), ('SENDER', ' ab', 1), ('SENDER', 'abc', 1),
+       ('RECIPIENT', 'joa', 1), ('RECIPIENT', 'oao', 1), ('RECIPIENT', 'ao ', 1), ('RECIPIENT', 'o s', 1), ('RECIPIENT', ' si', 1),
+       ('RECIPIENT', 'sil', 1), ('RECIPIENT', 'ilv', 1), ('RECIPIENT', 'lva', 1);
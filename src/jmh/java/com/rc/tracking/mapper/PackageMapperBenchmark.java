@@ -0,0 +1,79 @@
+package com.rc.tracking.mapper;
+
+import com.rc.tracking.model.dto.EventDTO;
+import com.rc.tracking.model.dto.PackageDetailResponse;
+import com.rc.tracking.model.dto.PackageResponse;
+import com.rc.tracking.model.entity.PackageEntity;
+import com.rc.tracking.model.entity.TrackingEvent;
+import com.rc.tracking.model.enums.StatusEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversões do {@link PackageMapper} usadas nas leituras de pacote: resposta
+ * simples, detalhe com os eventos embutidos e cada evento isolado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PackageMapperBenchmark {
+
+    @Param({"20", "500"})
+    private int events;
+
+    private final PackageMapper packageMapper = new PackageMapperImpl();
+    private PackageEntity packageEntity;
+    private List<TrackingEvent> trackingEvents;
+
+    @Setup
+    public void setup() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 1, 8, 0);
+        packageEntity = PackageEntity.builder()
+                .id(123_456_789L)
+                .description("Benchmark package")
+                .sender("Sender B")
+                .recipient("Recipient B")
+                .estimatedDeliveryDate(LocalDate.of(2025, 3, 10))
+                .status(StatusEnum.IN_TRANSIT)
+                .createdAt(createdAt)
+                .updatedAt(createdAt.plusDays(1))
+                .build();
+        trackingEvents = new ArrayList<>(events);
+        for (int i = 0; i < events; i++) {
+            trackingEvents.add(TrackingEvent.builder()
+                    .id((long) i)
+                    .location("Hub " + i)
+                    .description("Arrived at hub " + i)
+                    .dateTime(createdAt.plusMinutes(i))
+                    .packageEntity(packageEntity)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public PackageResponse packageResponse() {
+        return packageMapper.packageEntityToPackageResponse(packageEntity);
+    }
+
+    @Benchmark
+    public PackageDetailResponse packageDetailWithEvents() {
+        return packageMapper.packageEntityToPackageDetailResponse(packageEntity, trackingEvents);
+    }
+
+    @Benchmark
+    public EventDTO eventDto() {
+        return packageMapper.trackingEventToEventDTO(trackingEvents.get(0));
+    }
+}
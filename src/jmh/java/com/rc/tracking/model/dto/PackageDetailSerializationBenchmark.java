@@ -0,0 +1,85 @@
+package com.rc.tracking.model.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.rc.tracking.model.enums.StatusEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialização Jackson de {@link PackageDetailResponse} com listas de eventos
+ * grandes, com o mesmo {@link ObjectMapper} que o Spring Boot configura
+ * (módulos registrados, datas em ISO-8601), em JSON, CBOR e Smile. O
+ * {@code serializeGzipped} inclui o custo do gzip que o Tomcat aplica acima de
+ * {@code server.compression.min-response-size}; os tamanhos de cada formato,
+ * com e sem gzip, são impressos no setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PackageDetailSerializationBenchmark {
+
+    @Param({"20", "500", "5000"})
+    private int events;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private PackageDetailResponse response;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = switch (format) {
+            case "cbor" -> CBORMapper.builder().findAndAddModules()
+                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+            case "smile" -> SmileMapper.builder(SmileFactory.builder()
+                            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build())
+                    .findAndAddModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+            default -> JsonMapper.builder().findAndAddModules()
+                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        };
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 1, 8, 0);
+        List<EventDTO> eventDtos = new ArrayList<>(events);
+        for (int i = 0; i < events; i++) {
+            eventDtos.add(new EventDTO("packageEntity-123456789", "Hub " + i, "Arrived at hub " + i, createdAt.plusMinutes(i)));
+        }
+        response = new PackageDetailResponse("packageEntity-123456789", "Benchmark package", "Sender B", "Recipient B",
+                StatusEnum.IN_TRANSIT, createdAt, createdAt.plusDays(1), eventDtos);
+        System.out.printf("%n%s, %d events: %d bytes, %d bytes gzipped%n",
+                format, events, serialize().length, serializeGzipped().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeGzipped() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, response);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,78 @@
+package com.rc.tracking.model.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminho de entrada de {@code POST /api/tracking-events}: leitura do JSON
+ * para {@link TrackingEventRequest} e validação Bean Validation, isoladas e
+ * juntas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TrackingEventRequestBenchmark {
+
+    private static final byte[] BODY = """
+            {
+                "packageId": "packageEntity-123456789",
+                "location": "Warehouse",
+                "description": "Package reached warehouse",
+                "date": "2025-10-10T12:00:00",
+                "eventId": "scan-0001"
+            }
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private ObjectReader reader;
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private TrackingEventRequest parsed;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+        reader = objectMapper.readerFor(TrackingEventRequest.class);
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        parsed = reader.readValue(BODY);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public TrackingEventRequest parse() throws IOException {
+        return reader.readValue(BODY);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<TrackingEventRequest>> validate() {
+        return validator.validate(parsed);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<TrackingEventRequest>> parseAndValidate() throws IOException {
+        TrackingEventRequest request = reader.readValue(BODY);
+        return validator.validate(request);
+    }
+}
@@ -0,0 +1,45 @@
+package com.rc.tracking.service;
+
+import com.rc.tracking.model.dto.TrackingEventRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão do {@code packageId} recebido ({@code packageEntity-<id>}) para o
+ * id numérico, feita para cada evento de rastreamento ingerido.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PackageIdParsingBenchmark {
+
+    private final TrackingEventRequest prefixed = request("packageEntity-742918374651392001");
+    private final TrackingEventRequest bare = request("742918374651392001");
+
+    @Benchmark
+    public Long prefixedId() {
+        return TrackingEventService.parsePackageId(prefixed);
+    }
+
+    @Benchmark
+    public Long bareId() {
+        return TrackingEventService.parsePackageId(bare);
+    }
+
+    /** Variante sem alocação usada na validação feita na própria requisição. */
+    @Benchmark
+    public long prefixedIdPrimitive() {
+        return TrackingEventService.parsePackageId(prefixed.packageId());
+    }
+
+    private static TrackingEventRequest request(String packageId) {
+        return new TrackingEventRequest(packageId, "Warehouse", "Package reached warehouse", LocalDateTime.of(2025, 10, 10, 12, 0));
+    }
+}
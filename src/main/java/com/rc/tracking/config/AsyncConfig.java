@@ -1,24 +1,85 @@
 package com.rc.tracking.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
-    @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
+
+    /**
+     * Executor dedicado ao enriquecimento de pacotes (feriado e fun fact).
+     * A concorrência é limitada para não sobrecarregar as APIs externas; se a
+     * fila encher, o enriquecimento é descartado e o pacote segue sem os campos
+     * até que o {@code EnrichmentBackfillScheduler} o encontre e reenfileire.
+     */
+    @Bean(name = "enrichmentExecutor")
+    public Executor enrichmentExecutor(MeterRegistry meterRegistry,
+                                       @Value("${tracking.enrichment.concurrency:4}") int concurrency,
+                                       @Value("${tracking.enrichment.queue-capacity:1000}") int queueCapacity) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(20);
-        executor.setMaxPoolSize(40);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("AsyncThread-");
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("Enrichment-");
+        executor.setTaskDecorator(queueWaitTimer(meterRegistry, "enrichmentExecutor"));
+        Counter rejected = rejectionCounter(meterRegistry, "enrichmentExecutor");
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            logger.warn("Enrichment queue is full ({} pending), skipping package enrichment until the next backfill", pool.getQueue().size());
+        });
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Executor das entregas das assinaturas SSE: cada atualização publicada é
+     * distribuída numa virtual thread própria, então um assinante lento atrasa
+     * só aquela entrega, e nunca a transação que publicou.
+     */
+    @Bean(name = "subscriptionExecutor")
+    public Executor subscriptionExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Subscription-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    /**
+     * Mede quanto cada tarefa esperou entre ser submetida e começar a rodar
+     * ({@code tracking.executor.queue.wait}). Tamanho da fila e threads ativas
+     * dos {@link ThreadPoolTaskExecutor} já saem em {@code executor.*} pelo
+     * Spring Boot, com a mesma tag {@code name}.
+     */
+    private static TaskDecorator queueWaitTimer(MeterRegistry meterRegistry, String name) {
+        Timer queueWait = Timer.builder("tracking.executor.queue.wait")
+                .tag("name", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        return task -> {
+            long submittedAt = System.nanoTime();
+            return () -> {
+                queueWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                task.run();
+            };
+        };
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String name) {
+        return Counter.builder("tracking.executor.rejected").tag("name", name).register(meterRegistry);
+    }
 }
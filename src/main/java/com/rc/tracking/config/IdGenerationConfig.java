@@ -0,0 +1,22 @@
+package com.rc.tracking.config;
+
+import com.rc.tracking.model.id.SnowflakeIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Define o nó do gerador Snowflake a partir de {@code tracking.ids.node-id},
+ * que precisa ser único entre as instâncias que gravam no mesmo banco.
+ */
+@Configuration
+public class IdGenerationConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGenerationConfig.class);
+
+    public IdGenerationConfig(@Value("${tracking.ids.node-id:0}") long nodeId) {
+        SnowflakeIdGenerator.configure(nodeId);
+        logger.info("Snowflake id generator configured for node {}", nodeId);
+    }
+}
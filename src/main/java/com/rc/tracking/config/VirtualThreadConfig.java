@@ -0,0 +1,33 @@
+package com.rc.tracking.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Ativo com {@code spring.threads.virtual.enabled=true}: o Spring Boot passa o
+ * Tomcat para virtual threads e aqui a concorrência das requisições é limitada
+ * pelo {@link ConcurrencyLimitFilter}, dimensionado pelo pool do Hikari.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            ObjectMapper objectMapper,
+            @Value("${tracking.concurrency.permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+            @Value("${tracking.concurrency.acquire-timeout:2s}") Duration acquireTimeout) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(permits, acquireTimeout, objectMapper));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -1,24 +1,47 @@
 package com.rc.tracking.controller;
 
+import com.rc.tracking.model.dto.EventDTO;
+import com.rc.tracking.model.dto.EventHistoryFilter;
+import com.rc.tracking.model.dto.PackageBatchRequest;
+import com.rc.tracking.model.dto.PackageBatchResponse;
+import com.rc.tracking.model.dto.EventPageResponse;
 import com.rc.tracking.model.dto.PackageDetailResponse;
+import com.rc.tracking.model.dto.PackageFilter;
+import com.rc.tracking.model.dto.PackagePageResponse;
 import com.rc.tracking.model.dto.PackageRequest;
 import com.rc.tracking.model.dto.PackageResponse;
 import com.rc.tracking.model.enums.StatusEnum;
+import com.rc.tracking.service.PackageBulkService;
 import com.rc.tracking.service.PackageService;
+import com.rc.tracking.service.PackageUpdateBroadcaster;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/packages")
 @RequiredArgsConstructor
 public class PackageController {
 
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
     private final PackageService packageService;
+    private final PackageBulkService packageBulkService;
+    private final PackageUpdateBroadcaster packageUpdateBroadcaster;
 
     /**
      * Endpoint para criação de um novo pacote.
@@ -31,9 +54,26 @@ public class PackageController {
         return ResponseEntity.created(location).body(response);
     }
 
+    /**
+     * Endpoint para criação de pacotes em massa, a partir de um array JSON ou de NDJSON (um
+     * {@link PackageRequest} por linha). Cada linha é validada de forma independente e a resposta
+     * é um NDJSON com o resultado de cada linha, na ordem da entrada, escrito conforme os lotes
+     * são gravados.
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"},
+            produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> createPackages(HttpServletRequest request) throws IOException {
+        InputStream in = request.getInputStream();
+        StreamingResponseBody body = out -> packageBulkService.createAll(in, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     /**
      * Endpoint para atualizar o status de um pacote.
      * A transição de status deve seguir as regras de negócio (por exemplo, CREATED -> IN_TRANSIT -> DELIVERED).
+     * Retorna 400 para uma transição inválida e 409 se outra requisição já levou o pacote a esse status.
      */
     @PutMapping("/{id}/status")
     public ResponseEntity<PackageResponse> updateStatus(
@@ -45,7 +85,7 @@ public class PackageController {
 
     /**
      * Endpoint para cancelar um pacote.
-     * O cancelamento é permitido apenas se o pacote estiver no status CREATED.
+     * O cancelamento é permitido apenas se o pacote estiver no status CREATED (409 se já foi cancelado).
      */
     @PutMapping("/{id}/cancel")
     public ResponseEntity<PackageResponse> cancelPackage(@PathVariable Long id) {
@@ -55,24 +95,161 @@ public class PackageController {
 
     /**
      * Endpoint para obter os detalhes de um pacote.
-     * Pode incluir ou não os eventos de rastreamento, conforme parâmetro.
+     * Pode incluir ou não os eventos de rastreamento, conforme parâmetro; quando inclui, traz
+     * apenas os mais recentes (tracking.details.embedded-events) e o restante fica em /{id}/events.
+     * Com {@code includeArchived=true} os eventos já arquivados também entram na resposta.
+     * A resposta traz um ETag derivado de updatedAt, dos eventos embutidos e do formato negociado
+     * (JSON, CBOR ou Smile); com If-None-Match igual, retorna 304 sem corpo.
      */
     @GetMapping("/{id}")
     public ResponseEntity<PackageDetailResponse> getPackageDetails(
             @PathVariable Long id,
+            @RequestParam(name = "includeEvents", defaultValue = "true") boolean includeEvents,
+            @RequestParam(name = "includeArchived", defaultValue = "false") boolean includeArchived,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        PackageDetailResponse response = packageService.getPackageDetails(id, includeEvents, includeArchived);
+        return ResponseEntity.ok()
+                .eTag(detailsETag(response, includeEvents, includeArchived) + representationSuffix(accept))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(response);
+    }
+
+    /**
+     * Endpoint para obter os detalhes de vários pacotes de uma vez (até
+     * {@link PackageBatchRequest#MAX_IDS} ids no formato packageEntity-&lt;id&gt;).
+     * A resposta traz um item por id, na ordem da requisição, com status FOUND,
+     * NOT_FOUND ou INVALID_ID; os eventos arquivados não entram.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<PackageBatchResponse> getPackagesDetails(
+            @Valid @RequestBody PackageBatchRequest request,
             @RequestParam(name = "includeEvents", defaultValue = "true") boolean includeEvents) {
-        PackageDetailResponse response = packageService.getPackageDetails(id, includeEvents);
+        PackageBatchResponse response = packageService.getPackageDetails(request.ids(), includeEvents);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Endpoint para o histórico de eventos de um pacote, do mais recente para o mais antigo,
+     * paginado por cursor sobre (dateTime, id). Aceita janela {@code since}/{@code until} e
+     * {@code latest=N} para trazer só os N eventos mais recentes, sem paginação, e
+     * {@code includeArchived=true} para intercalar os eventos já arquivados.
+     */
+    @GetMapping("/{id}/events")
+    public ResponseEntity<EventPageResponse> listPackageEvents(
+            @PathVariable Long id,
+            EventHistoryFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${tracking.listing.default-page-size:50}") int size) {
+        EventPageResponse response = packageService.listPackageEvents(id, filter, cursor, size);
         return ResponseEntity.ok(response);
     }
 
     /**
-     * Endpoint para listar pacotes com filtros opcionais de sender e recipient.
+     * Endpoint para listar pacotes com filtros opcionais (sender, recipient, status,
+     * intervalo de criação e de entrega estimada), paginado por cursor sobre o id.
+     * O {@code nextCursor} da resposta ({@code packageEntity-<id>}, em texto porque o id
+     * Snowflake não cabe com exatidão em um número JavaScript) deve ser enviado como
+     * {@code cursor} na próxima página; cursor mal formado retorna 400.
      */
     @GetMapping
-    public ResponseEntity<List<PackageResponse>> listPackages(
-            @RequestParam(required = false) String sender,
-            @RequestParam(required = false) String recipient) {
-        List<PackageResponse> responses = packageService.listPackages(sender, recipient);
-        return ResponseEntity.ok(responses);
+    public ResponseEntity<PackagePageResponse> listPackages(
+            PackageFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${tracking.listing.default-page-size:50}") int size) {
+        PackagePageResponse response = packageService.listPackages(filter, cursor, size);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Endpoint para exportar pacotes em NDJSON, uma linha por pacote, lidos direto de um cursor
+     * do banco. Aceita os mesmos filtros da listagem e não tem limite de tamanho.
+     */
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamPackages(
+            PackageFilter filter,
+            @RequestParam(required = false) String cursor) {
+        StreamingResponseBody body = out -> packageService.streamPackages(filter, cursor, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    /**
+     * Endpoint de assinatura (Server-Sent Events) das atualizações de um pacote: eventos
+     * {@code package} com o {@link PackageResponse} a cada mudança de status e {@code event}
+     * com cada novo evento de rastreamento, em vez de consultar /{id} periodicamente.
+     */
+    @GetMapping(value = "/{id}/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToPackage(@PathVariable Long id) {
+        return packageUpdateBroadcaster.subscribeToPackage(id);
+    }
+
+    /**
+     * Endpoint de assinatura (Server-Sent Events) das atualizações de todos os pacotes de um remetente.
+     */
+    @GetMapping(value = "/senders/{sender}/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToSender(@PathVariable String sender) {
+        return packageUpdateBroadcaster.subscribeToSender(sender);
+    }
+
+    /**
+     * Endpoint de assinatura (Server-Sent Events) das atualizações de todos os pacotes de um destinatário.
+     */
+    @GetMapping(value = "/recipients/{recipient}/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToRecipient(@PathVariable String recipient) {
+        return packageUpdateBroadcaster.subscribeToRecipient(recipient);
+    }
+
+    /**
+     * O updatedAt só avança quando o PackageTouchCoalescer grava, até uma janela depois do
+     * evento; por isso, com eventos, o ETag também leva um hash da lista embutida.
+     */
+    private static String detailsETag(PackageDetailResponse response, boolean includeEvents, boolean includeArchived) {
+        long version = response.updatedAt() != null
+                ? response.updatedAt().toInstant(ZoneOffset.UTC).toEpochMilli()
+                : 0L;
+        String tag = response.id() + "-" + version;
+        if (includeEvents) {
+            tag += "-e" + Integer.toHexString(eventsHash(response.events())) + (includeArchived ? "-a" : "");
+        }
+        return tag;
+    }
+
+    private static int eventsHash(List<EventDTO> events) {
+        if (events == null) {
+            return 0;
+        }
+        int hash = events.size();
+        for (EventDTO event : events) {
+            long dateTime = event.dateTime() != null ? event.dateTime().toInstant(ZoneOffset.UTC).toEpochMilli() : 0L;
+            hash = 31 * hash + Long.hashCode(dateTime);
+            hash = 31 * hash + Objects.hashCode(event.location());
+            hash = 31 * hash + Objects.hashCode(event.description());
+        }
+        return hash;
+    }
+
+    /** Sufixo do ETag para o formato que a negociação vai escolher; vazio para JSON. */
+    private static String representationSuffix(String accept) {
+        if (accept == null) {
+            return "";
+        }
+        String suffix = "";
+        double bestQuality = -1;
+        try {
+            for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+                String candidate = MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(mediaType) ? "-cbor"
+                        : SMILE.equalsTypeAndSubtype(mediaType) ? "-smile"
+                        : mediaType.isCompatibleWith(MediaType.APPLICATION_JSON) ? ""
+                        : null;
+                if (candidate != null && mediaType.getQualityValue() > bestQuality) {
+                    bestQuality = mediaType.getQualityValue();
+                    suffix = candidate;
+                }
+            }
+        } catch (InvalidMediaTypeException ex) {
+            return "";
+        }
+        return suffix;
     }
 }
@@ -1,26 +1,76 @@
 package com.rc.tracking.controller;
 
+import com.rc.tracking.model.dto.DeadLetterPageResponse;
+import com.rc.tracking.model.dto.DeadLetterReplayResponse;
+import com.rc.tracking.model.dto.IngestionReceipt;
+import com.rc.tracking.model.dto.IngestionStatusResponse;
 import com.rc.tracking.model.dto.TrackingEventRequest;
-import com.rc.tracking.service.TrackingEventService;
+import com.rc.tracking.service.DeadLetterService;
+import com.rc.tracking.service.IngestionStatusService;
+import com.rc.tracking.service.TrackingEventIngestionQueue;
+import com.rc.tracking.service.TrackingEventValidator;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @RestController
 @RequestMapping("/api/tracking-events")
 @RequiredArgsConstructor
 public class TrackingEventController {
 
-    private final TrackingEventService trackingEventService;
+    private final TrackingEventValidator trackingEventValidator;
+    private final TrackingEventIngestionQueue trackingEventIngestionQueue;
+    private final IngestionStatusService ingestionStatusService;
+    private final DeadLetterService deadLetterService;
 
     /**
      * Endpoint para envio de eventos de rastreamento.
-     * Retorna 202 Accepted, indicando que o evento foi aceito para processamento assíncrono.
+     * Id de pacote mal formado retorna 400 e pacote inexistente retorna 404, sem consultar o banco.
+     * Retorna 202 Accepted depois que o evento está gravado em disco no log de ingestão;
+     * a gravação no banco acontece depois, em lote. O corpo traz o token do evento e o
+     * cabeçalho Location aponta para a consulta do resultado. Se o log acumular eventos
+     * demais sem chegar ao banco, retorna 503 com Retry-After. Se o fsync demorar mais que
+     * {@code tracking.ingestion.wal.sync-timeout}, retorna 202 com outcome PENDING_DURABILITY:
+     * o evento já está no log e não deve ser reenviado, a não ser com o mesmo eventId.
      */
     @PostMapping
-    public ResponseEntity<Void> createTrackingEvent(@Valid @RequestBody TrackingEventRequest request) {
-        trackingEventService.processTrackingEvent(request);
-        return ResponseEntity.accepted().build();
+    public ResponseEntity<IngestionReceipt> createTrackingEvent(@Valid @RequestBody TrackingEventRequest request) {
+        trackingEventValidator.validate(request);
+        IngestionReceipt receipt = trackingEventIngestionQueue.submit(request);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/{token}").buildAndExpand(receipt.token()).toUri())
+                .body(receipt);
+    }
+
+    /**
+     * Endpoint para consultar o resultado de um evento aceito: ACCEPTED, PENDING_DURABILITY,
+     * RETRIED, APPLIED, REJECTED ou DEAD_LETTERED, com o motivo quando o evento não foi gravado.
+     */
+    @GetMapping("/{token}")
+    public ResponseEntity<IngestionStatusResponse> getIngestionStatus(@PathVariable Long token) {
+        return ResponseEntity.ok(ingestionStatusService.status(token));
+    }
+
+    /**
+     * Endpoint para listar a fila de mensagens mortas, paginada por cursor sobre o id.
+     * O {@code nextCursor} vem como texto e deve ser enviado como {@code cursor} na próxima página.
+     */
+    @GetMapping("/dead-letters")
+    public ResponseEntity<DeadLetterPageResponse> listDeadLetters(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${tracking.listing.default-page-size:50}") int size) {
+        return ResponseEntity.ok(deadLetterService.listDeadLetters(cursor, size));
+    }
+
+    /**
+     * Endpoint para reenviar à ingestão as mensagens mortas mais antigas, até {@code limit}.
+     * Cada evento reenviado recebe um token novo.
+     */
+    @PostMapping("/dead-letters/replay")
+    public ResponseEntity<DeadLetterReplayResponse> replayDeadLetters(
+            @RequestParam(defaultValue = "${tracking.ingestion.dead-letters.replay-limit:500}") int limit) {
+        return ResponseEntity.ok(deadLetterService.replayDeadLetters(limit));
     }
 }
@@ -0,0 +1,7 @@
+package com.rc.tracking.exception;
+
+public class InvalidTrackingEventException extends RuntimeException {
+    public InvalidTrackingEventException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.rc.tracking.exception;
+
+public class SubscriptionLimitExceededException extends RuntimeException {
+    public SubscriptionLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -8,6 +8,8 @@ import com.rc.tracking.model.entity.TrackingEvent;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
+import java.util.List;
+
 @Mapper(componentModel = "spring")
 public interface PackageMapper {
 
@@ -16,9 +18,15 @@ public interface PackageMapper {
     @Mapping(target = "deliveredAt", source = "deliveredAt")
     PackageResponse packageEntityToPackageResponse(PackageEntity packageEntity);
 
+    @Mapping(target = "id", expression = "java(\"packageEntity-\" + packageEntity.getId())")
+    @Mapping(target = "status", source = "packageEntity.status")
+    @Mapping(target = "events", source = "events")
+    PackageDetailResponse packageEntityToPackageDetailResponse(PackageEntity packageEntity, List<TrackingEvent> events);
+
     @Mapping(target = "id", expression = "java(\"packageEntity-\" + packageEntity.getId())")
     @Mapping(target = "status", source = "status")
-    PackageDetailResponse packageEntityToPackageDetailResponse(PackageEntity packageEntity);
+    @Mapping(target = "events", ignore = true)
+    PackageDetailResponse packageEntityToPackageDetailResponseWithoutEvents(PackageEntity packageEntity);
 
     @Mapping(target = "packageId", expression = "java(\"packageEntity-\" + trackingEvent.getPackageEntity().getId())")
     EventDTO trackingEventToEventDTO(TrackingEvent trackingEvent);
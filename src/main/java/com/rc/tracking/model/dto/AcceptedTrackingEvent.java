@@ -0,0 +1,10 @@
+package com.rc.tracking.model.dto;
+
+/**
+ * Registro do log de ingestão: o evento recebido junto do token devolvido ao
+ * cliente, para que o resultado do processamento possa ser consultado depois.
+ */
+public record AcceptedTrackingEvent(
+        long token,
+        TrackingEventRequest request
+) {}
@@ -0,0 +1,14 @@
+package com.rc.tracking.model.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de rastreamento como gravado no arquivo morto: uma linha NDJSON por
+ * evento, sem o pacote, que é implícito no segmento.
+ */
+public record ArchivedEvent(
+        Long id,
+        String location,
+        String description,
+        LocalDateTime dateTime
+) {}
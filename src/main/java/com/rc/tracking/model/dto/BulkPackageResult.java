@@ -0,0 +1,15 @@
+package com.rc.tracking.model.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de uma linha da criação em lote, na mesma ordem da entrada
+ * ({@code row} começa em 1). {@code id} só vem preenchido quando a linha foi
+ * criada; caso contrário {@code errors} diz por quê.
+ */
+public record BulkPackageResult(
+        long row,
+        String id,
+        boolean created,
+        List<String> errors
+) {}
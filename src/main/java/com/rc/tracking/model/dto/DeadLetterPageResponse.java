@@ -0,0 +1,8 @@
+package com.rc.tracking.model.dto;
+
+import java.util.List;
+
+public record DeadLetterPageResponse(
+        List<DeadLetterResponse> items,
+        String nextCursor
+) {}
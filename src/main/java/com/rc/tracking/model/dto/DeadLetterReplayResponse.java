@@ -0,0 +1,12 @@
+package com.rc.tracking.model.dto;
+
+import java.util.List;
+
+/**
+ * Resultado do reenvio da fila de mensagens mortas: cada evento reenviado
+ * recebe um token novo, na mesma ordem em que foi lido.
+ */
+public record DeadLetterReplayResponse(
+        int replayed,
+        List<String> tokens
+) {}
@@ -0,0 +1,22 @@
+package com.rc.tracking.model.dto;
+
+import com.rc.tracking.model.enums.IngestionOutcome;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mensagem morta da ingestão. O id e o token vão como texto porque são ids
+ * Snowflake de 64 bits, que não cabem com exatidão em um número JavaScript.
+ */
+public record DeadLetterResponse(
+        String id,
+        String token,
+        String packageId,
+        String location,
+        String description,
+        LocalDateTime date,
+        String eventId,
+        IngestionOutcome outcome,
+        String reason,
+        LocalDateTime failedAt
+) {}
@@ -0,0 +1,15 @@
+package com.rc.tracking.model.dto;
+
+import com.rc.tracking.model.enums.IngestionOutcome;
+
+/**
+ * Corpo do 202 da ingestão. O token é devolvido como texto porque é um id
+ * Snowflake de 64 bits, que não cabe com exatidão em um número JavaScript.
+ * O {@code outcome} é {@code ACCEPTED} quando o evento já está em disco, ou
+ * {@code PENDING_DURABILITY} quando o fsync não terminou a tempo; neste caso
+ * o evento não deve ser reenviado sem {@code eventId}.
+ */
+public record IngestionReceipt(
+        String token,
+        IngestionOutcome outcome
+) {}
@@ -0,0 +1,12 @@
+package com.rc.tracking.model.dto;
+
+import com.rc.tracking.model.enums.IngestionOutcome;
+
+import java.time.LocalDateTime;
+
+public record IngestionStatusResponse(
+        String token,
+        IngestionOutcome outcome,
+        String reason,
+        LocalDateTime updatedAt
+) {}
@@ -0,0 +1,12 @@
+package com.rc.tracking.model.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record PackageBatchRequest(
+        @NotEmpty @Size(max = PackageBatchRequest.MAX_IDS) List<String> ids
+) {
+    public static final int MAX_IDS = 500;
+}
@@ -0,0 +1,7 @@
+package com.rc.tracking.model.dto;
+
+import java.util.List;
+
+public record PackageBatchResponse(
+        List<PackageLookupResult> items
+) {}
@@ -0,0 +1,17 @@
+package com.rc.tracking.model.dto;
+
+import com.rc.tracking.model.enums.StatusEnum;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record PackageFilter(
+        String sender,
+        String recipient,
+        StatusEnum status,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate estimatedFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate estimatedTo
+) {}
@@ -0,0 +1,9 @@
+package com.rc.tracking.model.dto;
+
+import com.rc.tracking.model.enums.PackageLookupStatus;
+
+public record PackageLookupResult(
+        String id,
+        PackageLookupStatus status,
+        PackageDetailResponse details
+) {}
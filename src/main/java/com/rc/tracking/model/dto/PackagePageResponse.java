@@ -0,0 +1,8 @@
+package com.rc.tracking.model.dto;
+
+import java.util.List;
+
+public record PackagePageResponse(
+        List<PackageResponse> items,
+        String nextCursor
+) {}
@@ -1,10 +1,14 @@
 package com.rc.tracking.model.dto;
 
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
 import java.time.LocalDate;
 
 public record PackageRequest(
-        String description,
-        String sender,
-        String recipient,
-        LocalDate estimatedDeliveryDate
-) {}
\ No newline at end of file
+        @NotBlank @Size(max = 255) String description,
+        @NotBlank @Size(max = 100) String sender,
+        @NotBlank @Size(max = 100) String recipient,
+        @NotNull LocalDate estimatedDeliveryDate
+) {}
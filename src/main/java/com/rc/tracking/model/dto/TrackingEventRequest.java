@@ -2,11 +2,22 @@ package com.rc.tracking.model.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
 
+/**
+ * Evento de rastreamento recebido. {@code eventId} é opcional e identifica o
+ * scan no lado da transportadora; reenvios com o mesmo id (ou, sem id, com o
+ * mesmo pacote, local, data e descrição) são descartados como duplicados.
+ */
 public record TrackingEventRequest(
         @NotBlank String packageId,
         @NotBlank String location,
         @NotBlank String description,
-        @NotNull LocalDateTime date
-) {}
+        @NotNull LocalDateTime date,
+        @Size(max = 128) String eventId
+) {
+    public TrackingEventRequest(String packageId, String location, String description, LocalDateTime date) {
+        this(packageId, location, description, date, null);
+    }
+}
@@ -0,0 +1,51 @@
+package com.rc.tracking.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Onde está o histórico arquivado de um pacote: um membro gzip de
+ * {@code segmentLength} bytes a partir de {@code fileOffset} em
+ * {@code fileName}, dentro do diretório do arquivo morto.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "event_archive_segments", indexes = @Index(name = "idx_segment_package_id", columnList = "package_id"))
+public class EventArchiveSegment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "package_id", nullable = false)
+    private Long packageId;
+
+    @Column(name = "file_name", nullable = false, length = 64)
+    private String fileName;
+
+    @Column(name = "file_offset", nullable = false)
+    private Long fileOffset;
+
+    @Column(name = "segment_length", nullable = false)
+    private Integer segmentLength;
+
+    @Column(name = "event_count", nullable = false)
+    private Integer eventCount;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -1,6 +1,7 @@
 package com.rc.tracking.model.entity;
 
 import com.rc.tracking.model.enums.StatusEnum;
+import com.rc.tracking.model.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -18,7 +19,7 @@ import java.util.List;
 public class PackageEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     private String description;
@@ -43,7 +44,7 @@ public class PackageEntity {
     @Column(name = "fun_fact")
     private String funFact;
 
-    @Column(name = "estimated_delivery_date")
+    @Column(name = "estimated_delivery_date", nullable = false)
     private LocalDate estimatedDeliveryDate;
 
     @OneToMany(mappedBy = "packageEntity", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
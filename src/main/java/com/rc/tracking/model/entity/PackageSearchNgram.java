@@ -0,0 +1,48 @@
+package com.rc.tracking.model.entity;
+
+import com.rc.tracking.model.enums.SearchField;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "package_search_ngrams")
+@IdClass(PackageSearchNgram.Key.class)
+public class PackageSearchNgram {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private SearchField field;
+
+    @Id
+    @Column(length = 3)
+    private String ngram;
+
+    @Id
+    @Column(name = "package_id")
+    private Long packageId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private SearchField field;
+        private String ngram;
+        private Long packageId;
+    }
+}
@@ -0,0 +1,48 @@
+package com.rc.tracking.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progresso de uma execução do expurgo. É gravado na mesma transação de cada
+ * lote apagado; se o processo cair no meio, a próxima execução retoma do
+ * {@code lastId} com o mesmo {@code cutoff}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "purge_checkpoints")
+public class PurgeCheckpoint {
+
+    @Id
+    @Column(name = "job", length = 50)
+    private String job;
+
+    @Column(name = "cutoff", nullable = false)
+    private LocalDateTime cutoff;
+
+    @Column(name = "last_id", nullable = false)
+    private Long lastId;
+
+    @Column(name = "purged_packages", nullable = false)
+    private Long purgedPackages;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,36 @@
+package com.rc.tracking.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Até onde o backfill do índice de trigramas já passou. É gravado na mesma
+ * transação de cada página indexada; a próxima execução só olha os pacotes
+ * depois de {@code lastId}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "search_index_checkpoints")
+public class SearchIndexCheckpoint {
+
+    @Id
+    @Column(name = "job", length = 50)
+    private String job;
+
+    @Column(name = "last_id", nullable = false)
+    private Long lastId;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -1,10 +1,9 @@
 package com.rc.tracking.model.entity;
 
+import com.rc.tracking.model.id.SnowflakeId;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -25,7 +24,7 @@ import java.time.LocalDateTime;
 public class TrackingEvent {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     private String location;
@@ -34,6 +33,9 @@ public class TrackingEvent {
     @Column(name = "date_time")
     private LocalDateTime dateTime;
 
+    @Column(name = "event_key", length = 64, unique = true)
+    private String eventKey;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "package_id")
     private PackageEntity packageEntity;
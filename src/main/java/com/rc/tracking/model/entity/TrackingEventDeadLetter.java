@@ -0,0 +1,60 @@
+package com.rc.tracking.model.entity;
+
+import com.rc.tracking.model.enums.IngestionOutcome;
+import com.rc.tracking.model.id.SnowflakeId;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de rastreamento aceito que não chegou ao banco, guardado como foi
+ * recebido para ser reenviado depois que a causa for corrigida.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "tracking_event_dead_letters")
+public class TrackingEventDeadLetter {
+
+    public static final int REASON_LENGTH = 512;
+
+    @Id
+    @SnowflakeId
+    private Long id;
+
+    @Column(nullable = false)
+    private Long token;
+
+    @Column(name = "package_id", nullable = false)
+    private String packageId;
+
+    private String location;
+    private String description;
+
+    @Column(name = "event_date")
+    private LocalDateTime eventDate;
+
+    @Column(name = "event_id", length = 128)
+    private String eventId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private IngestionOutcome outcome;
+
+    @Column(length = REASON_LENGTH)
+    private String reason;
+
+    @Column(name = "failed_at", nullable = false)
+    private LocalDateTime failedAt;
+}
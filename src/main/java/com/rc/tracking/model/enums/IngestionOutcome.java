@@ -0,0 +1,20 @@
+package com.rc.tracking.model.enums;
+
+/**
+ * Situação de um evento de rastreamento aceito pela ingestão. {@code REJECTED}
+ * é um evento que o banco recusaria sempre (id inválido, pacote inexistente,
+ * data anterior à criação); {@code DEAD_LETTERED} é um evento que falhou por
+ * outro motivo no processamento individual. Os dois vão para a fila de
+ * mensagens mortas e podem ser reenviados. {@code PENDING_DURABILITY} é um
+ * evento aceito cujo fsync no log de ingestão não terminou a tempo: ele segue
+ * o caminho normal, mas só está garantido em disco quando avançar para outro
+ * estado.
+ */
+public enum IngestionOutcome {
+    ACCEPTED,
+    PENDING_DURABILITY,
+    RETRIED,
+    APPLIED,
+    REJECTED,
+    DEAD_LETTERED
+}
@@ -0,0 +1,11 @@
+package com.rc.tracking.model.enums;
+
+/**
+ * Resultado de cada id na consulta em lote de pacotes: {@code INVALID_ID} é um
+ * id fora do formato {@code packageEntity-<id>}, que nem chega ao banco.
+ */
+public enum PackageLookupStatus {
+    FOUND,
+    NOT_FOUND,
+    INVALID_ID
+}
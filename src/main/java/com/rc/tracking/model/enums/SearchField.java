@@ -0,0 +1,6 @@
+package com.rc.tracking.model.enums;
+
+public enum SearchField {
+    SENDER,
+    RECIPIENT
+}
@@ -0,0 +1,8 @@
+package com.rc.tracking.model.event;
+
+import com.rc.tracking.model.dto.PackageResponse;
+
+public record PackageChangedEvent(
+        Long packageId,
+        PackageResponse packageResponse
+) {}
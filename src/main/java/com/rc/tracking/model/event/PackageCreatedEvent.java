@@ -0,0 +1,8 @@
+package com.rc.tracking.model.event;
+
+import java.time.LocalDate;
+
+public record PackageCreatedEvent(
+        Long packageId,
+        LocalDate estimatedDeliveryDate
+) {}
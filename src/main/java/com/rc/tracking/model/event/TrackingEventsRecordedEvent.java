@@ -0,0 +1,12 @@
+package com.rc.tracking.model.event;
+
+import com.rc.tracking.model.dto.EventDTO;
+
+import java.util.List;
+
+public record TrackingEventsRecordedEvent(
+        Long packageId,
+        String sender,
+        String recipient,
+        List<EventDTO> events
+) {}
@@ -0,0 +1,65 @@
+package com.rc.tracking.repository;
+
+import com.rc.tracking.model.dto.ArchivedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consultas do arquivamento de eventos: seleção dos pacotes finalizados que
+ * ainda têm eventos na tabela quente, leitura desses eventos e remoção por id
+ * depois que o segmento foi gravado.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EventArchiveRepository {
+
+    private static final String SELECT_ARCHIVABLE_SQL =
+            "SELECT p.id FROM packages p WHERE p.status IN ('DELIVERED', 'CANCELLED') AND p.updated_at < ? AND p.id > ? "
+                    + "AND EXISTS (SELECT 1 FROM tracking_events e WHERE e.package_id = p.id) ORDER BY p.id LIMIT ?";
+
+    private static final String SELECT_EVENTS_SQL =
+            "SELECT package_id, id, location, description, date_time FROM tracking_events WHERE package_id IN (";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<Long> findArchivable(LocalDateTime cutoff, long afterId, int limit) {
+        return jdbcTemplate.queryForList(SELECT_ARCHIVABLE_SQL, Long.class, Timestamp.valueOf(cutoff), afterId, limit);
+    }
+
+    /** Eventos de cada pacote em ordem cronológica, agrupados por pacote. */
+    public Map<Long, List<ArchivedEvent>> findEvents(Collection<Long> packageIds) {
+        Map<Long, List<ArchivedEvent>> events = new LinkedHashMap<>();
+        if (packageIds.isEmpty()) {
+            return events;
+        }
+        jdbcTemplate.query(SELECT_EVENTS_SQL + placeholders(packageIds.size()) + ") ORDER BY package_id, date_time, id",
+                rs -> {
+                    events.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(new ArchivedEvent(
+                            rs.getLong(2), rs.getString(3), rs.getString(4), rs.getTimestamp(5).toLocalDateTime()));
+                },
+                packageIds.toArray());
+        return events;
+    }
+
+    public int deleteEvents(Collection<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update("DELETE FROM tracking_events WHERE id IN (" + placeholders(eventIds.size()) + ")",
+                eventIds.toArray());
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,13 @@
+package com.rc.tracking.repository;
+
+import com.rc.tracking.model.entity.EventArchiveSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EventArchiveSegmentRepository extends JpaRepository<EventArchiveSegment, Long> {
+
+    List<EventArchiveSegment> findByPackageIdOrderById(Long packageId);
+}
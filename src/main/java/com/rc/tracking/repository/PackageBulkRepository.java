@@ -0,0 +1,52 @@
+package com.rc.tracking.repository;
+
+import com.rc.tracking.model.entity.PackageEntity;
+import com.rc.tracking.model.id.SnowflakeIdGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Inserção de pacotes em lote via JDBC para a criação em massa: um único
+ * batch por chamada, com os ids Snowflake atribuídos nas próprias entidades.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PackageBulkRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO packages (id, description, sender, recipient, status, created_at, updated_at, "
+                    + "is_holliday, fun_fact, estimated_delivery_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<PackageEntity> packages) {
+        if (packages.isEmpty()) {
+            return;
+        }
+        for (PackageEntity packageEntity : packages) {
+            packageEntity.setId(SnowflakeIdGenerator.next());
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, packages, packages.size(), (ps, packageEntity) -> {
+            ps.setLong(1, packageEntity.getId());
+            ps.setString(2, packageEntity.getDescription());
+            ps.setString(3, packageEntity.getSender());
+            ps.setString(4, packageEntity.getRecipient());
+            ps.setString(5, packageEntity.getStatus().name());
+            ps.setTimestamp(6, Timestamp.valueOf(packageEntity.getCreatedAt()));
+            ps.setTimestamp(7, Timestamp.valueOf(packageEntity.getUpdatedAt()));
+            if (packageEntity.getIsHolliday() != null) {
+                ps.setBoolean(8, packageEntity.getIsHolliday());
+            } else {
+                ps.setNull(8, Types.BOOLEAN);
+            }
+            ps.setString(9, packageEntity.getFunFact());
+            ps.setDate(10, Date.valueOf(packageEntity.getEstimatedDeliveryDate()));
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package com.rc.tracking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Remoções em massa do expurgo, sempre por lista de ids já selecionada, para
+ * que cada lote tenha tamanho e duração previsíveis.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PackagePurgeRepository {
+
+    private static final String SELECT_DELIVERED_BEFORE_SQL =
+            "SELECT id FROM packages WHERE delivered_at < ? AND id > ? ORDER BY id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<Long> findDeliveredBefore(LocalDateTime cutoff, long afterId, int limit) {
+        return jdbcTemplate.queryForList(SELECT_DELIVERED_BEFORE_SQL, Long.class,
+                Timestamp.valueOf(cutoff), afterId, limit);
+    }
+
+    public int deleteEvents(Collection<Long> packageIds) {
+        return deleteByIds("DELETE FROM tracking_events WHERE package_id IN (", packageIds);
+    }
+
+    /** Remove só o índice; os bytes do segmento ficam órfãos no arquivo morto. */
+    public int deleteArchiveSegments(Collection<Long> packageIds) {
+        return deleteByIds("DELETE FROM event_archive_segments WHERE package_id IN (", packageIds);
+    }
+
+    public int deletePackages(Collection<Long> packageIds) {
+        return deleteByIds("DELETE FROM packages WHERE id IN (", packageIds);
+    }
+
+    private int deleteByIds(String prefix, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return jdbcTemplate.update(prefix + placeholders + ")", ids.toArray());
+    }
+}
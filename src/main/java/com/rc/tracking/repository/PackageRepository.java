@@ -1,21 +1,47 @@
 package com.rc.tracking.repository;
 
 import com.rc.tracking.model.entity.PackageEntity;
+import com.rc.tracking.model.enums.StatusEnum;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface PackageRepository extends JpaRepository<PackageEntity, Long> {
-
-    List<PackageEntity> findBySenderContainingIgnoreCase(String sender);
-
-    List<PackageEntity> findByRecipientContainingIgnoreCase(String recipient);
-
-    List<PackageEntity> findBySenderContainingIgnoreCaseAndRecipientContainingIgnoreCase(String sender, String recipient);
-
-    int deleteByDeliveredAtBefore(LocalDateTime cutoff);
+public interface PackageRepository extends JpaRepository<PackageEntity, Long>, JpaSpecificationExecutor<PackageEntity> {
+
+    /**
+     * Grava o enriquecimento e avança {@code updatedAt} explicitamente (o H2 não
+     * tem ON UPDATE), para que o ETag dos detalhes mude junto.
+     */
+    @Modifying
+    @Transactional
+    @Query("update PackageEntity p set p.isHolliday = :isHolliday, p.funFact = :funFact, p.updatedAt = :now where p.id = :id")
+    int updateEnrichment(@Param("id") Long id, @Param("isHolliday") Boolean isHolliday, @Param("funFact") String funFact,
+                         @Param("now") LocalDateTime now);
+
+    /**
+     * Transição de status atômica: só altera o pacote se ele ainda estiver em
+     * {@code from}. Devolve 0 quando o pacote não existe ou já mudou.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update PackageEntity p set p.status = :to, p.updatedAt = :now, p.deliveredAt = :deliveredAt "
+            + "where p.id = :id and p.status = :from")
+    int transitionStatus(@Param("id") Long id, @Param("from") StatusEnum from, @Param("to") StatusEnum to,
+                         @Param("deliveredAt") LocalDateTime deliveredAt, @Param("now") LocalDateTime now);
+
+    /**
+     * Pacotes criados entre {@code from} e {@code to} que ainda não foram
+     * enriquecidos; o enriquecimento sempre grava um fun fact, nem que seja o
+     * texto de fallback.
+     */
+    List<PackageEntity> findByFunFactIsNullAndCreatedAtBetweenOrderById(LocalDateTime from, LocalDateTime to, Limit limit);
 
 }
@@ -0,0 +1,92 @@
+package com.rc.tracking.repository;
+
+import com.rc.tracking.model.enums.SearchField;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tabela de trigramas de sender/recipient, mantida em sincronia com as
+ * escritas em {@code packages}, que permite atender buscas por substring sem
+ * varrer a tabela inteira com {@code LIKE '%...%'}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PackageSearchIndexRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO package_search_ngrams (field, ngram, package_id) VALUES (?, ?, ?)";
+
+    private static final String SELECT_UNINDEXED_PAGE_SQL =
+            "SELECT p.id, p.sender, p.recipient FROM packages p WHERE p.id > ? "
+                    + "AND NOT EXISTS (SELECT 1 FROM package_search_ngrams n WHERE n.package_id = p.id) "
+                    + "ORDER BY p.id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void index(Long packageId, String sender, String recipient) {
+        List<Object[]> rows = new ArrayList<>();
+        addRows(rows, packageId, SearchField.SENDER, sender);
+        addRows(rows, packageId, SearchField.RECIPIENT, recipient);
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        }
+    }
+
+    /** Indexa vários pacotes num único batch; cada item é {@code {id, sender, recipient}}. */
+    public void indexAll(List<Object[]> packages) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Object[] row : packages) {
+            addRows(rows, (Long) row[0], SearchField.SENDER, (String) row[1]);
+            addRows(rows, (Long) row[0], SearchField.RECIPIENT, (String) row[2]);
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        }
+    }
+
+    public void remove(Collection<Long> packageIds) {
+        if (packageIds.isEmpty()) {
+            return;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(packageIds.size(), "?"));
+        jdbcTemplate.update("DELETE FROM package_search_ngrams WHERE package_id IN (" + placeholders + ")",
+                packageIds.toArray());
+    }
+
+    /**
+     * Indexa uma página dos pacotes depois de {@code afterId} que ainda não têm
+     * nenhum trigrama, e devolve a página processada (vazia quando não há mais
+     * pacotes). Os já indexados não são tocados, então repetir é seguro.
+     */
+    public List<Long> indexMissingPage(long afterId, int pageSize) {
+        List<Object[]> packages = selectPage(SELECT_UNINDEXED_PAGE_SQL, afterId, pageSize);
+        indexAll(packages);
+        return packages.stream().map(row -> (Long) row[0]).toList();
+    }
+
+    /** Maior id de pacote, ou 0 se a tabela está vazia. */
+    public long maxPackageId() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM packages", Long.class);
+        return maxId != null ? maxId : 0L;
+    }
+
+    private List<Object[]> selectPage(String sql, long afterId, int pageSize) {
+        return jdbcTemplate.query(sql,
+                (rs, rowNum) -> new Object[]{rs.getLong("id"), rs.getString("sender"), rs.getString("recipient")},
+                afterId, pageSize);
+    }
+
+    private static void addRows(List<Object[]> rows, Long packageId, SearchField field, String value) {
+        Set<String> grams = SearchNgrams.trigrams(value);
+        for (String gram : grams) {
+            rows.add(new Object[]{field.name(), gram, packageId});
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.rc.tracking.repository;
+
+import com.rc.tracking.model.dto.PackageFilter;
+import com.rc.tracking.model.entity.PackageEntity;
+import com.rc.tracking.model.entity.PackageSearchNgram;
+import com.rc.tracking.model.enums.SearchField;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public final class PackageSpecifications {
+
+    static final char LIKE_ESCAPE = '!';
+
+    private PackageSpecifications() {
+    }
+
+    /**
+     * Filtros da listagem de pacotes, com o cursor de keyset ({@code id > cursor})
+     * já embutido para que a ordenação por id sirva a paginação.
+     */
+    public static Specification<PackageEntity> matching(PackageFilter filter, Long cursor) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (cursor != null) {
+                predicates.add(cb.greaterThan(root.get("id"), cursor));
+            }
+            if (hasText(filter.sender())) {
+                predicates.add(contains(root, query, cb, SearchField.SENDER, "sender", filter.sender()));
+            }
+            if (hasText(filter.recipient())) {
+                predicates.add(contains(root, query, cb, SearchField.RECIPIENT, "recipient", filter.recipient()));
+            }
+            if (filter.status() != null) {
+                predicates.add(cb.equal(root.get("status"), filter.status()));
+            }
+            if (filter.createdFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), filter.createdFrom()));
+            }
+            if (filter.createdTo() != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), filter.createdTo()));
+            }
+            if (filter.estimatedFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("estimatedDeliveryDate"), filter.estimatedFrom()));
+            }
+            if (filter.estimatedTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("estimatedDeliveryDate"), filter.estimatedTo()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Busca por substring: os candidatos vêm do índice de trigramas (todos os
+     * trigramas do termo presentes) e o LIKE só confirma o resultado. Termos
+     * com menos de três caracteres caem no LIKE puro.
+     */
+    private static Predicate contains(Root<PackageEntity> root, CriteriaQuery<?> query, CriteriaBuilder cb,
+                                      SearchField field, String attribute, String term) {
+        Predicate like = cb.like(cb.lower(root.get(attribute)), containsPattern(term), LIKE_ESCAPE);
+        Set<String> grams = SearchNgrams.trigrams(term);
+        if (grams.isEmpty()) {
+            return like;
+        }
+        Subquery<Long> candidates = query.subquery(Long.class);
+        Root<PackageSearchNgram> ngram = candidates.from(PackageSearchNgram.class);
+        candidates.select(ngram.get("packageId"))
+                .where(cb.equal(ngram.get("field"), field), ngram.get("ngram").in(grams))
+                .groupBy(ngram.get("packageId"))
+                .having(cb.equal(cb.countDistinct(ngram.get("ngram")), (long) grams.size()));
+        return cb.and(root.get("id").in(candidates), like);
+    }
+
+    static boolean hasText(String value) {
+        return value != null && !value.isEmpty();
+    }
+
+    static String containsPattern(String value) {
+        String escaped = value.toLowerCase()
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        return "%" + escaped + "%";
+    }
+}
@@ -0,0 +1,125 @@
+package com.rc.tracking.repository;
+
+import com.rc.tracking.model.dto.PackageFilter;
+import com.rc.tracking.model.dto.PackageResponse;
+import com.rc.tracking.model.enums.SearchField;
+import com.rc.tracking.model.enums.StatusEnum;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import static com.rc.tracking.repository.PackageSpecifications.containsPattern;
+import static com.rc.tracking.repository.PackageSpecifications.hasText;
+
+/**
+ * Leitura de pacotes direto de um cursor JDBC, linha a linha, sem passar pelo
+ * contexto de persistência. No MySQL o fetch size {@code Integer.MIN_VALUE}
+ * faz o driver entregar as linhas à medida que chegam do servidor.
+ */
+@Repository
+public class PackageStreamRepository {
+
+    private static final String SELECT_SQL =
+            "SELECT id, description, sender, recipient, status, created_at, updated_at, delivered_at FROM packages";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PackageStreamRepository(DataSource dataSource,
+                                   @Value("${tracking.listing.stream-fetch-size:" + Integer.MIN_VALUE + "}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    public void stream(PackageFilter filter, Long cursor, Consumer<PackageResponse> consumer) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL).append(" WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (cursor != null) {
+            sql.append(" AND id > ?");
+            args.add(cursor);
+        }
+        if (hasText(filter.sender())) {
+            appendContains(sql, args, SearchField.SENDER, "sender", filter.sender());
+        }
+        if (hasText(filter.recipient())) {
+            appendContains(sql, args, SearchField.RECIPIENT, "recipient", filter.recipient());
+        }
+        if (filter.status() != null) {
+            sql.append(" AND status = ?");
+            args.add(filter.status().name());
+        }
+        if (filter.createdFrom() != null) {
+            sql.append(" AND created_at >= ?");
+            args.add(Timestamp.valueOf(filter.createdFrom()));
+        }
+        if (filter.createdTo() != null) {
+            sql.append(" AND created_at < ?");
+            args.add(Timestamp.valueOf(filter.createdTo()));
+        }
+        if (filter.estimatedFrom() != null) {
+            sql.append(" AND estimated_delivery_date >= ?");
+            args.add(Date.valueOf(filter.estimatedFrom()));
+        }
+        if (filter.estimatedTo() != null) {
+            sql.append(" AND estimated_delivery_date <= ?");
+            args.add(Date.valueOf(filter.estimatedTo()));
+        }
+        sql.append(" ORDER BY id");
+
+        jdbcTemplate.query(sql.toString(), rs -> {
+            consumer.accept(mapRow(rs));
+        }, args.toArray());
+    }
+
+    /** Percorre os ids de todos os pacotes, para montar estruturas em memória na subida. */
+    public long forEachId(LongConsumer consumer) {
+        long[] count = {0};
+        jdbcTemplate.query("SELECT id FROM packages", rs -> {
+            consumer.accept(rs.getLong(1));
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    private static void appendContains(StringBuilder sql, List<Object> args, SearchField field, String column, String term) {
+        Set<String> grams = SearchNgrams.trigrams(term);
+        if (!grams.isEmpty()) {
+            sql.append(" AND id IN (SELECT package_id FROM package_search_ngrams WHERE field = ? AND ngram IN (")
+                    .append(String.join(", ", Collections.nCopies(grams.size(), "?")))
+                    .append(") GROUP BY package_id HAVING COUNT(DISTINCT ngram) = ?)");
+            args.add(field.name());
+            args.addAll(grams);
+            args.add(grams.size());
+        }
+        sql.append(" AND LOWER(").append(column).append(") LIKE ? ESCAPE '!'");
+        args.add(containsPattern(term));
+    }
+
+    private static PackageResponse mapRow(ResultSet rs) throws SQLException {
+        return new PackageResponse(
+                "packageEntity-" + rs.getLong("id"),
+                rs.getString("description"),
+                rs.getString("sender"),
+                rs.getString("recipient"),
+                StatusEnum.valueOf(rs.getString("status")),
+                toLocalDateTime(rs.getTimestamp("created_at")),
+                toLocalDateTime(rs.getTimestamp("updated_at")),
+                toLocalDateTime(rs.getTimestamp("delivered_at")));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,196 @@
+package com.rc.tracking.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Consulta e altera as partições {@code RANGE} do MySQL, por
+ * {@code TO_DAYS(data)} ou {@code UNIX_TIMESTAMP(timestamp)}. Em outros bancos
+ * (H2 nos testes) {@link #isSupported()} é falso e nenhuma operação é feita.
+ */
+@Repository
+public class PartitionRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionRepository.class);
+
+    // TO_DAYS('1970-01-01')
+    private static final long TO_DAYS_EPOCH = 719_528L;
+    private static final Pattern PARTITION_NAME = Pattern.compile("[A-Za-z0-9_]+");
+
+    private static final String SELECT_PARTITIONS_SQL =
+            "SELECT PARTITION_NAME, PARTITION_DESCRIPTION, TABLE_ROWS, DATA_LENGTH + INDEX_LENGTH, PARTITION_EXPRESSION "
+                    + "FROM information_schema.PARTITIONS "
+                    + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL "
+                    + "ORDER BY PARTITION_ORDINAL_POSITION";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean supported;
+
+    public PartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Partição de uma tabela; {@code upperBound} é exclusivo e nulo para MAXVALUE.
+     * Linhas e tamanho são as estimativas do information_schema.
+     */
+    public record Partition(String name, LocalDate upperBound, long estimatedRows, long sizeBytes) {}
+
+    public boolean isSupported() {
+        Boolean detected = supported;
+        if (detected == null) {
+            detected = detectMySql(jdbcTemplate);
+            supported = detected;
+        }
+        return detected;
+    }
+
+    public List<Partition> findPartitions(String table) {
+        if (!isSupported()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(SELECT_PARTITIONS_SQL, (rs, rowNum) -> new Partition(
+                rs.getString(1), toDate(rs.getString(2), isUnixTimestamp(rs.getString(5))), rs.getLong(3), rs.getLong(4)),
+                table);
+    }
+
+    /** Ids dos pacotes da partição entregues antes de {@code cutoff}, a partir de {@code afterId}. */
+    public List<Long> findPurgeablePackageIds(String partition, LocalDateTime cutoff, long afterId, int limit) {
+        return jdbcTemplate.queryForList("SELECT id FROM packages PARTITION (" + checked(partition) + ") "
+                + "WHERE id > ? AND delivered_at < ? ORDER BY id LIMIT ?",
+                Long.class, afterId, Timestamp.valueOf(cutoff), limit);
+    }
+
+    /** Verdadeiro se a partição tem algum pacote que ainda não pode ser expurgado. */
+    public boolean hasPackagesToKeep(String partition, LocalDateTime cutoff) {
+        List<Long> kept = jdbcTemplate.queryForList(keepSql(partition), Long.class, Timestamp.valueOf(cutoff));
+        return !kept.isEmpty();
+    }
+
+    /**
+     * Remove a partição de {@code packages} só se, com a tabela travada para
+     * escrita ({@code LOCK TABLES}), ela continuar sem nenhum pacote a manter.
+     * A verificação, o DROP e o UNLOCK rodam na mesma conexão, então nenhum
+     * insert concorrente (uma data de entrega no passado cai numa partição
+     * antiga) entra entre a verificação e o DROP; as escritas em
+     * {@code packages} esperam só esse intervalo. Devolve {@code false} se
+     * encontrou um pacote a manter e não removeu nada.
+     */
+    public boolean dropPackagePartitionUnlessKept(String partition, LocalDateTime cutoff) {
+        Boolean dropped = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("LOCK TABLES packages WRITE");
+                try {
+                    try (PreparedStatement keep = connection.prepareStatement(keepSql(partition))) {
+                        keep.setTimestamp(1, Timestamp.valueOf(cutoff));
+                        try (ResultSet rs = keep.executeQuery()) {
+                            if (rs.next()) {
+                                return false;
+                            }
+                        }
+                    }
+                    statement.execute("ALTER TABLE packages DROP PARTITION " + checked(partition));
+                    return true;
+                } finally {
+                    statement.execute("UNLOCK TABLES");
+                }
+            }
+        });
+        return Boolean.TRUE.equals(dropped);
+    }
+
+    private static String keepSql(String partition) {
+        return "SELECT id FROM packages PARTITION (" + checked(partition) + ") "
+                + "WHERE delivered_at IS NULL OR delivered_at >= ? LIMIT 1";
+    }
+
+    public boolean isEmpty(String table, String partition) {
+        return jdbcTemplate.queryForList("SELECT 1 FROM " + checked(table) + " PARTITION (" + checked(partition) + ") LIMIT 1",
+                Integer.class).isEmpty();
+    }
+
+    public void dropPartition(String table, String partition) {
+        jdbcTemplate.execute("ALTER TABLE " + checked(table) + " DROP PARTITION " + checked(partition));
+    }
+
+    /**
+     * Divide a partição MAXVALUE em partições com os limites superiores
+     * informados (em ordem crescente), mantendo-a como a última.
+     */
+    public void splitMaxValuePartition(String table, String maxValuePartition, List<Partition> newPartitions) {
+        String expression = jdbcTemplate.queryForObject("SELECT PARTITION_EXPRESSION FROM information_schema.PARTITIONS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME = ?",
+                String.class, table, maxValuePartition);
+        boolean unixTimestamp = isUnixTimestamp(expression);
+        StringBuilder sql = new StringBuilder("ALTER TABLE ").append(checked(table))
+                .append(" REORGANIZE PARTITION ").append(checked(maxValuePartition)).append(" INTO (");
+        for (Partition partition : newPartitions) {
+            sql.append("PARTITION ").append(checked(partition.name()))
+                    .append(" VALUES LESS THAN (")
+                    .append(toBound(partition.upperBound(), unixTimestamp))
+                    .append("), ");
+        }
+        sql.append("PARTITION ").append(checked(maxValuePartition)).append(" VALUES LESS THAN MAXVALUE)");
+        jdbcTemplate.execute(sql.toString());
+    }
+
+    /**
+     * Inverso de {@link #toDate}: o limite vai como número já calculado, porque
+     * {@code UNIX_TIMESTAMP('...')} interpretaria a data no fuso da sessão, e
+     * a leitura de volta é em UTC.
+     */
+    static long toBound(LocalDate upperBound, boolean unixTimestamp) {
+        return unixTimestamp
+                ? upperBound.atStartOfDay(ZoneOffset.UTC).toEpochSecond()
+                : upperBound.toEpochDay() + TO_DAYS_EPOCH;
+    }
+
+    static LocalDate toDate(String description, boolean unixTimestamp) {
+        if (description == null || "MAXVALUE".equalsIgnoreCase(description)) {
+            return null;
+        }
+        long value = Long.parseLong(description.trim());
+        return unixTimestamp
+                ? LocalDate.ofInstant(Instant.ofEpochSecond(value), ZoneOffset.UTC)
+                : LocalDate.ofEpochDay(value - TO_DAYS_EPOCH);
+    }
+
+    private static boolean isUnixTimestamp(String expression) {
+        return expression != null && expression.toLowerCase().contains("unix_timestamp");
+    }
+
+    private static String checked(String identifier) {
+        if (!PARTITION_NAME.matcher(identifier).matches()) {
+            throw new IllegalArgumentException("Invalid identifier: " + identifier);
+        }
+        return identifier;
+    }
+
+    private static boolean detectMySql(JdbcTemplate jdbcTemplate) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                    DatabaseMetaData::getDatabaseProductName);
+            return product != null && product.toLowerCase().contains("mysql");
+        } catch (MetaDataAccessException ex) {
+            logger.warn("Could not detect database product, partition maintenance disabled: {}", ex.getMessage());
+            return false;
+        }
+    }
+}
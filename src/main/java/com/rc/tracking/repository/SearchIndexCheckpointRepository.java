@@ -0,0 +1,9 @@
+package com.rc.tracking.repository;
+
+import com.rc.tracking.model.entity.SearchIndexCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SearchIndexCheckpointRepository extends JpaRepository<SearchIndexCheckpoint, String> {
+}
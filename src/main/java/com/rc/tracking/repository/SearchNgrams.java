@@ -0,0 +1,49 @@
+package com.rc.tracking.repository;
+
+import java.text.Normalizer;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalização e quebra em trigramas usadas tanto na indexação de
+ * sender/recipient quanto na busca. Acentos e caixa são descartados para que
+ * o conjunto de candidatos seja sempre um superconjunto do que o LIKE aceita.
+ */
+public final class SearchNgrams {
+
+    public static final int NGRAM_LENGTH = 3;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SearchNgrams() {
+    }
+
+    public static String normalize(String value) {
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        String stripped = DIACRITICS.matcher(decomposed).replaceAll("");
+        return WHITESPACE.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+
+    /**
+     * Trigramas distintos do valor normalizado; vazio quando o valor tem menos
+     * de três caracteres e não pode ser atendido pelo índice.
+     */
+    public static Set<String> trigrams(String value) {
+        if (value == null) {
+            return Collections.emptySet();
+        }
+        String normalized = normalize(value);
+        if (normalized.length() < NGRAM_LENGTH) {
+            return Collections.emptySet();
+        }
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + NGRAM_LENGTH <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + NGRAM_LENGTH));
+        }
+        return grams;
+    }
+}
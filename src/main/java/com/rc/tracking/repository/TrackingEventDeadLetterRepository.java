@@ -0,0 +1,14 @@
+package com.rc.tracking.repository;
+
+import com.rc.tracking.model.entity.TrackingEventDeadLetter;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TrackingEventDeadLetterRepository extends JpaRepository<TrackingEventDeadLetter, Long> {
+
+    List<TrackingEventDeadLetter> findByIdGreaterThanOrderById(Long id, Limit limit);
+}
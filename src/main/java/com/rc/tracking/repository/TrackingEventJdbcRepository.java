@@ -0,0 +1,139 @@
+package com.rc.tracking.repository;
+
+import com.rc.tracking.model.entity.TrackingEvent;
+import com.rc.tracking.model.id.SnowflakeIdGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Escritas em lote via JDBC para o caminho de ingestão de eventos, onde o
+ * custo de um round-trip por entidade do JPA não se paga.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TrackingEventJdbcRepository {
+
+    // Chave já gravada (reenvio que saiu da memória do EventDeduplicator) não derruba o lote:
+    // no MySQL a linha é ignorada; nos outros bancos (H2 nos testes) o NOT EXISTS faz o mesmo
+    private static final String INSERT_EVENT_IGNORE_SQL =
+            "INSERT IGNORE INTO tracking_events (id, location, description, date_time, package_id, event_key) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_EVENT_IF_ABSENT_SQL =
+            "INSERT INTO tracking_events (id, location, description, date_time, package_id, event_key) "
+                    + "SELECT CAST(? AS BIGINT), CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS TIMESTAMP), "
+                    + "CAST(? AS BIGINT), CAST(? AS VARCHAR) FROM DUAL "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM tracking_events WHERE event_key = ?)";
+
+    private static final String TOUCH_PACKAGE_SQL =
+            "UPDATE packages SET updated_at = ? WHERE id = ? AND (updated_at IS NULL OR updated_at < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile String insertEventSql;
+
+    /**
+     * Grava os eventos, pulando os de {@code event_key} que já existe na
+     * tabela. Devolve as chaves puladas; com o batch reescrito do MySQL o
+     * driver não informa linha a linha, e nesse caso nenhuma chave volta.
+     */
+    public Set<String> insertAll(List<TrackingEvent> events) {
+        if (events.isEmpty()) {
+            return Set.of();
+        }
+        for (TrackingEvent event : events) {
+            event.setId(SnowflakeIdGenerator.next());
+        }
+        String sql = insertEventSql();
+        boolean keyCheckParameter = !INSERT_EVENT_IGNORE_SQL.equals(sql);
+        int[][] counts = jdbcTemplate.batchUpdate(sql, events, events.size(), (ps, event) -> {
+            ps.setLong(1, event.getId());
+            ps.setString(2, event.getLocation());
+            ps.setString(3, event.getDescription());
+            ps.setTimestamp(4, Timestamp.valueOf(event.getDateTime()));
+            ps.setLong(5, event.getPackageEntity().getId());
+            ps.setString(6, event.getEventKey());
+            if (keyCheckParameter) {
+                ps.setString(7, event.getEventKey());
+            }
+        });
+        Set<String> skipped = new LinkedHashSet<>();
+        int index = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                if (count == 0) {
+                    skipped.add(events.get(index).getEventKey());
+                }
+                index++;
+            }
+        }
+        return skipped;
+    }
+
+    private String insertEventSql() {
+        String sql = insertEventSql;
+        if (sql == null) {
+            sql = isMySql() ? INSERT_EVENT_IGNORE_SQL : INSERT_EVENT_IF_ABSENT_SQL;
+            insertEventSql = sql;
+        }
+        return sql;
+    }
+
+    private boolean isMySql() {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                    DatabaseMetaData::getDatabaseProductName);
+            return product != null && product.toLowerCase().contains("mysql");
+        } catch (MetaDataAccessException ex) {
+            return false;
+        }
+    }
+
+    public Set<String> findExistingKeys(Collection<String> eventKeys) {
+        if (eventKeys.isEmpty()) {
+            return Set.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(eventKeys.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT event_key FROM tracking_events WHERE event_key IN (" + placeholders + ")",
+                String.class, eventKeys.toArray()));
+    }
+
+    public void forEachKeySince(LocalDateTime since, Consumer<String> consumer) {
+        jdbcTemplate.query("SELECT event_key FROM tracking_events WHERE date_time >= ? AND event_key IS NOT NULL",
+                rs -> {
+                    consumer.accept(rs.getString(1));
+                }, new Object[]{Timestamp.valueOf(since)});
+    }
+
+    /**
+     * Grava o {@code updated_at} de cada pacote, sem voltar no tempo caso a
+     * linha já tenha um valor mais recente (por exemplo, de uma troca de status).
+     */
+    public void touchPackages(Map<Long, LocalDateTime> updatedAtByPackage) {
+        if (updatedAtByPackage.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, LocalDateTime>> entries = new ArrayList<>(updatedAtByPackage.entrySet());
+        jdbcTemplate.batchUpdate(TOUCH_PACKAGE_SQL, entries, entries.size(), (ps, entry) -> {
+            Timestamp timestamp = Timestamp.valueOf(entry.getValue());
+            ps.setTimestamp(1, timestamp);
+            ps.setLong(2, entry.getKey());
+            ps.setTimestamp(3, timestamp);
+        });
+    }
+}
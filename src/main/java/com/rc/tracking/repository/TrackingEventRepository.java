@@ -2,12 +2,26 @@ package com.rc.tracking.repository;
 
 import com.rc.tracking.model.entity.TrackingEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface TrackingEventRepository extends JpaRepository<TrackingEvent, Long> {
+public interface TrackingEventRepository extends JpaRepository<TrackingEvent, Long>, JpaSpecificationExecutor<TrackingEvent> {
 
-    List<TrackingEvent> findByPackageEntityId(Long packageId);
+    /**
+     * Os {@code limit} eventos mais recentes de cada pacote, numa única
+     * consulta: ROW_NUMBER por package_id sobre o índice (package_id, date_time).
+     */
+    @Query(value = "select t.id, t.location, t.description, t.date_time, t.event_key, t.package_id from ("
+            + "select e.*, row_number() over (partition by e.package_id order by e.date_time desc, e.id desc) rn "
+            + "from tracking_events e where e.package_id in (:packageIds)) t "
+            + "where t.rn <= :limit order by t.package_id, t.date_time desc, t.id desc",
+            nativeQuery = true)
+    List<TrackingEvent> findLatestByPackageIds(@Param("packageIds") Collection<Long> packageIds,
+                                               @Param("limit") int limit);
 }
@@ -0,0 +1,46 @@
+package com.rc.tracking.repository;
+
+import com.rc.tracking.model.dto.EventCursor;
+import com.rc.tracking.model.entity.TrackingEvent;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class TrackingEventSpecifications {
+
+    /** Ordem do histórico: mais recente primeiro, com o id desempatando eventos no mesmo instante. */
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "dateTime", "id");
+
+    private TrackingEventSpecifications() {
+    }
+
+    /**
+     * Eventos de um pacote na janela {@code [since, until)}, já a partir do
+     * cursor de keyset, de forma que a consulta percorra o índice
+     * {@code (package_id, date_time)} sem OFFSET.
+     */
+    public static Specification<TrackingEvent> history(Long packageId, LocalDateTime since, LocalDateTime until,
+                                                       EventCursor cursor) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("packageEntity").get("id"), packageId));
+            if (since != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("dateTime"), since));
+            }
+            if (until != null) {
+                predicates.add(cb.lessThan(root.get("dateTime"), until));
+            }
+            if (cursor != null) {
+                predicates.add(cb.or(
+                        cb.lessThan(root.get("dateTime"), cursor.dateTime()),
+                        cb.and(cb.equal(root.get("dateTime"), cursor.dateTime()),
+                                cb.lessThan(root.get("id"), cursor.id()))));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
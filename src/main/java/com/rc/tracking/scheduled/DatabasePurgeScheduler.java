@@ -1,26 +1,33 @@
 package com.rc.tracking.scheduled;
 
-import com.rc.tracking.repository.PackageRepository;
-import lombok.RequiredArgsConstructor;
+import com.rc.tracking.service.PackagePurgeService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.time.Period;
 
 @Component
-@RequiredArgsConstructor
 public class DatabasePurgeScheduler {
 
     private static final Logger logger = LoggerFactory.getLogger(DatabasePurgeScheduler.class);
 
-    private final PackageRepository packageRepository;
+    private final PackagePurgeService packagePurgeService;
+    private final Period retention;
 
-    @Scheduled(cron = "0 0 3 * * ?")
+    public DatabasePurgeScheduler(PackagePurgeService packagePurgeService,
+                                  @Value("${tracking.purge.retention:1y}") Period retention) {
+        this.packagePurgeService = packagePurgeService;
+        this.retention = retention;
+    }
+
+    @Scheduled(cron = "${tracking.purge.cron:0 0 3 * * ?}")
     public void purgeOldPackages() {
-        LocalDateTime cutoffDate = LocalDateTime.now().minusYears(1);
-        int deletedCount = packageRepository.deleteByDeliveredAtBefore(cutoffDate);
+        LocalDateTime cutoffDate = LocalDateTime.now().minus(retention);
+        long deletedCount = packagePurgeService.purgeDeliveredBefore(cutoffDate);
         logger.info("Expurgo concluído: {} pacotes removidos (entregues antes de {})", deletedCount, cutoffDate);
     }
 }
@@ -0,0 +1,67 @@
+package com.rc.tracking.scheduled;
+
+import com.rc.tracking.model.entity.PackageEntity;
+import com.rc.tracking.repository.PackageRepository;
+import com.rc.tracking.service.PackageEnrichmentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Reenfileira no executor de enriquecimento os pacotes que ficaram sem fun
+ * fact: o enriquecimento descartado com a fila cheia, ou perdido numa parada
+ * do processo, não tem outra chance. Cada rodada pega no máximo
+ * {@code backfill-batch-size} pacotes criados nos últimos
+ * {@code backfill-lookback}, ignorando os mais novos que
+ * {@code backfill-delay}, que provavelmente ainda estão na fila.
+ */
+@Component
+public class EnrichmentBackfillScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnrichmentBackfillScheduler.class);
+
+    private final PackageRepository packageRepository;
+    private final PackageEnrichmentService packageEnrichmentService;
+    private final Executor enrichmentExecutor;
+    private final Duration delay;
+    private final Duration lookback;
+    private final int batchSize;
+
+    public EnrichmentBackfillScheduler(PackageRepository packageRepository,
+                                       PackageEnrichmentService packageEnrichmentService,
+                                       @Qualifier("enrichmentExecutor") Executor enrichmentExecutor,
+                                       @Value("${tracking.enrichment.backfill-delay:5m}") Duration delay,
+                                       @Value("${tracking.enrichment.backfill-lookback:7d}") Duration lookback,
+                                       @Value("${tracking.enrichment.backfill-batch-size:100}") int batchSize) {
+        this.packageRepository = packageRepository;
+        this.packageEnrichmentService = packageEnrichmentService;
+        this.enrichmentExecutor = enrichmentExecutor;
+        this.delay = delay;
+        this.lookback = lookback;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.enrichment.backfill-interval-ms:300000}",
+            initialDelayString = "${tracking.enrichment.backfill-interval-ms:300000}")
+    public void backfillEnrichment() {
+        LocalDateTime now = LocalDateTime.now();
+        List<PackageEntity> pending = packageRepository.findByFunFactIsNullAndCreatedAtBetweenOrderById(
+                now.minus(lookback), now.minus(delay), Limit.of(batchSize));
+        for (PackageEntity packageEntity : pending) {
+            enrichmentExecutor.execute(() -> packageEnrichmentService.enrich(
+                    packageEntity.getId(), packageEntity.getEstimatedDeliveryDate()));
+        }
+        if (!pending.isEmpty()) {
+            logger.info("Enrichment backfill resubmitted {} packages without fun fact", pending.size());
+        }
+    }
+}
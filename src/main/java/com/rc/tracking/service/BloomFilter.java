@@ -0,0 +1,72 @@
+package com.rc.tracking.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom para chaves que já são hashes hexadecimais (SHA-256): os
+ * dois hashes da técnica de double hashing saem direto dos primeiros 32
+ * caracteres da chave, sem recalcular nada. Também aceita chaves numéricas,
+ * espalhadas pelo finalizador do SplitMix64.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (m + 63) >>> 6);
+        this.words = new AtomicLongArray(words);
+        this.bits = (long) words << 6;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+    }
+
+    void put(String hexKey) {
+        put(Long.parseUnsignedLong(hexKey, 0, 16, 16), Long.parseUnsignedLong(hexKey, 16, 32, 16));
+    }
+
+    boolean mightContain(String hexKey) {
+        return mightContain(Long.parseUnsignedLong(hexKey, 0, 16, 16), Long.parseUnsignedLong(hexKey, 16, 32, 16));
+    }
+
+    void put(long key) {
+        long h1 = mix(key);
+        put(h1, mix(h1));
+    }
+
+    boolean mightContain(long key) {
+        long h1 = mix(key);
+        return mightContain(h1, mix(h1));
+    }
+
+    private void put(long h1, long h2) {
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            while (((current = words.get(word)) & mask) == 0
+                    && !words.compareAndSet(word, current, current | mask)) {
+                // outra thread alterou a palavra; tenta de novo
+            }
+        }
+    }
+
+    private boolean mightContain(long h1, long h2) {
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,93 @@
+package com.rc.tracking.service;
+
+import com.rc.tracking.exception.InvalidCursorException;
+import com.rc.tracking.model.dto.DeadLetterPageResponse;
+import com.rc.tracking.model.dto.DeadLetterReplayResponse;
+import com.rc.tracking.model.dto.DeadLetterResponse;
+import com.rc.tracking.model.dto.IngestionReceipt;
+import com.rc.tracking.model.dto.TrackingEventRequest;
+import com.rc.tracking.model.entity.TrackingEventDeadLetter;
+import com.rc.tracking.repository.TrackingEventDeadLetterRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consulta e reenvio da fila de mensagens mortas da ingestão. O reenvio lê as
+ * mensagens mais antigas, devolve cada uma ao {@link TrackingEventIngestionQueue}
+ * como um evento novo e só apaga as que o log de ingestão aceitou.
+ */
+@Service
+@RequiredArgsConstructor
+public class DeadLetterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterService.class);
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final TrackingEventDeadLetterRepository deadLetterRepository;
+    private final TrackingEventIngestionQueue trackingEventIngestionQueue;
+
+    public DeadLetterPageResponse listDeadLetters(String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<TrackingEventDeadLetter> deadLetters = deadLetterRepository.findByIdGreaterThanOrderById(
+                decodeCursor(cursor), Limit.of(pageSize + 1));
+
+        boolean hasNext = deadLetters.size() > pageSize;
+        List<TrackingEventDeadLetter> page = hasNext ? deadLetters.subList(0, pageSize) : deadLetters;
+        List<DeadLetterResponse> items = page.stream()
+                .map(DeadLetterService::toResponse)
+                .toList();
+        String nextCursor = hasNext ? Long.toString(page.get(page.size() - 1).getId()) : null;
+        return new DeadLetterPageResponse(items, nextCursor);
+    }
+
+    private static long decodeCursor(String cursor) {
+        if (cursor == null) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException ex) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    public DeadLetterReplayResponse replayDeadLetters(int limit) {
+        List<TrackingEventDeadLetter> deadLetters = deadLetterRepository.findByIdGreaterThanOrderById(
+                0L, Limit.of(Math.max(1, Math.min(limit, MAX_PAGE_SIZE))));
+
+        List<Long> replayedIds = new ArrayList<>(deadLetters.size());
+        List<String> tokens = new ArrayList<>(deadLetters.size());
+        try {
+            for (TrackingEventDeadLetter deadLetter : deadLetters) {
+                IngestionReceipt receipt = trackingEventIngestionQueue.submit(toRequest(deadLetter));
+                replayedIds.add(deadLetter.getId());
+                tokens.add(receipt.token());
+            }
+        } finally {
+            if (!replayedIds.isEmpty()) {
+                deadLetterRepository.deleteAllByIdInBatch(replayedIds);
+            }
+        }
+        logger.info("Replayed {} dead-lettered tracking events", replayedIds.size());
+        return new DeadLetterReplayResponse(replayedIds.size(), tokens);
+    }
+
+    private static TrackingEventRequest toRequest(TrackingEventDeadLetter deadLetter) {
+        return new TrackingEventRequest(deadLetter.getPackageId(), deadLetter.getLocation(),
+                deadLetter.getDescription(), deadLetter.getEventDate(), deadLetter.getEventId());
+    }
+
+    private static DeadLetterResponse toResponse(TrackingEventDeadLetter deadLetter) {
+        return new DeadLetterResponse(Long.toString(deadLetter.getId()), Long.toString(deadLetter.getToken()),
+                deadLetter.getPackageId(), deadLetter.getLocation(), deadLetter.getDescription(),
+                deadLetter.getEventDate(), deadLetter.getEventId(), deadLetter.getOutcome(),
+                deadLetter.getReason(), deadLetter.getFailedAt());
+    }
+}
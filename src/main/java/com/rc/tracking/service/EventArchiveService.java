@@ -0,0 +1,161 @@
+package com.rc.tracking.service;
+
+import com.rc.tracking.model.dto.ArchivedEvent;
+import com.rc.tracking.model.entity.EventArchiveSegment;
+import com.rc.tracking.repository.EventArchiveRepository;
+import com.rc.tracking.repository.EventArchiveSegmentRepository;
+import com.rc.tracking.repository.PartitionRepository;
+import com.rc.tracking.repository.PartitionRepository.Partition;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Move o histórico de pacotes entregues ou cancelados há mais de
+ * {@code tracking.archive.after} da tabela {@code tracking_events} para o
+ * {@link EventArchiveStore}. Cada lote é gravado no arquivo primeiro; o
+ * índice e a remoção dos eventos vão juntos numa única transação, então uma
+ * queda no meio nunca perde eventos. Por fim, as partições de
+ * {@code tracking_events} anteriores ao corte que ficaram vazias são removidas.
+ */
+@Service
+public class EventArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventArchiveService.class);
+
+    private static final String EVENTS_TABLE = "tracking_events";
+
+    private final EventArchiveRepository eventArchiveRepository;
+    private final EventArchiveSegmentRepository eventArchiveSegmentRepository;
+    private final EventArchiveStore eventArchiveStore;
+    private final PartitionRepository partitionRepository;
+    private final PackageDetailCache packageDetailCache;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration after;
+    private final int chunkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Counter archivedPackages;
+    private final Counter archivedEvents;
+    private final Counter archivedBytes;
+    private final Counter droppedPartitions;
+
+    public EventArchiveService(EventArchiveRepository eventArchiveRepository,
+                               EventArchiveSegmentRepository eventArchiveSegmentRepository,
+                               EventArchiveStore eventArchiveStore,
+                               PartitionRepository partitionRepository,
+                               PackageDetailCache packageDetailCache,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${tracking.archive.enabled:false}") boolean enabled,
+                               @Value("${tracking.archive.after:90d}") Duration after,
+                               @Value("${tracking.archive.chunk-size:500}") int chunkSize) {
+        this.eventArchiveRepository = eventArchiveRepository;
+        this.eventArchiveSegmentRepository = eventArchiveSegmentRepository;
+        this.eventArchiveStore = eventArchiveStore;
+        this.partitionRepository = partitionRepository;
+        this.packageDetailCache = packageDetailCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.after = after;
+        this.chunkSize = chunkSize;
+        this.archivedPackages = Counter.builder("tracking.archive.packages").register(meterRegistry);
+        this.archivedEvents = Counter.builder("tracking.archive.events").register(meterRegistry);
+        this.archivedBytes = Counter.builder("tracking.archive.bytes").baseUnit("bytes").register(meterRegistry);
+        this.droppedPartitions = Counter.builder("tracking.archive.partitions.dropped").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${tracking.archive.cron:0 0 4 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archiveFinishedBefore(LocalDateTime.now().minus(after));
+        }
+    }
+
+    /**
+     * Arquiva os eventos dos pacotes finalizados (última atualização antes de
+     * {@code cutoff}) e devolve quantos pacotes foram arquivados.
+     */
+    public long archiveFinishedBefore(LocalDateTime cutoff) {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("Event archival already running, skipping");
+            return 0;
+        }
+        try {
+            long archived = 0;
+            long afterId = 0;
+            List<Long> ids;
+            while (!(ids = eventArchiveRepository.findArchivable(cutoff, afterId, chunkSize)).isEmpty()) {
+                archived += archiveChunk(ids);
+                afterId = ids.get(ids.size() - 1);
+            }
+            dropEmptyPartitions(cutoff.toLocalDate());
+            logger.info("Event archival finished: {} packages finished before {} archived", archived, cutoff);
+            return archived;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int archiveChunk(List<Long> packageIds) {
+        Map<Long, List<ArchivedEvent>> eventsByPackage = eventArchiveRepository.findEvents(packageIds);
+        LocalDateTime now = LocalDateTime.now();
+        List<EventArchiveSegment> segments = new ArrayList<>(eventsByPackage.size());
+        List<Long> eventIds = new ArrayList<>();
+        eventsByPackage.forEach((packageId, events) -> {
+            YearMonth month = YearMonth.from(events.get(events.size() - 1).dateTime());
+            EventArchiveStore.Segment segment = eventArchiveStore.append(month, events);
+            segments.add(EventArchiveSegment.builder()
+                    .packageId(packageId)
+                    .fileName(segment.fileName())
+                    .fileOffset(segment.offset())
+                    .segmentLength(segment.length())
+                    .eventCount(segment.eventCount())
+                    .archivedAt(now)
+                    .build());
+            events.forEach(event -> eventIds.add(event.id()));
+            archivedBytes.increment(segment.length());
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            eventArchiveSegmentRepository.saveAll(segments);
+            eventArchiveRepository.deleteEvents(eventIds);
+        });
+        packageDetailCache.invalidateAll(eventsByPackage.keySet());
+        archivedPackages.increment(segments.size());
+        archivedEvents.increment(eventIds.size());
+        return segments.size();
+    }
+
+    private void dropEmptyPartitions(LocalDate cutoffDate) {
+        if (!partitionRepository.isSupported()) {
+            return;
+        }
+        for (Partition partition : partitionRepository.findPartitions(EVENTS_TABLE)) {
+            if (partition.upperBound() == null || partition.upperBound().isAfter(cutoffDate)) {
+                continue;
+            }
+            if (partitionRepository.isEmpty(EVENTS_TABLE, partition.name())) {
+                partitionRepository.dropPartition(EVENTS_TABLE, partition.name());
+                droppedPartitions.increment();
+                logger.info("Dropped empty partition {} of {} (upper bound {})",
+                        partition.name(), EVENTS_TABLE, partition.upperBound());
+            }
+        }
+    }
+}
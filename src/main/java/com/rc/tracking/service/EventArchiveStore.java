@@ -0,0 +1,107 @@
+package com.rc.tracking.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rc.tracking.model.dto.ArchivedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Arquivo morto dos eventos de rastreamento: um arquivo por mês
+ * ({@code events-AAAA-MM.ndjson.gz}) onde cada pacote arquivado ocupa um
+ * membro gzip próprio com o seu histórico em NDJSON. Os arquivos só crescem
+ * por append sequencial, e um membro pode ser lido isoladamente a partir do
+ * offset e do tamanho guardados no índice. Bytes gravados cujo índice não
+ * chegou a ser confirmado ficam órfãos e são simplesmente ignorados.
+ */
+@Component
+public class EventArchiveStore {
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+
+    public EventArchiveStore(ObjectMapper objectMapper,
+                             @Value("${tracking.archive.directory:archive}") String directory) {
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory);
+    }
+
+    public record Segment(String fileName, long offset, int length, int eventCount) {}
+
+    static String fileNameOf(YearMonth month) {
+        return "events-" + month + ".ndjson.gz";
+    }
+
+    /**
+     * Acrescenta os eventos de um pacote ao arquivo do mês e força a escrita
+     * em disco antes de devolver a posição do segmento.
+     */
+    public synchronized Segment append(YearMonth month, List<ArchivedEvent> events) {
+        byte[] compressed = compress(events);
+        String fileName = fileNameOf(month);
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(directory.resolve(fileName),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                long offset = channel.size();
+                ByteBuffer buffer = ByteBuffer.wrap(compressed);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+                return new Segment(fileName, offset, compressed.length, events.size());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Error appending to archive file " + fileName, ex);
+        }
+    }
+
+    public List<ArchivedEvent> read(String fileName, long offset, int length) {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(directory.resolve(fileName), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IOException("Archive segment truncated at offset " + offset);
+                }
+            }
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(buffer.array()));
+                 MappingIterator<ArchivedEvent> lines = objectMapper.readerFor(ArchivedEvent.class).readValues(in)) {
+                return lines.readAll();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Error reading archive file " + fileName, ex);
+        }
+    }
+
+    private byte[] compress(List<ArchivedEvent> events) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(gzip)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            for (ArchivedEvent event : events) {
+                generator.writeObject(event);
+                generator.writeRaw('\n');
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,194 @@
+package com.rc.tracking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rc.tracking.model.dto.TrackingEventRequest;
+import com.rc.tracking.repository.TrackingEventJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Detecta eventos de rastreamento repetidos pela chave de idempotência. As
+ * chaves gravadas recentemente ficam em um LRU e em um filtro de Bloom; o
+ * banco só é consultado quando o Bloom acusa uma possível repetição que o LRU
+ * não confirma. O índice único em {@code event_key} continua sendo a garantia
+ * final: um reenvio que já saiu da memória (fora do LRU e das duas gerações do
+ * Bloom, ou mais antigo que o warmup) é descartado pelo próprio INSERT e
+ * contado por {@link #duplicatesInDatabase}.
+ */
+@Component
+public class EventDeduplicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventDeduplicator.class);
+
+    private final TrackingEventJdbcRepository trackingEventJdbcRepository;
+    private final Cache<String, Boolean> recentKeys;
+    private final long bloomCapacity;
+    private final double bloomFalsePositiveRate;
+    private final Duration warmupWindow;
+
+    // Duas gerações: quando a atual enche, ela vira a anterior e a mais antiga é descartada
+    private volatile BloomFilter currentBloom;
+    private volatile BloomFilter previousBloom;
+    private final AtomicLong currentBloomSize = new AtomicLong();
+
+    private final Counter memoryDuplicates;
+    private final Counter databaseDuplicates;
+    private final Counter databaseLookups;
+
+    public EventDeduplicator(TrackingEventJdbcRepository trackingEventJdbcRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${tracking.dedup.recent-keys:100000}") long recentKeys,
+                             @Value("${tracking.dedup.bloom-capacity:1000000}") long bloomCapacity,
+                             @Value("${tracking.dedup.bloom-fpp:0.01}") double bloomFalsePositiveRate,
+                             @Value("${tracking.dedup.warmup-window:24h}") Duration warmupWindow) {
+        this.trackingEventJdbcRepository = trackingEventJdbcRepository;
+        // despejo na própria thread: o LRU nunca passa do limite e uma chave despejada já foi esquecida
+        this.recentKeys = Caffeine.newBuilder().maximumSize(recentKeys).executor(Runnable::run).build();
+        this.bloomCapacity = bloomCapacity;
+        this.bloomFalsePositiveRate = bloomFalsePositiveRate;
+        this.warmupWindow = warmupWindow;
+        this.currentBloom = new BloomFilter(bloomCapacity, bloomFalsePositiveRate);
+        this.previousBloom = null;
+        this.memoryDuplicates = Counter.builder("tracking.ingestion.duplicates").tag("source", "memory").register(meterRegistry);
+        this.databaseDuplicates = Counter.builder("tracking.ingestion.duplicates").tag("source", "database").register(meterRegistry);
+        this.databaseLookups = Counter.builder("tracking.ingestion.dedup.lookups").register(meterRegistry);
+    }
+
+    /**
+     * Chave de idempotência do evento: SHA-256 de (pacote, eventId) quando o
+     * cliente informa o id, senão de (pacote, local, data, descrição).
+     */
+    public static String keyOf(Long packageId, TrackingEventRequest request) {
+        String material = request.eventId() != null && !request.eventId().isBlank()
+                ? "id\u0000" + packageId + "\u0000" + request.eventId()
+                : "ev\u0000" + packageId + "\u0000" + request.location() + "\u0000" + request.date() + "\u0000" + request.description();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(material.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** Carrega no Bloom as chaves dos eventos recentes, para que reenvios logo após um restart não dependam do índice único. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (warmupWindow.isZero()) {
+            return;
+        }
+        long[] loaded = {0};
+        trackingEventJdbcRepository.forEachKeySince(LocalDateTime.now().minus(warmupWindow), key -> {
+            addToBloom(key);
+            loaded[0]++;
+        });
+        logger.info("Event deduplicator warmed up with {} keys from the last {}", loaded[0], warmupWindow);
+    }
+
+    /**
+     * Devolve as chaves que ainda não foram gravadas. Só as chaves que o Bloom
+     * não descarta (e que o LRU não confirma) são conferidas no banco.
+     */
+    public Set<String> retainNew(Collection<String> keys) {
+        Set<String> fresh = new LinkedHashSet<>();
+        List<String> maybeSeen = new ArrayList<>();
+        for (String key : keys) {
+            if (recentKeys.getIfPresent(key) != null) {
+                memoryDuplicates.increment();
+            } else if (mightContain(key)) {
+                maybeSeen.add(key);
+            } else {
+                fresh.add(key);
+            }
+        }
+        if (maybeSeen.isEmpty()) {
+            return fresh;
+        }
+        databaseLookups.increment();
+        Set<String> existing = trackingEventJdbcRepository.findExistingKeys(maybeSeen);
+        for (String key : maybeSeen) {
+            if (existing.contains(key)) {
+                databaseDuplicates.increment();
+                recentKeys.put(key, Boolean.TRUE);
+            } else {
+                fresh.add(key);
+            }
+        }
+        return fresh;
+    }
+
+    public boolean isNew(String key) {
+        return retainNew(List.of(key)).contains(key);
+    }
+
+    /** Chaves que a memória deu como novas, mas que o INSERT encontrou já gravadas. */
+    public void duplicatesInDatabase(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        databaseDuplicates.increment(keys.size());
+        logger.debug("{} tracking events were already stored despite missing from the deduplicator", keys.size());
+    }
+
+    /** Registra chaves gravadas; dentro de uma transação, só depois do commit. */
+    public void remember(Collection<String> keys) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<String> committed = List.copyOf(keys);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(committed);
+                }
+            });
+        } else {
+            record(keys);
+        }
+    }
+
+    private void record(Collection<String> keys) {
+        for (String key : keys) {
+            recentKeys.put(key, Boolean.TRUE);
+            addToBloom(key);
+        }
+    }
+
+    private boolean mightContain(String key) {
+        BloomFilter previous = previousBloom;
+        return currentBloom.mightContain(key) || (previous != null && previous.mightContain(key));
+    }
+
+    private void addToBloom(String key) {
+        currentBloom.put(key);
+        if (currentBloomSize.incrementAndGet() >= bloomCapacity) {
+            synchronized (this) {
+                if (currentBloomSize.get() >= bloomCapacity) {
+                    previousBloom = currentBloom;
+                    currentBloom = new BloomFilter(bloomCapacity, bloomFalsePositiveRate);
+                    currentBloomSize.set(0);
+                }
+            }
+        }
+    }
+}
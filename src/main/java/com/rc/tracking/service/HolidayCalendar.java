@@ -0,0 +1,191 @@
+package com.rc.tracking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rc.tracking.model.dto.Holiday;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+
+/**
+ * Calendário de feriados por (ano, país). Cada ano é carregado uma única vez
+ * e guardado como um bitset indexado pelo dia do ano, de modo que
+ * {@link #isHoliday(LocalDate)} responde em O(1) e sem alocação.
+ *
+ * <p>Se a API falhar, o ano fica com um bitset vazio e uma palavra a mais com
+ * o instante (epoch ms) a partir do qual pode ser buscado de novo, de modo
+ * que uma API fora do ar custa uma chamada por ano a cada
+ * {@code tracking.holidays.failure-retry}, e não uma por pacote; o
+ * {@link #refresh} também tenta de novo esses anos.
+ */
+@Component
+public class HolidayCalendar {
+
+    private static final Logger logger = LoggerFactory.getLogger(HolidayCalendar.class);
+
+    static final int MIN_YEAR = 1970;
+    static final int MAX_YEAR = 2169;
+    private static final int DAYS_WORDS = 6; // 366 dias cabem em 6 longs
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final ResourceLoader resourceLoader;
+    private final String holidayUrl;
+    private final String defaultCountry;
+    private final String bundleLocation;
+    private final long failureRetryMillis;
+
+    private final Map<String, AtomicReferenceArray<long[]>> calendars = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter loadFailures;
+
+    public HolidayCalendar(RestTemplate restTemplate,
+                           ObjectMapper objectMapper,
+                           ResourceLoader resourceLoader,
+                           MeterRegistry meterRegistry,
+                           @Value("${tracking.enrichment.holiday-url:https://date.nager.at/api/v3/PublicHolidays/{year}/{country}}") String holidayUrl,
+                           @Value("${tracking.enrichment.holiday-country:BR}") String defaultCountry,
+                           @Value("${tracking.holidays.bundle-location:classpath:holidays/}") String bundleLocation,
+                           @Value("${tracking.holidays.failure-retry:5m}") Duration failureRetry) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.resourceLoader = resourceLoader;
+        this.holidayUrl = holidayUrl;
+        this.defaultCountry = defaultCountry;
+        this.bundleLocation = bundleLocation;
+        this.failureRetryMillis = failureRetry.toMillis();
+        this.hits = Counter.builder("tracking.holiday.calendar.lookups").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("tracking.holiday.calendar.lookups").tag("result", "miss").register(meterRegistry);
+        this.loadFailures = Counter.builder("tracking.holiday.calendar.load.failures").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void preloadBundled() {
+        Resource resource = resourceLoader.getResource(bundleLocation + defaultCountry + ".json");
+        if (!resource.exists()) {
+            logger.info("No bundled holiday calendar found at {}", resource.getDescription());
+            return;
+        }
+        try (InputStream in = resource.getInputStream()) {
+            Holiday[] holidays = objectMapper.readValue(in, Holiday[].class);
+            Map<Integer, List<Holiday>> byYear = Arrays.stream(holidays)
+                    .collect(Collectors.groupingBy(holiday -> holiday.date().getYear()));
+            byYear.forEach((year, yearHolidays) -> store(defaultCountry, year, toBitset(yearHolidays)));
+            logger.info("Preloaded {} holiday years for {} from {}", byYear.size(), defaultCountry, resource.getDescription());
+        } catch (IOException ex) {
+            logger.error("Error reading bundled holiday calendar {}: {}", resource.getDescription(), ex.getMessage());
+        }
+    }
+
+    public boolean isHoliday(LocalDate date) {
+        return isHoliday(date, defaultCountry);
+    }
+
+    public boolean isHoliday(LocalDate date, String country) {
+        int year = date.getYear();
+        if (year < MIN_YEAR || year > MAX_YEAR) {
+            return false;
+        }
+        long[] days = yearsOf(country).get(year - MIN_YEAR);
+        if (days != null && !retryDue(days)) {
+            hits.increment();
+        } else {
+            misses.increment();
+            days = load(country, year);
+        }
+        int bit = date.getDayOfYear() - 1;
+        return (days[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    @Scheduled(cron = "${tracking.holidays.refresh-cron:0 0 4 * * *}")
+    public void refresh() {
+        calendars.forEach((country, years) -> {
+            for (int i = 0; i < years.length(); i++) {
+                if (years.get(i) != null) {
+                    long[] days = fetch(country, MIN_YEAR + i);
+                    if (days != null) {
+                        years.set(i, days);
+                    }
+                }
+            }
+        });
+    }
+
+    private long[] load(String country, int year) {
+        AtomicReferenceArray<long[]> years = yearsOf(country);
+        synchronized (years) {
+            long[] days = years.get(year - MIN_YEAR);
+            if (days == null || retryDue(days)) {
+                days = fetch(country, year);
+                if (days == null) {
+                    days = new long[DAYS_WORDS + 1];
+                    days[DAYS_WORDS] = System.currentTimeMillis() + failureRetryMillis;
+                }
+                years.set(year - MIN_YEAR, days);
+            }
+            return days;
+        }
+    }
+
+    /** Ano cuja busca falhou e que já pode ser buscado de novo. */
+    private static boolean retryDue(long[] days) {
+        return days.length > DAYS_WORDS && System.currentTimeMillis() >= days[DAYS_WORDS];
+    }
+
+    private long[] fetch(String country, int year) {
+        try {
+            ResponseEntity<Holiday[]> response = restTemplate.getForEntity(holidayUrl, Holiday[].class, year, country);
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                return toBitset(Arrays.asList(response.getBody()));
+            }
+        } catch (Exception ex) {
+            logger.error("Error fetching holidays for {}/{}: {}", year, country, ex.getMessage());
+        }
+        loadFailures.increment();
+        return null;
+    }
+
+    private void store(String country, int year, long[] days) {
+        if (year >= MIN_YEAR && year <= MAX_YEAR) {
+            yearsOf(country).set(year - MIN_YEAR, days);
+        }
+    }
+
+    private AtomicReferenceArray<long[]> yearsOf(String country) {
+        AtomicReferenceArray<long[]> years = calendars.get(country);
+        if (years == null) {
+            years = calendars.computeIfAbsent(country, c -> new AtomicReferenceArray<>(MAX_YEAR - MIN_YEAR + 1));
+        }
+        return years;
+    }
+
+    private static long[] toBitset(List<Holiday> holidays) {
+        long[] days = new long[DAYS_WORDS];
+        for (Holiday holiday : holidays) {
+            int bit = holiday.date().getDayOfYear() - 1;
+            days[bit >>> 6] |= 1L << bit;
+        }
+        return days;
+    }
+}
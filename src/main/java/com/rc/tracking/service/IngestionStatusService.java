@@ -0,0 +1,144 @@
+package com.rc.tracking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rc.tracking.exception.ResourceNotFoundException;
+import com.rc.tracking.model.dto.AcceptedTrackingEvent;
+import com.rc.tracking.model.dto.IngestionStatusResponse;
+import com.rc.tracking.model.dto.TrackingEventRequest;
+import com.rc.tracking.model.entity.TrackingEventDeadLetter;
+import com.rc.tracking.model.enums.IngestionOutcome;
+import com.rc.tracking.repository.TrackingEventDeadLetterRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Situação de cada evento aceito pela ingestão, por token. Os resultados ficam
+ * em um cache limitado por tamanho e TTL, uma entrada pequena por token, e são
+ * contados em {@code tracking.ingestion.outcomes}; os eventos recusados ou que
+ * falharam vão também para {@code tracking_event_dead_letters}, de onde podem
+ * ser reenviados.
+ */
+@Service
+public class IngestionStatusService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionStatusService.class);
+
+    private final TrackingEventDeadLetterRepository deadLetterRepository;
+    private final Cache<Long, Status> statuses;
+    private final Map<IngestionOutcome, Counter> outcomes = new EnumMap<>(IngestionOutcome.class);
+
+    public IngestionStatusService(TrackingEventDeadLetterRepository deadLetterRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${tracking.ingestion.status.max-entries:1000000}") long maxEntries,
+                                  @Value("${tracking.ingestion.status.ttl:24h}") Duration ttl) {
+        this.deadLetterRepository = deadLetterRepository;
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+        for (IngestionOutcome outcome : IngestionOutcome.values()) {
+            outcomes.put(outcome, Counter.builder("tracking.ingestion.outcomes")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Registra o aceite sem sobrescrever um resultado que o processamento já
+     * tenha gravado, caso o leitor do log tenha sido mais rápido que o retorno
+     * do {@code append}. Sem {@code durable} o evento fica como
+     * {@link IngestionOutcome#PENDING_DURABILITY}.
+     */
+    public IngestionOutcome accepted(long token, boolean durable) {
+        IngestionOutcome outcome = durable ? IngestionOutcome.ACCEPTED : IngestionOutcome.PENDING_DURABILITY;
+        Status current = statuses.asMap().putIfAbsent(token, new Status(outcome, null, System.currentTimeMillis()));
+        outcomes.get(outcome).increment();
+        return current == null ? outcome : current.outcome();
+    }
+
+    public void retrying(List<AcceptedTrackingEvent> batch) {
+        for (AcceptedTrackingEvent event : batch) {
+            record(event.token(), IngestionOutcome.RETRIED, null);
+        }
+    }
+
+    public void applied(AcceptedTrackingEvent event) {
+        record(event.token(), IngestionOutcome.APPLIED, null);
+    }
+
+    /**
+     * Fecha um lote gravado por {@link TrackingEventService#processBatch}: os
+     * índices em {@code rejected} vão para a fila de mensagens mortas, o resto
+     * foi aplicado. Se a gravação das mensagens mortas falhar nada é registrado
+     * e a exceção sobe, para que o lote seja repetido.
+     */
+    public void completed(List<AcceptedTrackingEvent> batch, Map<Integer, String> rejected) {
+        if (!rejected.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            List<TrackingEventDeadLetter> deadLetters = new ArrayList<>(rejected.size());
+            rejected.forEach((index, reason) ->
+                    deadLetters.add(toDeadLetter(batch.get(index), IngestionOutcome.REJECTED, reason, now)));
+            deadLetterRepository.saveAll(deadLetters);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            String reason = rejected.get(i);
+            record(batch.get(i).token(), reason == null ? IngestionOutcome.APPLIED : IngestionOutcome.REJECTED, reason);
+        }
+    }
+
+    public void deadLetter(AcceptedTrackingEvent event, IngestionOutcome outcome, String reason) {
+        try {
+            deadLetterRepository.save(toDeadLetter(event, outcome, reason, LocalDateTime.now()));
+        } catch (RuntimeException ex) {
+            logger.error("Unable to store dead letter for tracking event {}: {}", event.token(), ex.getMessage());
+        }
+        record(event.token(), outcome, reason);
+    }
+
+    public IngestionStatusResponse status(long token) {
+        Status status = statuses.getIfPresent(token);
+        if (status == null) {
+            throw new ResourceNotFoundException("Ingestion status not found for token: " + token);
+        }
+        LocalDateTime updatedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(status.updatedAtMillis()), ZoneId.systemDefault());
+        return new IngestionStatusResponse(Long.toString(token), status.outcome(), status.reason(), updatedAt);
+    }
+
+    private void record(long token, IngestionOutcome outcome, String reason) {
+        statuses.put(token, new Status(outcome, reason, System.currentTimeMillis()));
+        outcomes.get(outcome).increment();
+    }
+
+    private static TrackingEventDeadLetter toDeadLetter(AcceptedTrackingEvent event, IngestionOutcome outcome,
+                                                        String reason, LocalDateTime failedAt) {
+        TrackingEventRequest request = event.request();
+        return TrackingEventDeadLetter.builder()
+                .token(event.token())
+                .packageId(request.packageId())
+                .location(request.location())
+                .description(request.description())
+                .eventDate(request.date())
+                .eventId(request.eventId())
+                .outcome(outcome)
+                .reason(reason != null && reason.length() > TrackingEventDeadLetter.REASON_LENGTH
+                        ? reason.substring(0, TrackingEventDeadLetter.REASON_LENGTH) : reason)
+                .failedAt(failedAt)
+                .build();
+    }
+
+    private record Status(IngestionOutcome outcome, String reason, long updatedAtMillis) {}
+}
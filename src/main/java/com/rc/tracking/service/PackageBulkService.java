@@ -0,0 +1,225 @@
+package com.rc.tracking.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rc.tracking.mapper.PackageMapper;
+import com.rc.tracking.model.dto.BulkPackageResult;
+import com.rc.tracking.model.dto.PackageRequest;
+import com.rc.tracking.model.entity.PackageEntity;
+import com.rc.tracking.model.event.PackageChangedEvent;
+import com.rc.tracking.repository.PackageBulkRepository;
+import com.rc.tracking.repository.PackageSearchIndexRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.rc.tracking.model.enums.StatusEnum.CREATED;
+
+/**
+ * Criação de pacotes em massa a partir de um array JSON ou de NDJSON, lidos
+ * em streaming. Cada linha é validada isoladamente; as válidas são inseridas
+ * em lotes de {@code chunkSize} via JDBC, uma transação por lote, e o
+ * resultado de cada linha é escrito na saída assim que o lote termina, de
+ * forma que nem a entrada nem a saída ficam inteiras em memória.
+ * O enriquecimento é feito no próprio insert: feriado consultado uma vez por
+ * data distinta e um fun fact por lote. Cada pacote inserido é publicado
+ * como {@link PackageChangedEvent} depois do commit do seu lote, como na
+ * criação individual.
+ */
+@Service
+public class PackageBulkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PackageBulkService.class);
+
+    private static final String INSERT_FAILED = "Insert failed, the row was not created";
+
+    private final PackageBulkRepository packageBulkRepository;
+    private final PackageSearchIndexRepository packageSearchIndexRepository;
+    private final PackageExistenceFilter packageExistenceFilter;
+    private final PackageEnrichmentService packageEnrichmentService;
+    private final HolidayCalendar holidayCalendar;
+    private final PackageMapper packageMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    private final Counter createdRows;
+    private final Counter rejectedRows;
+
+    public PackageBulkService(PackageBulkRepository packageBulkRepository,
+                              PackageSearchIndexRepository packageSearchIndexRepository,
+                              PackageExistenceFilter packageExistenceFilter,
+                              PackageEnrichmentService packageEnrichmentService,
+                              HolidayCalendar holidayCalendar,
+                              PackageMapper packageMapper,
+                              ApplicationEventPublisher eventPublisher,
+                              Validator validator,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${tracking.bulk.chunk-size:1000}") int chunkSize) {
+        this.packageBulkRepository = packageBulkRepository;
+        this.packageSearchIndexRepository = packageSearchIndexRepository;
+        this.packageExistenceFilter = packageExistenceFilter;
+        this.packageEnrichmentService = packageEnrichmentService;
+        this.holidayCalendar = holidayCalendar;
+        this.packageMapper = packageMapper;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.createdRows = Counter.builder("tracking.bulk.rows").tag("result", "created").register(meterRegistry);
+        this.rejectedRows = Counter.builder("tracking.bulk.rows").tag("result", "rejected").register(meterRegistry);
+    }
+
+    public void createAll(InputStream in, OutputStream out) throws IOException {
+        Map<LocalDate, Boolean> holidays = new HashMap<>();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        long rowNumber = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+             MappingIterator<PackageRequest> rows = objectMapper.readerFor(PackageRequest.class).readValues(in)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (true) {
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                } catch (JsonProcessingException ex) {
+                    chunk.add(Row.rejected(++rowNumber, "Malformed input: " + ex.getOriginalMessage()));
+                    break;
+                }
+                rowNumber++;
+                try {
+                    chunk.add(validate(rowNumber, rows.nextValue()));
+                } catch (JsonMappingException ex) {
+                    chunk.add(Row.rejected(rowNumber, "Invalid row: " + ex.getOriginalMessage()));
+                }
+                if (chunk.size() >= chunkSize) {
+                    flush(chunk, holidays, generator);
+                }
+            }
+            flush(chunk, holidays, generator);
+        }
+        logger.info("Bulk package creation processed {} rows", rowNumber);
+    }
+
+    private Row validate(long rowNumber, PackageRequest request) {
+        if (request == null) {
+            return Row.rejected(rowNumber, "Empty row");
+        }
+        List<String> errors = validator.validate(request).stream()
+                .map(PackageBulkService::describe)
+                .sorted()
+                .toList();
+        return new Row(rowNumber, request, errors);
+    }
+
+    private static String describe(ConstraintViolation<PackageRequest> violation) {
+        return violation.getPropertyPath() + " " + violation.getMessage();
+    }
+
+    private void flush(List<Row> chunk, Map<LocalDate, Boolean> holidays, JsonGenerator generator) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Row> valid = chunk.stream().filter(row -> row.errors().isEmpty()).toList();
+        List<PackageEntity> entities = new ArrayList<>(valid.size());
+        if (!valid.isEmpty()) {
+            String funFact = packageEnrichmentService.fetchDogFunFact();
+            LocalDateTime now = LocalDateTime.now();
+            for (Row row : valid) {
+                PackageRequest request = row.request();
+                entities.add(PackageEntity.builder()
+                        .description(request.description())
+                        .sender(request.sender())
+                        .recipient(request.recipient())
+                        .estimatedDeliveryDate(request.estimatedDeliveryDate())
+                        .isHolliday(holidays.computeIfAbsent(request.estimatedDeliveryDate(), holidayCalendar::isHoliday))
+                        .funFact(funFact)
+                        .status(CREATED)
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build());
+            }
+        }
+        String failure = insert(entities);
+
+        int entityIndex = 0;
+        for (Row row : chunk) {
+            BulkPackageResult result;
+            if (!row.errors().isEmpty()) {
+                result = new BulkPackageResult(row.number(), null, false, row.errors());
+                rejectedRows.increment();
+            } else if (failure != null) {
+                result = new BulkPackageResult(row.number(), null, false, List.of(failure));
+                rejectedRows.increment();
+            } else {
+                result = new BulkPackageResult(row.number(), "packageEntity-" + entities.get(entityIndex++).getId(), true, List.of());
+                createdRows.increment();
+            }
+            generator.writeObject(result);
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+        chunk.clear();
+    }
+
+    /**
+     * Insere o lote numa transação; devolve o motivo a reportar em cada linha
+     * se o lote inteiro falhou. O erro do banco fica só no log.
+     */
+    private String insert(List<PackageEntity> entities) {
+        if (entities.isEmpty()) {
+            return null;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                packageBulkRepository.insertAll(entities);
+                packageSearchIndexRepository.indexAll(entities.stream()
+                        .map(entity -> new Object[]{entity.getId(), entity.getSender(), entity.getRecipient()})
+                        .toList());
+                packageExistenceFilter.add(entities.stream().map(PackageEntity::getId).toList());
+                // entregues pelos listeners transacionais só depois do commit
+                for (PackageEntity entity : entities) {
+                    eventPublisher.publishEvent(new PackageChangedEvent(entity.getId(),
+                            packageMapper.packageEntityToPackageResponse(entity)));
+                }
+            });
+            return null;
+        } catch (RuntimeException ex) {
+            logger.error("Bulk insert of {} packages failed: {}", entities.size(), ex.getMessage());
+            return INSERT_FAILED;
+        }
+    }
+
+    private record Row(long number, PackageRequest request, List<String> errors) {
+
+        static Row rejected(long number, String error) {
+            return new Row(number, null, List.of(error));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.rc.tracking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rc.tracking.model.dto.PackageDetailResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cache em memória de {@link PackageDetailResponse} por id de pacote, limitado
+ * por tamanho e TTL. As escritas que alteram um pacote chamam
+ * {@link #invalidate(Long)}, que só remove a entrada depois do commit para que
+ * uma leitura concorrente não volte a guardar o estado antigo.
+ */
+@Component
+public class PackageDetailCache {
+
+    private final Cache<Key, PackageDetailResponse> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public PackageDetailCache(@Value("${tracking.cache.package-details.max-size:10000}") long maxSize,
+                              @Value("${tracking.cache.package-details.ttl:30s}") Duration ttl,
+                              MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "packageDetails");
+    }
+
+    public PackageDetailResponse get(Long packageId, boolean includeEvents, Supplier<PackageDetailResponse> loader) {
+        return cache.get(new Key(packageId, includeEvents), key -> loader.get());
+    }
+
+    /**
+     * Versão em lote de {@link #get}: os ids que não estão no cache são
+     * carregados juntos por uma única chamada a {@code loader}. Ids que o
+     * loader não devolver ficam fora do resultado e não são guardados.
+     *
+     * <p>Ao contrário de {@link #get}, a carga em lote roda fora do lock de cada
+     * chave, então uma invalidação pode acontecer no meio dela. Por isso o
+     * resultado só é guardado se nenhuma invalidação ocorreu desde o início da
+     * carga; senão ele é devolvido, mas a próxima leitura vai ao banco.
+     */
+    public Map<Long, PackageDetailResponse> getAll(Collection<Long> packageIds, boolean includeEvents,
+                                                   Function<Collection<Long>, Map<Long, PackageDetailResponse>> loader) {
+        List<Key> keys = packageIds.stream().map(packageId -> new Key(packageId, includeEvents)).toList();
+        Map<Key, PackageDetailResponse> cached = cache.getAllPresent(keys);
+        Map<Long, PackageDetailResponse> details = new HashMap<>(keys.size() * 2);
+        cached.forEach((key, value) -> details.put(key.packageId(), value));
+        if (cached.size() == keys.size()) {
+            return details;
+        }
+
+        List<Long> missing = keys.stream().filter(key -> !cached.containsKey(key)).map(Key::packageId).toList();
+        long loadGeneration = generation.get();
+        Map<Long, PackageDetailResponse> loaded = loader.apply(missing);
+        ConcurrentMap<Key, PackageDetailResponse> entries = cache.asMap();
+        loaded.forEach((packageId, loadedDetails) -> {
+            details.put(packageId, loadedDetails);
+            entries.compute(new Key(packageId, includeEvents), (key, current) ->
+                    current != null || generation.get() != loadGeneration ? current : loadedDetails);
+        });
+        return details;
+    }
+
+    /**
+     * Detalhes do pacote já em cache, com ou sem eventos, sem carregar nada e
+     * sem contar como acerto ou falta nas métricas.
+     */
+    public PackageDetailResponse getIfPresent(Long packageId) {
+        PackageDetailResponse details = cache.asMap().get(new Key(packageId, false));
+        return details != null ? details : cache.asMap().get(new Key(packageId, true));
+    }
+
+    public void invalidate(Long packageId) {
+        invalidateAll(List.of(packageId));
+    }
+
+    public void invalidateAll(Collection<Long> packageIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> ids = List.copyOf(packageIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(ids);
+                }
+            });
+        } else {
+            evict(packageIds);
+        }
+    }
+
+    /**
+     * A geração sobe antes da remoção: um {@link #getAll} que ainda não guardou
+     * seu resultado vê a mudança e desiste, e um que já guardou tem a entrada
+     * removida em seguida.
+     */
+    private void evict(Collection<Long> packageIds) {
+        generation.incrementAndGet();
+        for (Long packageId : packageIds) {
+            cache.invalidate(new Key(packageId, true));
+            cache.invalidate(new Key(packageId, false));
+        }
+    }
+
+    private record Key(Long packageId, boolean includeEvents) {}
+}
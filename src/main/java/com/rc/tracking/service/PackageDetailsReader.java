@@ -0,0 +1,187 @@
+package com.rc.tracking.service;
+
+import com.rc.tracking.exception.ResourceNotFoundException;
+import com.rc.tracking.mapper.PackageMapper;
+import com.rc.tracking.model.dto.ArchivedEvent;
+import com.rc.tracking.model.dto.EventCursor;
+import com.rc.tracking.model.dto.EventDTO;
+import com.rc.tracking.model.dto.EventPageResponse;
+import com.rc.tracking.model.dto.PackageDetailResponse;
+import com.rc.tracking.model.entity.EventArchiveSegment;
+import com.rc.tracking.model.entity.PackageEntity;
+import com.rc.tracking.model.entity.TrackingEvent;
+import com.rc.tracking.repository.EventArchiveSegmentRepository;
+import com.rc.tracking.repository.PackageRepository;
+import com.rc.tracking.repository.TrackingEventRepository;
+import com.rc.tracking.repository.TrackingEventSpecifications;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Caminho de leitura dos detalhes e do histórico de eventos de um pacote,
+ * sempre em transações somente leitura. Os detalhes embutem apenas os
+ * {@code embeddedEvents} eventos mais recentes; o histórico completo é
+ * paginado por keyset em {@link #readEvents}. Com {@code includeArchived},
+ * os eventos já movidos para o {@link EventArchiveStore} são lidos dos seus
+ * segmentos e intercalados com os da tabela na mesma ordem.
+ */
+@Component
+public class PackageDetailsReader {
+
+    private final PackageRepository packageRepository;
+    private final TrackingEventRepository trackingEventRepository;
+    private final EventArchiveSegmentRepository eventArchiveSegmentRepository;
+    private final EventArchiveStore eventArchiveStore;
+    private final PackageMapper packageMapper;
+    private final int embeddedEvents;
+
+    private static final Comparator<TrackingEvent> NEWEST_FIRST = Comparator
+            .comparing(TrackingEvent::getDateTime)
+            .thenComparing(TrackingEvent::getId)
+            .reversed();
+
+    public PackageDetailsReader(PackageRepository packageRepository,
+                                TrackingEventRepository trackingEventRepository,
+                                EventArchiveSegmentRepository eventArchiveSegmentRepository,
+                                EventArchiveStore eventArchiveStore,
+                                PackageMapper packageMapper,
+                                @Value("${tracking.details.embedded-events:20}") int embeddedEvents) {
+        this.packageRepository = packageRepository;
+        this.trackingEventRepository = trackingEventRepository;
+        this.eventArchiveSegmentRepository = eventArchiveSegmentRepository;
+        this.eventArchiveStore = eventArchiveStore;
+        this.packageMapper = packageMapper;
+        this.embeddedEvents = embeddedEvents;
+    }
+
+    @Transactional(readOnly = true)
+    public PackageDetailResponse read(Long packageId, boolean includeEvents) {
+        return read(packageId, includeEvents, false);
+    }
+
+    @Transactional(readOnly = true)
+    public PackageDetailResponse read(Long packageId, boolean includeEvents, boolean includeArchived) {
+        PackageEntity packageEntity = packageRepository.findById(packageId)
+                .orElseThrow(() -> new ResourceNotFoundException("Package not found with id: " + packageId));
+        if (!includeEvents) {
+            return packageMapper.packageEntityToPackageDetailResponseWithoutEvents(packageEntity);
+        }
+        List<TrackingEvent> events = embeddedEvents > 0
+                ? findEvents(packageId, null, null, null, embeddedEvents, includeArchived)
+                : List.of();
+        return packageMapper.packageEntityToPackageDetailResponse(packageEntity, events);
+    }
+
+    /**
+     * Detalhes de vários pacotes com uma consulta {@code IN} nos pacotes e
+     * outra para os eventos embutidos de todos eles, sem eventos arquivados.
+     * Os ids que não existem ficam fora do mapa.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, PackageDetailResponse> readAll(Collection<Long> packageIds, boolean includeEvents) {
+        List<PackageEntity> packageEntities = packageRepository.findAllById(packageIds);
+        if (packageEntities.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, List<TrackingEvent>> eventsByPackage = includeEvents && embeddedEvents > 0
+                ? trackingEventRepository.findLatestByPackageIds(
+                        packageEntities.stream().map(PackageEntity::getId).toList(), embeddedEvents).stream()
+                        .collect(Collectors.groupingBy(event -> event.getPackageEntity().getId()))
+                : Map.of();
+
+        Map<Long, PackageDetailResponse> details = new HashMap<>(packageEntities.size() * 2);
+        for (PackageEntity packageEntity : packageEntities) {
+            details.put(packageEntity.getId(), includeEvents
+                    ? packageMapper.packageEntityToPackageDetailResponse(packageEntity,
+                            eventsByPackage.getOrDefault(packageEntity.getId(), List.of()))
+                    : packageMapper.packageEntityToPackageDetailResponseWithoutEvents(packageEntity));
+        }
+        return details;
+    }
+
+    /**
+     * Uma página do histórico, do mais recente para o mais antigo. Com
+     * {@code paginate} falso devolve só os {@code size} primeiros, sem cursor.
+     */
+    @Transactional(readOnly = true)
+    public EventPageResponse readEvents(Long packageId, LocalDateTime since, LocalDateTime until,
+                                        EventCursor cursor, int size, boolean paginate) {
+        return readEvents(packageId, since, until, cursor, size, paginate, false);
+    }
+
+    @Transactional(readOnly = true)
+    public EventPageResponse readEvents(Long packageId, LocalDateTime since, LocalDateTime until,
+                                        EventCursor cursor, int size, boolean paginate, boolean includeArchived) {
+        List<TrackingEvent> events = findEvents(packageId, since, until, cursor, paginate ? size + 1 : size,
+                includeArchived);
+        if (events.isEmpty() && !packageRepository.existsById(packageId)) {
+            throw new ResourceNotFoundException("Package not found with id: " + packageId);
+        }
+
+        boolean hasNext = paginate && events.size() > size;
+        List<TrackingEvent> page = hasNext ? events.subList(0, size) : events;
+        List<EventDTO> items = page.stream()
+                .map(packageMapper::trackingEventToEventDTO)
+                .toList();
+        String nextCursor = null;
+        if (hasNext) {
+            TrackingEvent last = page.get(page.size() - 1);
+            nextCursor = new EventCursor(last.getDateTime(), last.getId()).encode();
+        }
+        return new EventPageResponse(items, nextCursor);
+    }
+
+    private List<TrackingEvent> findEvents(Long packageId, LocalDateTime since, LocalDateTime until,
+                                           EventCursor cursor, int limit, boolean includeArchived) {
+        List<TrackingEvent> events = trackingEventRepository.findBy(
+                TrackingEventSpecifications.history(packageId, since, until, cursor),
+                query -> query.sortBy(TrackingEventSpecifications.NEWEST_FIRST).limit(limit).all());
+        if (!includeArchived) {
+            return events;
+        }
+        List<EventArchiveSegment> segments = eventArchiveSegmentRepository.findByPackageIdOrderById(packageId);
+        if (segments.isEmpty()) {
+            return events;
+        }
+        PackageEntity owner = packageRepository.getReferenceById(packageId);
+        List<TrackingEvent> merged = new ArrayList<>(events);
+        for (EventArchiveSegment segment : segments) {
+            for (ArchivedEvent archived : eventArchiveStore.read(
+                    segment.getFileName(), segment.getFileOffset(), segment.getSegmentLength())) {
+                if (matches(archived, since, until, cursor)) {
+                    merged.add(TrackingEvent.builder()
+                            .id(archived.id())
+                            .location(archived.location())
+                            .description(archived.description())
+                            .dateTime(archived.dateTime())
+                            .packageEntity(owner)
+                            .build());
+                }
+            }
+        }
+        merged.sort(NEWEST_FIRST);
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    private static boolean matches(ArchivedEvent event, LocalDateTime since, LocalDateTime until, EventCursor cursor) {
+        if (since != null && event.dateTime().isBefore(since)) {
+            return false;
+        }
+        if (until != null && !event.dateTime().isBefore(until)) {
+            return false;
+        }
+        return cursor == null
+                || event.dateTime().isBefore(cursor.dateTime())
+                || (event.dateTime().isEqual(cursor.dateTime()) && event.id() < cursor.id());
+    }
+}
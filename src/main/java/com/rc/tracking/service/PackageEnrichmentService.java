@@ -0,0 +1,88 @@
+package com.rc.tracking.service;
+
+import com.rc.tracking.mapper.PackageMapper;
+import com.rc.tracking.model.dto.DogFactResponse;
+import com.rc.tracking.model.event.PackageChangedEvent;
+import com.rc.tracking.model.event.PackageCreatedEvent;
+import com.rc.tracking.repository.PackageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Preenche {@code isHolliday} e {@code funFact} depois que o pacote já foi
+ * persistido, fora da transação de criação e no executor de enriquecimento.
+ * O pacote enriquecido sai do cache de detalhes e é publicado como
+ * {@link PackageChangedEvent} para os assinantes.
+ */
+@Service
+public class PackageEnrichmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PackageEnrichmentService.class);
+
+    static final String FUN_FACT_FALLBACK = "Fun fact not available";
+
+    private final PackageRepository packageRepository;
+    private final HolidayCalendar holidayCalendar;
+    private final RestTemplate restTemplate;
+    private final PackageDetailCache packageDetailCache;
+    private final PackageMapper packageMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String funFactUrl;
+
+    public PackageEnrichmentService(PackageRepository packageRepository,
+                                    HolidayCalendar holidayCalendar,
+                                    RestTemplate restTemplate,
+                                    PackageDetailCache packageDetailCache,
+                                    PackageMapper packageMapper,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${tracking.enrichment.fun-fact-url:https://dogapi.dog/api/v1/facts}") String funFactUrl) {
+        this.packageRepository = packageRepository;
+        this.holidayCalendar = holidayCalendar;
+        this.restTemplate = restTemplate;
+        this.packageDetailCache = packageDetailCache;
+        this.packageMapper = packageMapper;
+        this.eventPublisher = eventPublisher;
+        this.funFactUrl = funFactUrl;
+    }
+
+    @Async("enrichmentExecutor")
+    @TransactionalEventListener
+    public void onPackageCreated(PackageCreatedEvent event) {
+        enrich(event.packageId(), event.estimatedDeliveryDate());
+    }
+
+    public void enrich(Long packageId, LocalDate estimatedDeliveryDate) {
+        boolean isHoliday = estimatedDeliveryDate != null && holidayCalendar.isHoliday(estimatedDeliveryDate);
+        String funFact = fetchDogFunFact();
+        if (packageRepository.updateEnrichment(packageId, isHoliday, funFact, LocalDateTime.now()) == 0) {
+            logger.debug("Package {} no longer exists, enrichment discarded", packageId);
+            return;
+        }
+        packageDetailCache.invalidate(packageId);
+        packageRepository.findById(packageId).ifPresent(packageEntity -> eventPublisher.publishEvent(
+                new PackageChangedEvent(packageId, packageMapper.packageEntityToPackageResponse(packageEntity))));
+        logger.debug("Package {} enriched (holiday: {})", packageId, isHoliday);
+    }
+
+    String fetchDogFunFact() {
+        try {
+            ResponseEntity<DogFactResponse> response = restTemplate.getForEntity(funFactUrl, DogFactResponse.class);
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                return response.getBody().fact();
+            }
+        } catch (Exception ex) {
+            logger.error("Error fetching dog fun fact: {}", ex.getMessage());
+        }
+        return FUN_FACT_FALLBACK;
+    }
+}
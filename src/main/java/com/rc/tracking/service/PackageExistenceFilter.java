@@ -0,0 +1,108 @@
+package com.rc.tracking.service;
+
+import com.rc.tracking.repository.PackageRepository;
+import com.rc.tracking.repository.PackageStreamRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Filtro de Bloom com os ids de todos os pacotes, para recusar na própria
+ * requisição eventos de pacotes que não existem sem consultar o banco. Nunca
+ * dá falso negativo: os pacotes criados entram no filtro no momento da
+ * gravação, e enquanto a primeira carga não termina tudo é tratado como
+ * possivelmente existente. A reconstrução agendada mantém a geração anterior
+ * ao lado da nova, para cobrir pacotes gravados antes da leitura mas
+ * confirmados depois dela; por isso um pacote expurgado só some do filtro na
+ * segunda reconstrução, e até lá os seus eventos são recusados na gravação em
+ * lote.
+ */
+@Component
+public class PackageExistenceFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PackageExistenceFilter.class);
+
+    private final PackageRepository packageRepository;
+    private final PackageStreamRepository packageStreamRepository;
+    private final long capacity;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+    // Filtro em construção; as criações durante a reconstrução entram nele também
+    private volatile BloomFilter building;
+    private volatile boolean ready;
+
+    private final Counter misses;
+
+    public PackageExistenceFilter(PackageRepository packageRepository,
+                                  PackageStreamRepository packageStreamRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${tracking.validation.package-filter.capacity:10000000}") long capacity,
+                                  @Value("${tracking.validation.package-filter.fpp:0.01}") double falsePositiveRate) {
+        this.packageRepository = packageRepository;
+        this.packageStreamRepository = packageStreamRepository;
+        this.capacity = capacity;
+        this.falsePositiveRate = falsePositiveRate;
+        this.current = new BloomFilter(capacity, falsePositiveRate);
+        this.misses = Counter.builder("tracking.validation.package-filter.misses").register(meterRegistry);
+    }
+
+    /**
+     * Recarrega o filtro a partir da tabela de pacotes, dimensionado para o
+     * dobro dos pacotes existentes (ou a capacidade configurada, se maior).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${tracking.validation.package-filter.rebuild-cron:0 0 5 * * *}")
+    public synchronized void rebuild() {
+        long expected = Math.max(capacity, packageRepository.count() * 2);
+        BloomFilter next = new BloomFilter(expected, falsePositiveRate);
+        building = next;
+        try {
+            long loaded = packageStreamRepository.forEachId(next::put);
+            previous = current;
+            current = next;
+            ready = true;
+            logger.info("Package existence filter rebuilt with {} ids (capacity {})", loaded, expected);
+        } catch (RuntimeException ex) {
+            logger.error("Unable to rebuild package existence filter: {}", ex.getMessage());
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * Registra pacotes recém-criados. Pode ser chamado antes do commit: se a
+     * transação falhar o id fica como um falso positivo, que é inofensivo.
+     */
+    public void add(Collection<Long> packageIds) {
+        BloomFilter active = current;
+        BloomFilter next = building;
+        for (Long packageId : packageIds) {
+            active.put(packageId);
+            if (next != null) {
+                next.put(packageId);
+            }
+        }
+    }
+
+    public boolean mightExist(long packageId) {
+        if (!ready || current.mightContain(packageId)) {
+            return true;
+        }
+        BloomFilter older = previous;
+        if (older != null && older.mightContain(packageId)) {
+            return true;
+        }
+        misses.increment();
+        return false;
+    }
+}
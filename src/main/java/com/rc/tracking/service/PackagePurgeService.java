@@ -0,0 +1,228 @@
+package com.rc.tracking.service;
+
+import com.rc.tracking.model.entity.PurgeCheckpoint;
+import com.rc.tracking.repository.PackagePurgeRepository;
+import com.rc.tracking.repository.PackageSearchIndexRepository;
+import com.rc.tracking.repository.PartitionRepository;
+import com.rc.tracking.repository.PartitionRepository.Partition;
+import com.rc.tracking.repository.PurgeCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Expurgo de pacotes entregues antes do corte de retenção. Partições de
+ * {@code packages} inteiramente elegíveis são removidas com DROP PARTITION;
+ * o restante é apagado em lotes por id, cada um na sua transação, com uma
+ * pausa entre lotes e um checkpoint que permite retomar depois de uma queda.
+ */
+@Service
+public class PackagePurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PackagePurgeService.class);
+
+    static final String JOB = "packages";
+    private static final String PACKAGES_TABLE = "packages";
+
+    private final PackagePurgeRepository packagePurgeRepository;
+    private final PackageSearchIndexRepository packageSearchIndexRepository;
+    private final PartitionRepository partitionRepository;
+    private final PartitionMaintenanceService partitionMaintenanceService;
+    private final PurgeCheckpointRepository purgeCheckpointRepository;
+    private final PackageDetailCache packageDetailCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Duration pause;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong lastPurgedId = new AtomicLong();
+    private final Counter purgedPackages;
+    private final Counter purgedEvents;
+    private final Counter chunks;
+    private final Counter droppedPartitions;
+
+    public PackagePurgeService(PackagePurgeRepository packagePurgeRepository,
+                               PackageSearchIndexRepository packageSearchIndexRepository,
+                               PartitionRepository partitionRepository,
+                               PartitionMaintenanceService partitionMaintenanceService,
+                               PurgeCheckpointRepository purgeCheckpointRepository,
+                               PackageDetailCache packageDetailCache,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${tracking.purge.chunk-size:1000}") int chunkSize,
+                               @Value("${tracking.purge.pause:200ms}") Duration pause) {
+        this.packagePurgeRepository = packagePurgeRepository;
+        this.packageSearchIndexRepository = packageSearchIndexRepository;
+        this.partitionRepository = partitionRepository;
+        this.partitionMaintenanceService = partitionMaintenanceService;
+        this.purgeCheckpointRepository = purgeCheckpointRepository;
+        this.packageDetailCache = packageDetailCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.pause = pause;
+        this.purgedPackages = Counter.builder("tracking.purge.packages").register(meterRegistry);
+        this.purgedEvents = Counter.builder("tracking.purge.events").register(meterRegistry);
+        this.chunks = Counter.builder("tracking.purge.chunks").register(meterRegistry);
+        this.droppedPartitions = Counter.builder("tracking.purge.partitions.dropped").register(meterRegistry);
+        Gauge.builder("tracking.purge.running", running, flag -> flag.get() ? 1 : 0).register(meterRegistry);
+        Gauge.builder("tracking.purge.last.id", lastPurgedId, AtomicLong::get).register(meterRegistry);
+    }
+
+    /**
+     * Expurga os pacotes entregues antes de {@code cutoff}. Se existe uma
+     * execução inacabada, ela é retomada com o corte original e o novo corte
+     * fica para a próxima vez. Devolve quantos pacotes foram removidos.
+     */
+    public long purgeDeliveredBefore(LocalDateTime cutoff) {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("Purge already running, skipping");
+            return 0;
+        }
+        try {
+            PurgeCheckpoint checkpoint = startOrResume(cutoff);
+            long purged = dropEligiblePartitions(checkpoint.getCutoff());
+            purged += purgeInChunks(checkpoint);
+            transactionTemplate.executeWithoutResult(status -> {
+                checkpoint.setCompletedAt(LocalDateTime.now());
+                purgeCheckpointRepository.save(checkpoint);
+            });
+            logger.info("Purge finished: {} packages delivered before {} removed", purged, checkpoint.getCutoff());
+            return purged;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private PurgeCheckpoint startOrResume(LocalDateTime cutoff) {
+        return transactionTemplate.execute(status -> {
+            PurgeCheckpoint existing = purgeCheckpointRepository.findById(JOB).orElse(null);
+            if (existing != null && existing.getCompletedAt() == null) {
+                logger.info("Resuming purge with cutoff {} after package id {} ({} already removed)",
+                        existing.getCutoff(), existing.getLastId(), existing.getPurgedPackages());
+                return existing;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            return purgeCheckpointRepository.save(PurgeCheckpoint.builder()
+                    .job(JOB)
+                    .cutoff(cutoff)
+                    .lastId(0L)
+                    .purgedPackages(0L)
+                    .startedAt(now)
+                    .updatedAt(now)
+                    .build());
+        });
+    }
+
+    /**
+     * Uma partição só é removida quando todo o seu intervalo de entrega
+     * estimada é anterior ao corte e nenhum pacote nela precisa ser mantido.
+     * Os eventos, segmentos arquivados e trigramas dos pacotes entregues antes
+     * do corte (particionados por outras colunas, ou não particionados) saem
+     * antes, em lotes. Como a limpeza leva tempo e um pacote com data de
+     * entrega no passado pode ser criado nesse meio tempo, a verificação é
+     * refeita com a tabela travada imediatamente antes do DROP; se aparecer
+     * um pacote a manter, a partição fica e os pacotes já limpos saem pelo
+     * expurgo em lotes.
+     */
+    private long dropEligiblePartitions(LocalDateTime cutoff) {
+        if (!partitionRepository.isSupported()) {
+            return 0;
+        }
+        LocalDate cutoffDate = cutoff.toLocalDate();
+        long purged = 0;
+        int dropped = 0;
+        for (Partition partition : partitionRepository.findPartitions(PACKAGES_TABLE)) {
+            if (partition.upperBound() == null || partition.upperBound().isAfter(cutoffDate)) {
+                continue;
+            }
+            if (partitionRepository.hasPackagesToKeep(partition.name(), cutoff)) {
+                logger.debug("Partition {} still has packages inside retention, purging row by row", partition.name());
+                continue;
+            }
+            long afterId = 0;
+            long inPartition = 0;
+            List<Long> ids;
+            while (!(ids = partitionRepository.findPurgeablePackageIds(partition.name(), cutoff, afterId, chunkSize)).isEmpty()) {
+                List<Long> chunk = ids;
+                transactionTemplate.executeWithoutResult(status -> {
+                    purgedEvents.increment(packagePurgeRepository.deleteEvents(chunk));
+                    packagePurgeRepository.deleteArchiveSegments(chunk);
+                    packageSearchIndexRepository.remove(chunk);
+                });
+                packageDetailCache.invalidateAll(chunk);
+                inPartition += chunk.size();
+                afterId = chunk.get(chunk.size() - 1);
+                throttle();
+            }
+            if (!partitionRepository.dropPackagePartitionUnlessKept(partition.name(), cutoff)) {
+                logger.warn("Partition {} received packages to keep during the purge, purging row by row", partition.name());
+                continue;
+            }
+            droppedPartitions.increment();
+            purgedPackages.increment(inPartition);
+            purged += inPartition;
+            dropped++;
+            logger.info("Dropped partition {} of {} (upper bound {})", partition.name(), PACKAGES_TABLE, partition.upperBound());
+        }
+        if (dropped > 0) {
+            partitionMaintenanceService.refreshMetrics();
+        }
+        return purged;
+    }
+
+    private long purgeInChunks(PurgeCheckpoint checkpoint) {
+        long purged = 0;
+        while (true) {
+            List<Long> ids = packagePurgeRepository.findDeliveredBefore(
+                    checkpoint.getCutoff(), checkpoint.getLastId(), chunkSize);
+            if (ids.isEmpty()) {
+                return purged;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                purgedEvents.increment(packagePurgeRepository.deleteEvents(ids));
+                packagePurgeRepository.deleteArchiveSegments(ids);
+                packageSearchIndexRepository.remove(ids);
+                int deleted = packagePurgeRepository.deletePackages(ids);
+                checkpoint.setLastId(ids.get(ids.size() - 1));
+                checkpoint.setPurgedPackages(checkpoint.getPurgedPackages() + deleted);
+                checkpoint.setUpdatedAt(LocalDateTime.now());
+                purgeCheckpointRepository.save(checkpoint);
+                purgedPackages.increment(deleted);
+            });
+            packageDetailCache.invalidateAll(ids);
+            chunks.increment();
+            lastPurgedId.set(checkpoint.getLastId());
+            purged += ids.size();
+            if (ids.size() < chunkSize) {
+                return purged;
+            }
+            throttle();
+        }
+    }
+
+    private void throttle() {
+        if (pause.isZero()) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(pause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Purge interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.rc.tracking.service;
+
+import com.rc.tracking.model.entity.SearchIndexCheckpoint;
+import com.rc.tracking.repository.PackageSearchIndexRepository;
+import com.rc.tracking.repository.SearchIndexCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Indexa os pacotes gravados antes do índice de trigramas existir. Roda na
+ * subida (desligável com {@code tracking.search.backfill-on-startup=false}),
+ * em páginas, cada uma em sua própria transação, e só toca pacotes sem nenhum
+ * trigrama. O {@link SearchIndexCheckpoint} guarda até onde a varredura já
+ * chegou: uma subida interrompida continua de onde parou, e as seguintes só
+ * examinam os pacotes criados depois, sem voltar aos que não têm trigramas por
+ * terem sender e recipient curtos demais.
+ */
+@Service
+public class PackageSearchIndexer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PackageSearchIndexer.class);
+
+    static final String JOB = "package-search-index";
+
+    private final PackageSearchIndexRepository packageSearchIndexRepository;
+    private final SearchIndexCheckpointRepository searchIndexCheckpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean backfillOnStartup;
+    private final int pageSize;
+
+    public PackageSearchIndexer(PackageSearchIndexRepository packageSearchIndexRepository,
+                                SearchIndexCheckpointRepository searchIndexCheckpointRepository,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${tracking.search.backfill-on-startup:true}") boolean backfillOnStartup,
+                                @Value("${tracking.search.backfill-page-size:5000}") int pageSize) {
+        this.packageSearchIndexRepository = packageSearchIndexRepository;
+        this.searchIndexCheckpointRepository = searchIndexCheckpointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.backfillOnStartup = backfillOnStartup;
+        this.pageSize = pageSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (backfillOnStartup) {
+            backfill();
+        }
+    }
+
+    /**
+     * Indexa os pacotes sem trigramas depois do checkpoint e o avança até o
+     * maior id existente no início da execução; os pacotes gravados desde
+     * então já são indexados na própria escrita. Devolve quantos pacotes
+     * foram examinados sem trigramas.
+     */
+    public long backfill() {
+        long upTo = packageSearchIndexRepository.maxPackageId();
+        SearchIndexCheckpoint checkpoint = searchIndexCheckpointRepository.findById(JOB)
+                .orElseGet(() -> SearchIndexCheckpoint.builder().job(JOB).lastId(0L).build());
+        long lastId = checkpoint.getLastId();
+        if (upTo <= lastId) {
+            return 0;
+        }
+        long indexed = 0;
+        while (true) {
+            long afterId = lastId;
+            List<Long> page = transactionTemplate.execute(status -> {
+                List<Long> ids = packageSearchIndexRepository.indexMissingPage(afterId, pageSize);
+                if (!ids.isEmpty()) {
+                    saveCheckpoint(checkpoint, ids.get(ids.size() - 1));
+                }
+                return ids;
+            });
+            if (page == null || page.isEmpty()) {
+                break;
+            }
+            lastId = page.get(page.size() - 1);
+            indexed += page.size();
+        }
+        if (upTo > lastId) {
+            long highWaterMark = upTo;
+            transactionTemplate.executeWithoutResult(status -> saveCheckpoint(checkpoint, highWaterMark));
+        }
+        if (indexed > 0) {
+            logger.info("Search index backfill finished: {} packages indexed, last package id {}", indexed, lastId);
+        }
+        return indexed;
+    }
+
+    private void saveCheckpoint(SearchIndexCheckpoint checkpoint, long lastId) {
+        checkpoint.setLastId(lastId);
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        searchIndexCheckpointRepository.save(checkpoint);
+    }
+}
@@ -1,161 +1,253 @@
 package com.rc.tracking.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rc.tracking.exception.InvalidCursorException;
 import com.rc.tracking.exception.InvalidStatusTransitionException;
 import com.rc.tracking.exception.PackageCannotBeCancelledException;
 import com.rc.tracking.exception.ResourceNotFoundException;
+import com.rc.tracking.exception.StatusConflictException;
 import com.rc.tracking.mapper.PackageMapper;
 import com.rc.tracking.model.dto.*;
 import com.rc.tracking.model.entity.PackageEntity;
+import com.rc.tracking.model.enums.PackageLookupStatus;
 import com.rc.tracking.model.enums.StatusEnum;
+import com.rc.tracking.model.event.PackageChangedEvent;
+import com.rc.tracking.model.event.PackageCreatedEvent;
 import com.rc.tracking.repository.PackageRepository;
+import com.rc.tracking.repository.PackageSearchIndexRepository;
+import com.rc.tracking.repository.PackageSpecifications;
+import com.rc.tracking.repository.PackageStreamRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.dao.DeadlockLoserDataAccessException;
-import org.springframework.http.ResponseEntity;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Recover;
-import org.springframework.retry.annotation.Retryable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
-import java.time.LocalDate;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.rc.tracking.model.enums.StatusEnum.*;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "tracking.service", histogram = true, percentiles = {0.5, 0.95, 0.99})
 public class PackageService {
 
     private final PackageRepository packageRepository;
     private final PackageMapper packageMapper;
-    private final RestTemplate restTemplate;
+    private final PackageStreamRepository packageStreamRepository;
+    private final PackageSearchIndexRepository packageSearchIndexRepository;
+    private final PackageDetailCache packageDetailCache;
+    private final PackageDetailsReader packageDetailsReader;
+    private final PackageExistenceFilter packageExistenceFilter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    static final int MAX_PAGE_SIZE = 500;
 
     private static final Logger logger = LoggerFactory.getLogger(PackageService.class);
 
     @Transactional
     public PackageResponse createPackage(PackageRequest request) {
-        boolean isHoliday = checkHoliday(request.estimatedDeliveryDate());
-        String funFact = fetchDogFunFact();
-
         PackageEntity packageEntity = PackageEntity.builder()
                 .description(request.description())
                 .sender(request.sender())
                 .recipient(request.recipient())
                 .estimatedDeliveryDate(request.estimatedDeliveryDate())
-                .isHolliday(isHoliday)
-                .funFact(funFact)
                 .status(CREATED)
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
 
         PackageEntity savedEntity = packageRepository.save(packageEntity);
-        return packageMapper.packageEntityToPackageResponse(savedEntity);
+        packageSearchIndexRepository.index(savedEntity.getId(), savedEntity.getSender(), savedEntity.getRecipient());
+        packageExistenceFilter.add(List.of(savedEntity.getId()));
+        eventPublisher.publishEvent(new PackageCreatedEvent(savedEntity.getId(), savedEntity.getEstimatedDeliveryDate()));
+        PackageResponse response = packageMapper.packageEntityToPackageResponse(savedEntity);
+        eventPublisher.publishEvent(new PackageChangedEvent(savedEntity.getId(), response));
+        return response;
     }
-    @Retryable(
-            value = DeadlockLoserDataAccessException.class,
-            maxAttempts = 5,
-            backoff = @Backoff(delay = 1000, multiplier = 2)
-    )
+
+    /**
+     * Transições permitidas: CREATED -> IN_TRANSIT -> DELIVERED. Cada uma é um
+     * único UPDATE condicionado ao status de origem, sem ler e regravar a
+     * entidade; se outra requisição já levou o pacote ao mesmo status, a
+     * disputa aparece como {@link StatusConflictException} (409). O pacote só
+     * é lido para explicar uma transição recusada, ou para montar a resposta
+     * quando os detalhes dele não estão no cache.
+     */
     @Transactional
     public PackageResponse updateStatus(Long packageId, StatusEnum newStatus) {
-        PackageEntity packageEntity = packageRepository.findById(packageId)
-                .orElseThrow(() -> new ResourceNotFoundException("Package not found with id: " + packageId));
+        StatusEnum requiredStatus = switch (newStatus) {
+            case IN_TRANSIT -> CREATED;
+            case DELIVERED -> IN_TRANSIT;
+            default -> null;
+        };
+        return transition(packageId, requiredStatus, newStatus, currentStatus ->
+                new InvalidStatusTransitionException("Invalid status transition from " + currentStatus + " to " + newStatus));
+    }
 
-        StatusEnum currentStatus = packageEntity.getStatus();
+    @Transactional
+    public PackageResponse cancelPackage(Long packageId) {
+        return transition(packageId, CREATED, CANCELLED, currentStatus ->
+                new PackageCannotBeCancelledException("Package cannot be cancelled. Current status: " + currentStatus));
+    }
 
-        if (currentStatus == StatusEnum.CREATED && newStatus == StatusEnum.IN_TRANSIT) {
-            packageEntity.setStatus(newStatus);
-        } else if (currentStatus == StatusEnum.IN_TRANSIT && newStatus == StatusEnum.DELIVERED) {
-            packageEntity.setStatus(newStatus);
-            packageEntity.setDeliveredAt(LocalDateTime.now());
-        } else {
-            throw new InvalidStatusTransitionException("Invalid status transition from "
-                    + currentStatus + " to " + newStatus);
+    private PackageResponse transition(Long packageId, StatusEnum from, StatusEnum to,
+                                       Function<StatusEnum, RuntimeException> rejection) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime deliveredAt = to == DELIVERED ? now : null;
+        int updated = from != null
+                ? packageRepository.transitionStatus(packageId, from, to, deliveredAt, now)
+                : 0;
+        if (updated == 0) {
+            StatusEnum currentStatus = findPackage(packageId).getStatus();
+            if (from != null && currentStatus == to) {
+                throw new StatusConflictException("Package " + packageId + " is already " + to);
+            }
+            throw rejection.apply(currentStatus);
         }
-        packageEntity.setUpdatedAt(LocalDateTime.now());
-        PackageEntity updatedEntity = packageRepository.save(packageEntity);
-        return packageMapper.packageEntityToPackageResponse(updatedEntity);
+        PackageResponse response = transitionedResponse(packageId, to, deliveredAt, now);
+        packageDetailCache.invalidate(packageId);
+        eventPublisher.publishEvent(new PackageChangedEvent(packageId, response));
+        return response;
     }
 
-    @Transactional
-    public PackageResponse cancelPackage(Long packageId) {
-        PackageEntity packageEntity = packageRepository.findById(packageId)
+    /**
+     * Descrição, remetente, destinatário e data de criação não mudam depois da
+     * criação, e o resto da resposta é o que o UPDATE acabou de gravar. Por isso
+     * os detalhes em cache, mesmo de antes da transição, bastam para a resposta.
+     */
+    private PackageResponse transitionedResponse(Long packageId, StatusEnum status,
+                                                 LocalDateTime deliveredAt, LocalDateTime updatedAt) {
+        PackageDetailResponse cached = packageDetailCache.getIfPresent(packageId);
+        if (cached == null) {
+            return packageMapper.packageEntityToPackageResponse(findPackage(packageId));
+        }
+        return new PackageResponse(cached.id(), cached.description(), cached.sender(), cached.recipient(),
+                status, cached.createdAt(), updatedAt, deliveredAt);
+    }
+
+    private PackageEntity findPackage(Long packageId) {
+        return packageRepository.findById(packageId)
                 .orElseThrow(() -> new ResourceNotFoundException("Package not found with id: " + packageId));
+    }
 
-        StatusEnum currentStatus = packageEntity.getStatus();
-        if (currentStatus != CREATED) {
-            throw new PackageCannotBeCancelledException("Package cannot be cancelled. Current status: " + currentStatus);
+    public PackageDetailResponse getPackageDetails(Long packageId, boolean includeEvents) {
+        return packageDetailCache.get(packageId, includeEvents,
+                () -> packageDetailsReader.read(packageId, includeEvents));
+    }
+
+    /**
+     * Com {@code includeArchived} os eventos arquivados entram na resposta;
+     * essa leitura vai ao arquivo morto e não passa pelo cache.
+     */
+    public PackageDetailResponse getPackageDetails(Long packageId, boolean includeEvents, boolean includeArchived) {
+        if (!includeArchived || !includeEvents) {
+            return getPackageDetails(packageId, includeEvents);
         }
-        packageEntity.setStatus(CANCELLED);
-        packageEntity.setUpdatedAt(LocalDateTime.now());
-        PackageEntity updatedEntity = packageRepository.save(packageEntity);
-        return packageMapper.packageEntityToPackageResponse(updatedEntity);
+        return packageDetailsReader.read(packageId, true, true);
     }
 
-    public PackageDetailResponse getPackageDetails(Long packageId, boolean includeEvents) {
-        PackageEntity packageEntity = packageRepository.findById(packageId)
-                .orElseThrow(() -> new ResourceNotFoundException("Package not found with id: " + packageId));
-        if (!includeEvents) {
-            packageEntity.setEvents(null);
+    /**
+     * Consulta em lote para telas que mostram muitos pacotes de uma vez: os
+     * ids fora do cache são lidos juntos ({@link PackageDetailsReader#readAll})
+     * e cada id da requisição recebe um item, na mesma ordem, marcado como
+     * encontrado, inexistente ou inválido. Não inclui eventos arquivados.
+     */
+    public PackageBatchResponse getPackageDetails(List<String> ids, boolean includeEvents) {
+        long[] packageIds = new long[ids.size()];
+        Set<Long> distinctIds = new LinkedHashSet<>();
+        for (int i = 0; i < packageIds.length; i++) {
+            packageIds[i] = TrackingEventService.parsePackageId(ids.get(i));
+            if (packageIds[i] >= 0) {
+                distinctIds.add(packageIds[i]);
+            }
+        }
+        Map<Long, PackageDetailResponse> details = distinctIds.isEmpty()
+                ? Map.of()
+                : packageDetailCache.getAll(distinctIds, includeEvents,
+                        missing -> packageDetailsReader.readAll(missing, includeEvents));
+
+        List<PackageLookupResult> items = new ArrayList<>(packageIds.length);
+        for (int i = 0; i < packageIds.length; i++) {
+            PackageDetailResponse response = packageIds[i] >= 0 ? details.get(packageIds[i]) : null;
+            PackageLookupStatus status = packageIds[i] < 0 ? PackageLookupStatus.INVALID_ID
+                    : response != null ? PackageLookupStatus.FOUND
+                    : PackageLookupStatus.NOT_FOUND;
+            items.add(new PackageLookupResult(ids.get(i), status, response));
         }
-        return packageMapper.packageEntityToPackageDetailResponse(packageEntity);
+        return new PackageBatchResponse(items);
     }
 
-    public List<PackageResponse> listPackages(String sender, String recipient) {
-        List<PackageEntity> packageEntities;
-
-        if (sender != null && !sender.isEmpty() && recipient != null && !recipient.isEmpty()) {
-            packageEntities = packageRepository.findBySenderContainingIgnoreCaseAndRecipientContainingIgnoreCase(sender, recipient);
-        } else if (sender != null && !sender.isEmpty()) {
-            packageEntities = packageRepository.findBySenderContainingIgnoreCase(sender);
-        } else if (recipient != null && !recipient.isEmpty()) {
-            packageEntities = packageRepository.findByRecipientContainingIgnoreCase(recipient);
-        } else {
-            packageEntities = packageRepository.findAll();
+    public EventPageResponse listPackageEvents(Long packageId, EventHistoryFilter filter, String cursor, int size) {
+        if (filter.latest() != null) {
+            int latest = Math.max(1, Math.min(filter.latest(), MAX_PAGE_SIZE));
+            return packageDetailsReader.readEvents(packageId, filter.since(), filter.until(), null, latest, false,
+                    Boolean.TRUE.equals(filter.includeArchived()));
         }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        EventCursor eventCursor = cursor != null ? EventCursor.decode(cursor) : null;
+        return packageDetailsReader.readEvents(packageId, filter.since(), filter.until(), eventCursor, pageSize, true,
+                Boolean.TRUE.equals(filter.includeArchived()));
+    }
+
+    @Transactional(readOnly = true)
+    public PackagePageResponse listPackages(PackageFilter filter, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<PackageEntity> packageEntities = packageRepository.findBy(
+                PackageSpecifications.matching(filter, decodePackageCursor(cursor)),
+                query -> query.sortBy(Sort.by("id")).limit(pageSize + 1).all());
 
-        return packageEntities.stream()
+        boolean hasNext = packageEntities.size() > pageSize;
+        List<PackageEntity> page = hasNext ? packageEntities.subList(0, pageSize) : packageEntities;
+        List<PackageResponse> items = page.stream()
                 .map(packageMapper::packageEntityToPackageResponse)
                 .collect(Collectors.toList());
+        String nextCursor = hasNext ? TrackingEventService.PACKAGE_ID_PREFIX + page.get(page.size() - 1).getId() : null;
+        return new PackagePageResponse(items, nextCursor);
     }
 
-    private boolean checkHoliday(LocalDate estimatedDate) {
-        String url = "https://date.nager.at/api/v3/PublicHolidays/" + estimatedDate.getYear() + "/BR";
-        try {
-            ResponseEntity<Holiday[]> response = restTemplate.getForEntity(url, Holiday[].class);
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                return Arrays.stream(response.getBody())
-                        .anyMatch(holiday -> holiday.date().equals(estimatedDate));
-            }
-        } catch (Exception ex) {
-            logger.error("Error checking holiday for date {}: {}", estimatedDate, ex.getMessage());
+    public void streamPackages(PackageFilter filter, String cursor, OutputStream out) throws IOException {
+        Long afterId = decodePackageCursor(cursor);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            packageStreamRepository.stream(filter, afterId, response -> {
+                try {
+                    generator.writeObject(response);
+                    generator.writeRaw('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
         }
-        return false;
     }
 
-    private String fetchDogFunFact() {
-        String url = "https://dogapi.dog/api/v1/facts";
-        try {
-            ResponseEntity<DogFactResponse> response = restTemplate.getForEntity(url, DogFactResponse.class);
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                return response.getBody().fact();
-            }
-        } catch (Exception ex) {
-            logger.error("Error fetching dog fun fact: {}", ex.getMessage());
+    /**
+     * Converte o cursor da listagem ({@code packageEntity-<id>} ou só o id) no id
+     * a partir do qual a próxima página começa.
+     */
+    static Long decodePackageCursor(String cursor) {
+        if (cursor == null) {
+            return null;
         }
-        return "Fun fact not available";
-    }
-
-    @Recover
-    public PackageResponse recover(DeadlockLoserDataAccessException ex, Long packageId, StatusEnum newStatus) {
-        logger.error("Failed to update status for package {} after retries: {}", packageId, ex.getMessage());
-        throw new RuntimeException("Unable to update package status after multiple retries", ex);
+        long id = TrackingEventService.parsePackageId(cursor);
+        if (id < 0) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+        return id;
     }
-}
\ No newline at end of file
+}
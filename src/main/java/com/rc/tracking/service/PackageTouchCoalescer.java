@@ -0,0 +1,111 @@
+package com.rc.tracking.service;
+
+import com.rc.tracking.repository.TrackingEventJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Agrupa as atualizações de {@code packages.updated_at} causadas por eventos
+ * de rastreamento. Cada pacote guarda só o instante mais recente e, a cada
+ * {@code tracking.ingestion.touch-window-ms}, todos os pendentes vão num único
+ * batch de UPDATEs de uma coluna, fora da transação que grava os eventos. Um
+ * pacote com muitos scans simultâneos recebe uma escrita por janela em vez de
+ * uma por evento, e a gravação dos eventos não disputa o lock da linha pai.
+ */
+@Component
+public class PackageTouchCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PackageTouchCoalescer.class);
+
+    private final TrackingEventJdbcRepository trackingEventJdbcRepository;
+    private final PackageDetailCache packageDetailCache;
+    private final ConcurrentHashMap<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    private final Counter requested;
+    private final Counter written;
+
+    public PackageTouchCoalescer(TrackingEventJdbcRepository trackingEventJdbcRepository,
+                                 PackageDetailCache packageDetailCache,
+                                 MeterRegistry meterRegistry) {
+        this.trackingEventJdbcRepository = trackingEventJdbcRepository;
+        this.packageDetailCache = packageDetailCache;
+        this.requested = Counter.builder("tracking.ingestion.touch.requested").register(meterRegistry);
+        this.written = Counter.builder("tracking.ingestion.touch.written").register(meterRegistry);
+        Gauge.builder("tracking.ingestion.touch.pending", pending, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Registra que os pacotes mudaram em {@code at}. Dentro de uma transação,
+     * só passa a valer depois do commit.
+     */
+    public void touch(Collection<Long> packageIds, LocalDateTime at) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> ids = List.copyOf(packageIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(ids, at);
+                }
+            });
+        } else {
+            record(packageIds, at);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.ingestion.touch-window-ms:500}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Long, LocalDateTime> batch = new HashMap<>();
+        for (Long packageId : pending.keySet()) {
+            LocalDateTime at = pending.remove(packageId);
+            if (at != null) {
+                batch.put(packageId, at);
+            }
+        }
+        try {
+            trackingEventJdbcRepository.touchPackages(batch);
+            written.increment(batch.size());
+            packageDetailCache.invalidateAll(batch.keySet());
+        } catch (RuntimeException ex) {
+            logger.warn("Failed to update updated_at for {} packages, retrying next window: {}", batch.size(), ex.getMessage());
+            batch.forEach(this::merge);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    private void record(Collection<Long> packageIds, LocalDateTime at) {
+        for (Long packageId : packageIds) {
+            merge(packageId, at);
+        }
+        requested.increment(packageIds.size());
+    }
+
+    private void merge(Long packageId, LocalDateTime at) {
+        pending.merge(packageId, at, (current, next) -> next.isAfter(current) ? next : current);
+    }
+}
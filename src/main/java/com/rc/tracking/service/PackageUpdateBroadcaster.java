@@ -0,0 +1,204 @@
+package com.rc.tracking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rc.tracking.exception.ResourceNotFoundException;
+import com.rc.tracking.exception.SubscriptionLimitExceededException;
+import com.rc.tracking.model.dto.PackageResponse;
+import com.rc.tracking.model.event.PackageChangedEvent;
+import com.rc.tracking.model.event.TrackingEventsRecordedEvent;
+import com.rc.tracking.repository.PackageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assinaturas SSE de atualizações de pacotes, por pacote, por sender e por
+ * recipient. Cada conexão é só um {@link SseEmitter} registrado no tópico:
+ * com o servlet assíncrono nenhuma thread fica presa a um assinante ocioso.
+ * As atualizações chegam como eventos de aplicação depois do commit e são
+ * entregues no {@code subscriptionExecutor}, serializadas uma única vez por
+ * tópico; quem falha na escrita é removido.
+ */
+@Component
+public class PackageUpdateBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(PackageUpdateBroadcaster.class);
+
+    static final String PACKAGE_EVENT = "package";
+    static final String TRACKING_EVENT = "event";
+
+    private final PackageRepository packageRepository;
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+
+    private final Map<String, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private final Counter sent;
+    private final Counter dropped;
+
+    public PackageUpdateBroadcaster(PackageRepository packageRepository,
+                                    ObjectMapper objectMapper,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${tracking.subscriptions.timeout:30m}") Duration timeout,
+                                    @Value("${tracking.subscriptions.max-subscribers:50000}") int maxSubscribers) {
+        this.packageRepository = packageRepository;
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeout.toMillis();
+        this.maxSubscribers = maxSubscribers;
+        this.sent = Counter.builder("tracking.subscriptions.messages").tag("result", "sent").register(meterRegistry);
+        this.dropped = Counter.builder("tracking.subscriptions.messages").tag("result", "dropped").register(meterRegistry);
+        Gauge.builder("tracking.subscriptions.active", subscriberCount, AtomicInteger::get).register(meterRegistry);
+    }
+
+    public SseEmitter subscribeToPackage(Long packageId) {
+        if (!packageRepository.existsById(packageId)) {
+            throw new ResourceNotFoundException("Package not found with id: " + packageId);
+        }
+        return subscribe(packageTopic(packageId));
+    }
+
+    public SseEmitter subscribeToSender(String sender) {
+        return subscribe(senderTopic(sender));
+    }
+
+    public SseEmitter subscribeToRecipient(String recipient) {
+        return subscribe(recipientTopic(recipient));
+    }
+
+    @Async("subscriptionExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPackageChanged(PackageChangedEvent event) {
+        PackageResponse response = event.packageResponse();
+        broadcast(List.of(packageTopic(event.packageId()), senderTopic(response.sender()), recipientTopic(response.recipient())),
+                PACKAGE_EVENT, List.of(response));
+    }
+
+    @Async("subscriptionExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrackingEventsRecorded(TrackingEventsRecordedEvent event) {
+        broadcast(List.of(packageTopic(event.packageId()), senderTopic(event.sender()), recipientTopic(event.recipient())),
+                TRACKING_EVENT, event.events());
+    }
+
+    /**
+     * Comentário periódico em todas as conexões, para que proxies não as
+     * derrubem por inatividade e para descobrir clientes que já foram embora.
+     */
+    @Scheduled(fixedDelayString = "${tracking.subscriptions.heartbeat-ms:30000}")
+    public void heartbeat() {
+        Set<ResponseBodyEmitter.DataWithMediaType> keepalive = SseEmitter.event().comment("keepalive").build();
+        subscribers.forEach((topic, emitters) -> {
+            for (SseEmitter emitter : emitters) {
+                send(topic, emitter, keepalive);
+            }
+        });
+    }
+
+    int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private SseEmitter subscribe(String topic) {
+        if (subscriberCount.get() >= maxSubscribers) {
+            throw new SubscriptionLimitExceededException("Too many open package subscriptions");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        subscribers.compute(topic, (key, emitters) -> {
+            Set<SseEmitter> topicEmitters = emitters != null ? emitters : ConcurrentHashMap.newKeySet();
+            topicEmitters.add(emitter);
+            return topicEmitters;
+        });
+        subscriberCount.incrementAndGet();
+        emitter.onCompletion(() -> remove(topic, emitter));
+        emitter.onTimeout(() -> remove(topic, emitter));
+        emitter.onError(ex -> remove(topic, emitter));
+        return emitter;
+    }
+
+    private void remove(String topic, SseEmitter emitter) {
+        subscribers.computeIfPresent(topic, (key, emitters) -> {
+            if (emitters.remove(emitter)) {
+                subscriberCount.decrementAndGet();
+            }
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    private void broadcast(List<String> topics, String name, List<?> payloads) {
+        Map<String, Set<SseEmitter>> targets = new LinkedHashMap<>();
+        for (String topic : topics) {
+            Set<SseEmitter> emitters = subscribers.get(topic);
+            if (emitters != null) {
+                targets.put(topic, emitters);
+            }
+        }
+        if (targets.isEmpty()) {
+            return;
+        }
+        List<Set<ResponseBodyEmitter.DataWithMediaType>> messages = new ArrayList<>(payloads.size());
+        for (Object payload : payloads) {
+            try {
+                messages.add(SseEmitter.event().name(name).data(objectMapper.writeValueAsString(payload)).build());
+            } catch (JsonProcessingException ex) {
+                logger.error("Unable to serialize {} update: {}", name, ex.getMessage());
+            }
+        }
+        targets.forEach((topic, emitters) -> {
+            for (SseEmitter emitter : emitters) {
+                for (Set<ResponseBodyEmitter.DataWithMediaType> message : messages) {
+                    if (!send(topic, emitter, message)) {
+                        break;
+                    }
+                }
+            }
+        });
+    }
+
+    private boolean send(String topic, SseEmitter emitter, Set<ResponseBodyEmitter.DataWithMediaType> message) {
+        try {
+            emitter.send(message);
+            sent.increment();
+            return true;
+        } catch (IOException | IllegalStateException ex) {
+            logger.debug("Dropping subscriber of {}: {}", topic, ex.getMessage());
+            dropped.increment();
+            remove(topic, emitter);
+            emitter.completeWithError(ex);
+            return false;
+        }
+    }
+
+    private static String packageTopic(Long packageId) {
+        return "package:" + packageId;
+    }
+
+    private static String senderTopic(String sender) {
+        return "sender:" + sender;
+    }
+
+    private static String recipientTopic(String recipient) {
+        return "recipient:" + recipient;
+    }
+}
@@ -0,0 +1,139 @@
+package com.rc.tracking.service;
+
+import com.rc.tracking.repository.PartitionRepository;
+import com.rc.tracking.repository.PartitionRepository.Partition;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mantém as partições mensais de {@code packages} e {@code tracking_events} à frente da data atual:
+ * periodicamente divide a partição MAXVALUE em novos meses até cobrir
+ * {@code lookaheadMonths}, para que as linhas novas não se acumulem nela e a
+ * poda por {@code estimated_delivery_date} continue funcionando. Também
+ * publica linhas e tamanho por partição. A remoção das partições antigas
+ * fica com o expurgo ({@link PackagePurgeService}).
+ */
+@Service
+public class PartitionMaintenanceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionMaintenanceService.class);
+
+    static final List<String> TABLES = List.of("packages", "tracking_events");
+
+    private final PartitionRepository partitionRepository;
+    private final Clock clock;
+    private final int lookaheadMonths;
+
+    private final MultiGauge partitionRows;
+    private final MultiGauge partitionSizes;
+    private final Counter createdPartitions;
+    private final Counter failures;
+
+    @Autowired
+    public PartitionMaintenanceService(PartitionRepository partitionRepository,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${tracking.partitions.lookahead-months:3}") int lookaheadMonths) {
+        this(partitionRepository, meterRegistry, lookaheadMonths, Clock.systemDefaultZone());
+    }
+
+    PartitionMaintenanceService(PartitionRepository partitionRepository, MeterRegistry meterRegistry,
+                                int lookaheadMonths, Clock clock) {
+        this.partitionRepository = partitionRepository;
+        this.lookaheadMonths = lookaheadMonths;
+        this.clock = clock;
+        this.partitionRows = MultiGauge.builder("tracking.partitions.rows").register(meterRegistry);
+        this.partitionSizes = MultiGauge.builder("tracking.partitions.size").baseUnit("bytes").register(meterRegistry);
+        this.createdPartitions = Counter.builder("tracking.partitions.created").register(meterRegistry);
+        this.failures = Counter.builder("tracking.partitions.maintenance.failures").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${tracking.partitions.cron:0 30 2 * * *}")
+    public void maintain() {
+        if (!partitionRepository.isSupported()) {
+            return;
+        }
+        for (String table : TABLES) {
+            try {
+                ensureFuturePartitions(table);
+            } catch (Exception ex) {
+                failures.increment();
+                logger.error("Partition maintenance for {} failed: {}", table, ex.getMessage());
+            }
+        }
+        refreshMetrics();
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.partitions.metrics-refresh-ms:300000}")
+    public void refreshMetrics() {
+        if (!partitionRepository.isSupported()) {
+            return;
+        }
+        List<MultiGauge.Row<?>> rows = new ArrayList<>();
+        List<MultiGauge.Row<?>> sizes = new ArrayList<>();
+        for (String table : TABLES) {
+            for (Partition partition : partitionRepository.findPartitions(table)) {
+                Tags tags = Tags.of("table", table, "partition", partition.name());
+                rows.add(MultiGauge.Row.of(tags, partition.estimatedRows()));
+                sizes.add(MultiGauge.Row.of(tags, partition.sizeBytes()));
+            }
+        }
+        partitionRows.register(rows, true);
+        partitionSizes.register(sizes, true);
+    }
+
+    void ensureFuturePartitions(String table) {
+        List<Partition> partitions = partitionRepository.findPartitions(table);
+        if (partitions.isEmpty()) {
+            return;
+        }
+        Partition maxValue = partitions.stream().filter(p -> p.upperBound() == null).findFirst().orElse(null);
+        if (maxValue == null) {
+            logger.warn("Table {} has no MAXVALUE partition to split", table);
+            return;
+        }
+        List<Partition> missing = missingMonths(partitions, LocalDate.now(clock), lookaheadMonths);
+        if (missing.isEmpty()) {
+            return;
+        }
+        partitionRepository.splitMaxValuePartition(table, maxValue.name(), missing);
+        createdPartitions.increment(missing.size());
+        logger.info("Created {} partitions on {} ({} to {})", missing.size(), table,
+                missing.get(0).name(), missing.get(missing.size() - 1).name());
+    }
+
+    /**
+     * Meses que faltam entre o último limite existente e o fim do mês
+     * {@code today + lookaheadMonths}, um por partição.
+     */
+    static List<Partition> missingMonths(List<Partition> partitions, LocalDate today, int lookaheadMonths) {
+        LocalDate target = today.withDayOfMonth(1).plusMonths(lookaheadMonths + 1L);
+        LocalDate highest = partitions.stream()
+                .map(Partition::upperBound)
+                .filter(bound -> bound != null)
+                .max(LocalDate::compareTo)
+                .orElse(today.withDayOfMonth(1));
+        List<Partition> missing = new ArrayList<>();
+        for (LocalDate start = highest; start.isBefore(target); start = start.plusMonths(1)) {
+            LocalDate monthStart = start.withDayOfMonth(1);
+            String name = String.format("p%04d_%02d", monthStart.getYear(), monthStart.getMonthValue());
+            missing.add(new Partition(name, monthStart.plusMonths(1), 0, 0));
+        }
+        return missing;
+    }
+}
@@ -0,0 +1,205 @@
+package com.rc.tracking.service;
+
+import com.rc.tracking.exception.IngestionOverloadedException;
+import com.rc.tracking.exception.ResourceNotFoundException;
+import com.rc.tracking.model.dto.AcceptedTrackingEvent;
+import com.rc.tracking.model.dto.IngestionReceipt;
+import com.rc.tracking.model.dto.TrackingEventRequest;
+import com.rc.tracking.model.enums.IngestionOutcome;
+import com.rc.tracking.model.id.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingestão dos eventos de rastreamento recebidos. O evento só é aceito depois
+ * de sincronizado no {@link TrackingEventLog}; uma thread dedicada lê o log em
+ * lotes, por tamanho ou por janela de tempo, o que vier primeiro, grava no
+ * banco e só então avança o checkpoint. Se o banco estiver fora ou lento o
+ * mesmo lote é repetido com espera crescente, enquanto os novos eventos
+ * continuam se acumulando em disco; o que não chegou ao banco antes de uma
+ * parada é lido de novo na próxima subida.
+ *
+ * <p>Cada evento aceito recebe um token; o resultado (aplicado, recusado,
+ * repetido ou enviado para a fila de mensagens mortas) fica registrado no
+ * {@link IngestionStatusService}.
+ */
+@Component
+public class TrackingEventIngestionQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackingEventIngestionQueue.class);
+
+    private static final long IDLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long MAX_RETRY_BACKOFF_MILLIS = 30_000;
+
+    private final TrackingEventService trackingEventService;
+    private final TrackingEventLog trackingEventLog;
+    private final IngestionStatusService ingestionStatusService;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long retryBackoffMillis;
+
+    private final Counter retries;
+    private final Counter fallbacks;
+
+    private volatile boolean accepting = true;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public TrackingEventIngestionQueue(TrackingEventService trackingEventService,
+                                       TrackingEventLog trackingEventLog,
+                                       IngestionStatusService ingestionStatusService,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${tracking.ingestion.batch-size:500}") int batchSize,
+                                       @Value("${tracking.ingestion.flush-interval-ms:200}") long flushIntervalMs,
+                                       @Value("${tracking.ingestion.retry-backoff:500ms}") Duration retryBackoff) {
+        this.trackingEventService = trackingEventService;
+        this.trackingEventLog = trackingEventLog;
+        this.ingestionStatusService = ingestionStatusService;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.retryBackoffMillis = retryBackoff.toMillis();
+        this.retries = Counter.builder("tracking.ingestion.batch.retries").register(meterRegistry);
+        this.fallbacks = Counter.builder("tracking.ingestion.batch.fallbacks").register(meterRegistry);
+    }
+
+    /**
+     * Grava o evento no log de ingestão e devolve o token pelo qual o resultado
+     * pode ser consultado. Se o fsync do log não terminar a tempo o evento é
+     * aceito assim mesmo, como {@link IngestionOutcome#PENDING_DURABILITY}:
+     * ele já está no log e será gravado no banco, e recusá-lo faria o cliente
+     * reenviar uma duplicata.
+     */
+    public IngestionReceipt submit(TrackingEventRequest request) {
+        if (!accepting) {
+            throw new IngestionOverloadedException("Tracking event ingestion is shutting down");
+        }
+        long token = SnowflakeIdGenerator.next();
+        boolean durable = trackingEventLog.append(new AcceptedTrackingEvent(token, request));
+        return new IngestionReceipt(Long.toString(token), ingestionStatusService.accepted(token, durable));
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = new Thread(this::runFlushLoop, "TrackingEventFlusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        accepting = false;
+        running = false;
+        if (flusher != null) {
+            flusher.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + MAX_RETRY_BACKOFF_MILLIS);
+        }
+    }
+
+    private void runFlushLoop() {
+        long idlePollNanos = Math.min(flushIntervalNanos, IDLE_POLL_NANOS);
+        while (running) {
+            try {
+                List<AcceptedTrackingEvent> batch = trackingEventLog.poll(batchSize, idlePollNanos);
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                fillBatch(batch);
+                if (flush(batch)) {
+                    trackingEventLog.commit();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Tracking event flusher interrupted, pending events stay in the log");
+                return;
+            } catch (RuntimeException ex) {
+                logger.error("Tracking event flusher failed, pending events stay in the log: {}", ex.getMessage());
+            }
+        }
+    }
+
+    private void fillBatch(List<AcceptedTrackingEvent> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < batchSize && running) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            List<AcceptedTrackingEvent> next = trackingEventLog.poll(batchSize - batch.size(), remaining);
+            if (next.isEmpty()) {
+                return;
+            }
+            batch.addAll(next);
+        }
+    }
+
+    /**
+     * Grava o lote; devolve {@code false} se o lote não foi gravado e deve
+     * continuar no log (parada durante uma falha transitória do banco).
+     */
+    private boolean flush(List<AcceptedTrackingEvent> batch) throws InterruptedException {
+        List<TrackingEventRequest> requests = batch.stream().map(AcceptedTrackingEvent::request).toList();
+        long backoff = retryBackoffMillis;
+        while (true) {
+            try {
+                Map<Integer, String> rejected = trackingEventService.processBatch(requests);
+                ingestionStatusService.completed(batch, rejected);
+                return true;
+            } catch (Exception ex) {
+                if (!isTransient(ex)) {
+                    logger.warn("Batch of {} tracking events failed, falling back to per-event processing: {}",
+                            batch.size(), ex.getMessage());
+                    fallbacks.increment();
+                    dispatchEach(batch);
+                    return true;
+                }
+                if (!running) {
+                    logger.warn("Batch of {} tracking events failed during shutdown, leaving it in the log: {}",
+                            batch.size(), ex.getMessage());
+                    return false;
+                }
+                logger.warn("Batch of {} tracking events failed, retrying in {} ms: {}", batch.size(), backoff, ex.getMessage());
+                retries.increment();
+                ingestionStatusService.retrying(batch);
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private void dispatchEach(List<AcceptedTrackingEvent> batch) {
+        for (AcceptedTrackingEvent event : batch) {
+            try {
+                trackingEventService.processTrackingEvent(event.request());
+                ingestionStatusService.applied(event);
+            } catch (ResourceNotFoundException | IllegalArgumentException rejectedEx) {
+                ingestionStatusService.deadLetter(event, IngestionOutcome.REJECTED, rejectedEx.getMessage());
+            } catch (Exception fallbackEx) {
+                logger.error("Failed to process tracking event {} for package {}: {}",
+                        event.token(), event.request().packageId(), fallbackEx.getMessage());
+                ingestionStatusService.deadLetter(event, IngestionOutcome.DEAD_LETTERED, fallbackEx.getMessage());
+            }
+        }
+    }
+
+    static boolean isTransient(Throwable ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof RecoverableDataAccessException
+                || ex instanceof DataAccessResourceFailureException
+                || ex instanceof CannotCreateTransactionException;
+    }
+}
@@ -0,0 +1,498 @@
+package com.rc.tracking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rc.tracking.exception.IngestionOverloadedException;
+import com.rc.tracking.model.dto.AcceptedTrackingEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead log local dos eventos de rastreamento recebidos. Os eventos são
+ * acrescentados em segmentos mapeados em memória ({@code <posição>.wal}), cada
+ * registro com tamanho e CRC32C, e {@link #append} espera até que o registro
+ * seja forçado em disco. Uma única thread faz o {@code force}: quem chega
+ * enquanto ela sincroniza entra no próximo, de modo que uma rajada de
+ * requisições custa poucos fsyncs.
+ *
+ * <p>O leitor (a thread de gravação no banco) avança por {@link #poll} e
+ * confirma com {@link #commit}, que grava o checkpoint e apaga os segmentos já
+ * consumidos. Na subida tudo o que está depois do checkpoint volta a ser lido;
+ * um registro truncado ou com CRC inválido no fim do último segmento marca o
+ * ponto onde a escrita recomeça.
+ *
+ * <p>Um segmento consumido sai do mapa de segmentos antes de o arquivo ser
+ * apagado, mas o mapeamento só é desfeito quando o {@link MappedByteBuffer} é
+ * coletado pelo GC. No Linux o arquivo some do diretório na hora e o espaço em
+ * disco volta depois da coleta; em hosts que rodam por muito tempo com pouca
+ * alocação isso pode demorar, e o espaço aparece como arquivo apagado ainda
+ * aberto. No Windows um arquivo mapeado não pode ser apagado: a falha é
+ * registrada e a remoção é repetida nos próximos {@link #commit} e na subida.
+ */
+@Component
+public class TrackingEventLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackingEventLog.class);
+
+    private static final int HEADER_BYTES = 8; // tamanho + crc
+    private static final int END_OF_SEGMENT = -1;
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final long SYNC_RETRY_MILLIS = 100;
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final int segmentSize;
+    private final long maxBacklogBytes;
+    private final long syncTimeoutNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition syncRequested = lock.newCondition();
+    private final Condition durableAdvanced = lock.newCondition();
+
+    // posição inicial do segmento -> mapeamento; posições são lógicas e crescem entre segmentos
+    private final ConcurrentSkipListMap<Long, MappedByteBuffer> segments = new ConcurrentSkipListMap<>();
+    // segmentos consumidos cujo arquivo ainda não pôde ser apagado; só a thread do commit mexe
+    private final Set<Long> pendingDeletes = new TreeSet<>();
+    private long writeBase;
+    private MappedByteBuffer writeSegment;
+    private volatile long writePosition;
+    private long durablePosition;
+    private volatile long readPosition;
+    private volatile long checkpoint;
+    private boolean open;
+    private Thread syncer;
+
+    private final Counter appended;
+    private final Counter rejected;
+    private final Counter syncs;
+    private final Counter syncTimeouts;
+    private final DistributionSummary syncBytes;
+
+    public TrackingEventLog(ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${tracking.ingestion.wal.directory:wal}") String directory,
+                            @Value("${tracking.ingestion.wal.segment-size:64MB}") DataSize segmentSize,
+                            @Value("${tracking.ingestion.wal.max-backlog:1GB}") DataSize maxBacklog,
+                            @Value("${tracking.ingestion.wal.sync-timeout:5s}") Duration syncTimeout) {
+        if (segmentSize.toBytes() <= HEADER_BYTES || segmentSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("tracking.ingestion.wal.segment-size must be between 9B and 2GB");
+        }
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory);
+        this.segmentSize = (int) segmentSize.toBytes();
+        this.maxBacklogBytes = maxBacklog.toBytes();
+        this.syncTimeoutNanos = syncTimeout.toNanos();
+        this.appended = Counter.builder("tracking.ingestion.wal.appended").register(meterRegistry);
+        this.rejected = Counter.builder("tracking.ingestion.wal.rejected").register(meterRegistry);
+        this.syncs = Counter.builder("tracking.ingestion.wal.syncs").register(meterRegistry);
+        this.syncTimeouts = Counter.builder("tracking.ingestion.wal.sync.timeouts").register(meterRegistry);
+        this.syncBytes = DistributionSummary.builder("tracking.ingestion.wal.sync.bytes").register(meterRegistry);
+        Gauge.builder("tracking.ingestion.wal.backlog.bytes", this, TrackingEventLog::backlogBytes).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() {
+        try {
+            Files.createDirectories(directory);
+            checkpoint = readCheckpoint();
+            for (Path file : listSegmentFiles()) {
+                long base = baseOf(file);
+                long capacity = Files.size(file);
+                if (capacity > 0 && base + capacity <= checkpoint) {
+                    if (!deleteSegmentFile(base)) {
+                        pendingDeletes.add(base);
+                    }
+                } else {
+                    segments.put(base, map(file, capacity > 0 ? capacity : segmentSize));
+                }
+            }
+            if (segments.isEmpty()) {
+                createSegment(checkpoint);
+                writePosition = checkpoint;
+            } else {
+                writeBase = segments.lastKey();
+                writeSegment = segments.lastEntry().getValue();
+                writePosition = recoverWriteEnd();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Error opening tracking event log in " + directory, ex);
+        }
+        durablePosition = writePosition;
+        readPosition = Math.max(checkpoint, segments.firstKey());
+        if (writePosition > readPosition) {
+            logger.info("Tracking event log has {} bytes to replay from {}", writePosition - readPosition, directory);
+        }
+        open = true;
+        syncer = new Thread(this::runSyncLoop, "TrackingEventLogSync");
+        syncer.setDaemon(true);
+        syncer.start();
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        lock.lock();
+        try {
+            open = false;
+            syncRequested.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (syncer != null) {
+            syncer.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(syncTimeoutNanos)));
+        }
+        if (syncer == null || !syncer.isAlive()) {
+            // sem referências aos buffers o GC pode desfazer os mapeamentos
+            segments.clear();
+            writeSegment = null;
+        }
+    }
+
+    /**
+     * Grava o evento no log e espera que ele esteja em disco. Recusa com
+     * {@link IngestionOverloadedException} quando o que ainda não foi
+     * confirmado pelo leitor passa de {@code tracking.ingestion.wal.max-backlog}.
+     *
+     * <p>Devolve {@code false} se o {@code force} não terminou dentro de
+     * {@code tracking.ingestion.wal.sync-timeout} (ou a espera foi
+     * interrompida): o registro já está no segmento e será sincronizado e
+     * processado normalmente, mas pode se perder se o processo cair antes do
+     * fsync. Não é uma recusa; reenviar o evento criaria uma duplicata, a menos
+     * que ele traga {@code eventId}.
+     */
+    public boolean append(AcceptedTrackingEvent event) {
+        byte[] payload = serialize(event);
+        if (payload.length > segmentSize - HEADER_BYTES) {
+            throw new IllegalArgumentException("Tracking event too large for the write-ahead log");
+        }
+        lock.lock();
+        try {
+            if (!open) {
+                throw new IngestionOverloadedException("Tracking event ingestion is shutting down");
+            }
+            if (backlogBytes() >= maxBacklogBytes) {
+                rejected.increment();
+                throw new IngestionOverloadedException("Tracking event write-ahead log is full");
+            }
+            long end = write(payload);
+            appended.increment();
+            syncRequested.signal();
+            long remaining = syncTimeoutNanos;
+            while (durablePosition < end) {
+                if (remaining <= 0) {
+                    syncTimeouts.increment();
+                    logger.warn("Tracking event {} written but not yet synced after {} ms", event.token(),
+                            TimeUnit.NANOSECONDS.toMillis(syncTimeoutNanos));
+                    return false;
+                }
+                remaining = durableAdvanced.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            syncTimeouts.increment();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Devolve até {@code max} eventos já sincronizados depois da posição de
+     * leitura, esperando até {@code timeoutNanos} se não houver nenhum.
+     */
+    public List<AcceptedTrackingEvent> poll(int max, long timeoutNanos) throws InterruptedException {
+        long limit;
+        lock.lock();
+        try {
+            long remaining = timeoutNanos;
+            while (durablePosition <= readPosition && open && remaining > 0) {
+                remaining = durableAdvanced.awaitNanos(remaining);
+            }
+            limit = durablePosition;
+        } finally {
+            lock.unlock();
+        }
+
+        List<AcceptedTrackingEvent> batch = new ArrayList<>(Math.min(max, 64));
+        long position = readPosition;
+        while (batch.size() < max && position < limit) {
+            Map.Entry<Long, MappedByteBuffer> segment = segments.floorEntry(position);
+            long base = segment.getKey();
+            MappedByteBuffer buffer = segment.getValue();
+            int offset = (int) (position - base);
+            byte[] payload = readRecord(buffer, offset);
+            if (payload == null) {
+                if (offset + HEADER_BYTES <= buffer.capacity() && buffer.getInt(offset) > 0) {
+                    logger.error("Corrupt record at position {} in tracking event log, skipping rest of segment", position);
+                }
+                position = base + buffer.capacity();
+                continue;
+            }
+            position += HEADER_BYTES + payload.length;
+            try {
+                batch.add(objectMapper.readValue(payload, AcceptedTrackingEvent.class));
+            } catch (IOException ex) {
+                logger.error("Unreadable tracking event at position {} in log: {}", position, ex.getMessage());
+            }
+        }
+        readPosition = position;
+        return batch;
+    }
+
+    /**
+     * Confirma tudo o que já foi devolvido por {@link #poll}: grava o
+     * checkpoint e apaga os segmentos inteiramente consumidos, tentando de
+     * novo os que não puderam ser apagados antes.
+     */
+    public void commit() {
+        long position = readPosition;
+        if (position == checkpoint) {
+            retryPendingDeletes();
+            return;
+        }
+        try {
+            Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, position));
+                channel.force(false);
+            }
+            Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE);
+            checkpoint = position;
+            deleteConsumedSegments(position);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Error writing tracking event log checkpoint", ex);
+        }
+    }
+
+    long backlogBytes() {
+        return writePosition - checkpoint;
+    }
+
+    private long write(byte[] payload) {
+        int recordLength = HEADER_BYTES + payload.length;
+        int offset = (int) (writePosition - writeBase);
+        if (offset + recordLength > writeSegment.capacity()) {
+            if (offset + Integer.BYTES <= writeSegment.capacity()) {
+                writeSegment.putInt(offset, END_OF_SEGMENT);
+            }
+            createSegment(writeBase + writeSegment.capacity());
+            offset = 0;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        writeSegment.putInt(offset, payload.length);
+        writeSegment.putInt(offset + Integer.BYTES, (int) crc.getValue());
+        writeSegment.put(offset + HEADER_BYTES, payload);
+        writePosition = writeBase + offset + recordLength;
+        return writePosition;
+    }
+
+    private void runSyncLoop() {
+        while (true) {
+            long from;
+            long target;
+            lock.lock();
+            try {
+                while (open && writePosition == durablePosition) {
+                    syncRequested.awaitUninterruptibly();
+                }
+                if (writePosition == durablePosition) {
+                    return;
+                }
+                from = durablePosition;
+                target = writePosition;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                force(from, target);
+            } catch (UncheckedIOException ex) {
+                logger.error("Error syncing tracking event log, retrying: {}", ex.getMessage());
+                sleepQuietly();
+                continue;
+            }
+            lock.lock();
+            try {
+                durablePosition = target;
+                durableAdvanced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            syncs.increment();
+            syncBytes.record(target - from);
+        }
+    }
+
+    private void force(long from, long to) {
+        for (Map.Entry<Long, MappedByteBuffer> segment : segments.headMap(to).entrySet()) {
+            long base = segment.getKey();
+            MappedByteBuffer buffer = segment.getValue();
+            long start = Math.max(from, base);
+            long end = Math.min(to, base + buffer.capacity());
+            if (end > start) {
+                buffer.force((int) (start - base), (int) (end - start));
+            }
+        }
+    }
+
+    private long recoverWriteEnd() {
+        int offset = (int) Math.max(0, checkpoint - writeBase);
+        while (true) {
+            byte[] payload = readRecord(writeSegment, offset);
+            if (payload == null) {
+                return writeBase + offset;
+            }
+            offset += HEADER_BYTES + payload.length;
+        }
+    }
+
+    /**
+     * Lê o registro em {@code offset}, ou {@code null} se ali não houver um
+     * registro completo e íntegro (fim dos dados, marca de fim de segmento,
+     * escrita interrompida).
+     */
+    private static byte[] readRecord(MappedByteBuffer buffer, int offset) {
+        if (offset + HEADER_BYTES > buffer.capacity()) {
+            return null;
+        }
+        int length = buffer.getInt(offset);
+        if (length <= 0 || length > buffer.capacity() - offset - HEADER_BYTES) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(offset + HEADER_BYTES, payload);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue() == buffer.getInt(offset + Integer.BYTES) ? payload : null;
+    }
+
+    private void createSegment(long base) {
+        try {
+            MappedByteBuffer buffer = map(directory.resolve(segmentName(base)), segmentSize);
+            segments.put(base, buffer);
+            writeBase = base;
+            writeSegment = buffer;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Error creating tracking event log segment at " + base, ex);
+        }
+    }
+
+    /**
+     * Tira do mapa os segmentos inteiramente antes de {@code position}, soltando
+     * a referência ao buffer, e só então apaga os arquivos.
+     */
+    private void deleteConsumedSegments(long position) {
+        for (Map.Entry<Long, MappedByteBuffer> segment : segments.headMap(position).entrySet()) {
+            long base = segment.getKey();
+            lock.lock();
+            try {
+                if (base == writeBase || base + segment.getValue().capacity() > position) {
+                    continue;
+                }
+                segments.remove(base);
+            } finally {
+                lock.unlock();
+            }
+            pendingDeletes.add(base);
+        }
+        retryPendingDeletes();
+    }
+
+    private void retryPendingDeletes() {
+        pendingDeletes.removeIf(this::deleteSegmentFile);
+    }
+
+    private boolean deleteSegmentFile(long base) {
+        try {
+            Files.deleteIfExists(directory.resolve(segmentName(base)));
+            return true;
+        } catch (IOException ex) {
+            logger.warn("Unable to delete consumed tracking event log segment {}, will retry: {}",
+                    segmentName(base), ex.getMessage());
+            return false;
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        return bytes.length == Long.BYTES ? ByteBuffer.wrap(bytes).getLong() : 0;
+    }
+
+    private List<Path> listSegmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted((a, b) -> Long.compare(baseOf(a), baseOf(b)))
+                    .toList();
+        }
+    }
+
+    private static MappedByteBuffer map(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static String segmentName(long base) {
+        return String.format("%020d%s", base, SEGMENT_SUFFIX);
+    }
+
+    private static long baseOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private byte[] serialize(AcceptedTrackingEvent event) {
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Unable to serialize tracking event", ex);
+        }
+    }
+
+    private static void sleepQuietly() {
+        try {
+            Thread.sleep(SYNC_RETRY_MILLIS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
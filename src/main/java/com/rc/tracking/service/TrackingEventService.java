@@ -1,49 +1,64 @@
 package com.rc.tracking.service;
 
 import com.rc.tracking.exception.ResourceNotFoundException;
+import com.rc.tracking.mapper.PackageMapper;
+import com.rc.tracking.model.dto.EventDTO;
 import com.rc.tracking.model.dto.TrackingEventRequest;
 import com.rc.tracking.model.entity.PackageEntity;
 import com.rc.tracking.model.entity.TrackingEvent;
+import com.rc.tracking.model.event.TrackingEventsRecordedEvent;
 import com.rc.tracking.repository.PackageRepository;
-import com.rc.tracking.repository.TrackingEventRepository;
+import com.rc.tracking.repository.TrackingEventJdbcRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.dao.DeadlockLoserDataAccessException;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Recover;
-import org.springframework.retry.annotation.Retryable;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "tracking.service", histogram = true, percentiles = {0.5, 0.95, 0.99})
 public class TrackingEventService {
 
-    private final TrackingEventRepository trackingEventRepository;
     private final PackageRepository packageRepository;
+    private final TrackingEventJdbcRepository trackingEventJdbcRepository;
+    private final PackageDetailCache packageDetailCache;
+    private final EventDeduplicator eventDeduplicator;
+    private final PackageTouchCoalescer packageTouchCoalescer;
+    private final PackageMapper packageMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final Logger logger = LoggerFactory.getLogger(TrackingEventService.class);
 
-    @Async
+    static final String PACKAGE_ID_PREFIX = "packageEntity-";
+    private static final int MAX_ID_DIGITS = 19;
+
+    /**
+     * Grava um único evento, na thread de quem chama. Usado pela ingestão
+     * quando um lote falha por inteiro: as exceções de evento inválido voltam
+     * para quem chamou, que decide o destino do evento.
+     */
     @Transactional
-    @Retryable(
-            value = { DeadlockLoserDataAccessException.class,
-                    org.springframework.dao.DeadlockLoserDataAccessException.class },
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 1000)
-    )
     public void processTrackingEvent(TrackingEventRequest request) {
-        Long packageId;
-        try {
-            String idStr = request.packageId().replace("packageEntity-", "");
-            packageId = Long.parseLong(idStr);
-        } catch (Exception e) {
-            logger.error("Invalid packageId format: {}", request.packageId());
-            throw new IllegalArgumentException("Invalid packageId format");
+        Long packageId = parsePackageId(request);
+        String eventKey = EventDeduplicator.keyOf(packageId, request);
+        if (!eventDeduplicator.isNew(eventKey)) {
+            logger.debug("Duplicate tracking event for package id {} ignored", packageId);
+            return;
         }
 
         PackageEntity packageEntity = packageRepository.findById(packageId)
@@ -59,19 +74,153 @@ public class TrackingEventService {
                 .description(request.description())
                 .dateTime(request.date())
                 .packageEntity(packageEntity)
+                .eventKey(eventKey)
                 .build();
 
-        trackingEventRepository.save(trackingEvent);
+        Set<String> skipped;
+        try {
+            skipped = trackingEventJdbcRepository.insertAll(List.of(trackingEvent));
+        } catch (DuplicateKeyException ex) {
+            // outra gravação concorrente da mesma chave venceu entre a checagem e o INSERT
+            skipped = Set.of(eventKey);
+        }
+        if (!skipped.isEmpty()) {
+            eventDeduplicator.duplicatesInDatabase(skipped);
+            eventDeduplicator.remember(skipped);
+            logger.debug("Duplicate tracking event for package id {} ignored", packageId);
+            return;
+        }
+        eventDeduplicator.remember(List.of(eventKey));
 
-        packageEntity.setUpdatedAt(LocalDateTime.now());
-        packageRepository.save(packageEntity);
+        packageTouchCoalescer.touch(List.of(packageId), LocalDateTime.now());
+        packageDetailCache.invalidate(packageId);
+        eventPublisher.publishEvent(new TrackingEventsRecordedEvent(packageId, packageEntity.getSender(),
+                packageEntity.getRecipient(), List.of(packageMapper.trackingEventToEventDTO(trackingEvent))));
 
         logger.info("Tracking event processed for package id: {}", packageId);
     }
 
-    @Recover
-    public void recover(Exception ex, TrackingEventRequest request) {
-        logger.error("Failed to process tracking event for package {} after retries: {}", request.packageId(), ex.getMessage());
-        throw new RuntimeException("Unable to process tracking event after multiple retries", ex);
+    /**
+     * Grava um lote de eventos. Devolve os eventos recusados, pelo índice no
+     * lote, com o motivo; os demais foram gravados ou já existiam.
+     */
+    @Transactional
+    public Map<Integer, String> processBatch(List<TrackingEventRequest> requests) {
+        Map<Integer, String> rejected = new HashMap<>();
+        Map<Long, List<Integer>> indexesByPackage = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                indexesByPackage.computeIfAbsent(parsePackageId(requests.get(i)), id -> new ArrayList<>()).add(i);
+            } catch (IllegalArgumentException ex) {
+                rejected.put(i, ex.getMessage());
+            }
+        }
+        if (indexesByPackage.isEmpty()) {
+            return rejected;
+        }
+
+        Map<Long, PackageEntity> packages = packageRepository.findAllById(indexesByPackage.keySet()).stream()
+                .collect(Collectors.toMap(PackageEntity::getId, Function.identity()));
+
+        // chave -> evento; a primeira ocorrência de uma chave repetida no lote vence
+        Map<String, TrackingEvent> candidates = new LinkedHashMap<>();
+        indexesByPackage.forEach((packageId, indexes) -> {
+            PackageEntity packageEntity = packages.get(packageId);
+            if (packageEntity == null) {
+                logger.error("Package not found with id: {} ({} events rejected)", packageId, indexes.size());
+                String reason = "Package not found with id: " + packageId;
+                indexes.forEach(index -> rejected.put(index, reason));
+                return;
+            }
+            for (int index : indexes) {
+                TrackingEventRequest request = requests.get(index);
+                if (request.date().isBefore(packageEntity.getCreatedAt())) {
+                    logger.error("Event date {} is before package creation date {}", request.date(), packageEntity.getCreatedAt());
+                    rejected.put(index, "Event date cannot be before package creation date");
+                    continue;
+                }
+                String eventKey = EventDeduplicator.keyOf(packageId, request);
+                candidates.putIfAbsent(eventKey, TrackingEvent.builder()
+                        .location(request.location())
+                        .description(request.description())
+                        .dateTime(request.date())
+                        .packageEntity(packageEntity)
+                        .eventKey(eventKey)
+                        .build());
+            }
+        });
+
+        Set<String> newKeys = eventDeduplicator.retainNew(candidates.keySet());
+        List<TrackingEvent> events = new ArrayList<>(newKeys.size());
+        Set<Long> touchedPackageIds = new LinkedHashSet<>();
+        candidates.forEach((eventKey, event) -> {
+            if (newKeys.contains(eventKey)) {
+                events.add(event);
+                touchedPackageIds.add(event.getPackageEntity().getId());
+            }
+        });
+        if (events.size() < requests.size()) {
+            logger.debug("{} of {} tracking events in batch were duplicates or invalid", requests.size() - events.size(), requests.size());
+        }
+
+        Set<String> skipped = trackingEventJdbcRepository.insertAll(events);
+        List<TrackingEvent> recorded = events;
+        if (!skipped.isEmpty()) {
+            eventDeduplicator.duplicatesInDatabase(skipped);
+            recorded = events.stream().filter(event -> !skipped.contains(event.getEventKey())).toList();
+        }
+        eventDeduplicator.remember(newKeys);
+        packageTouchCoalescer.touch(touchedPackageIds, LocalDateTime.now());
+        packageDetailCache.invalidateAll(touchedPackageIds);
+        publishRecorded(recorded);
+
+        logger.info("Tracking event batch processed: {} events for {} packages", recorded.size(), touchedPackageIds.size());
+        return rejected;
+    }
+
+    private void publishRecorded(List<TrackingEvent> events) {
+        Map<Long, List<TrackingEvent>> eventsByPackage = events.stream()
+                .collect(Collectors.groupingBy(event -> event.getPackageEntity().getId(), LinkedHashMap::new, Collectors.toList()));
+        eventsByPackage.forEach((packageId, packageEvents) -> {
+            PackageEntity packageEntity = packageEvents.get(0).getPackageEntity();
+            List<EventDTO> dtos = packageEvents.stream().map(packageMapper::trackingEventToEventDTO).toList();
+            eventPublisher.publishEvent(new TrackingEventsRecordedEvent(
+                    packageId, packageEntity.getSender(), packageEntity.getRecipient(), dtos));
+        });
+    }
+
+    static Long parsePackageId(TrackingEventRequest request) {
+        long packageId = parsePackageId(request.packageId());
+        if (packageId < 0) {
+            logger.error("Invalid packageId format: {}", request.packageId());
+            throw new IllegalArgumentException("Invalid packageId format");
+        }
+        return packageId;
+    }
+
+    /**
+     * Converte {@code packageEntity-<id>} ou {@code <id>} para o id numérico,
+     * lendo os dígitos direto da string, sem alocar. Devolve -1 se o valor não
+     * for um id válido.
+     */
+    static long parsePackageId(String packageId) {
+        if (packageId == null) {
+            return -1;
+        }
+        int start = packageId.startsWith(PACKAGE_ID_PREFIX) ? PACKAGE_ID_PREFIX.length() : 0;
+        int length = packageId.length();
+        if (start == length || length - start > MAX_ID_DIGITS) {
+            return -1;
+        }
+        long id = 0;
+        for (int i = start; i < length; i++) {
+            int digit = packageId.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            id = id * 10 + digit;
+        }
+        // com até 19 dígitos o estouro sempre dá negativo
+        return id < 0 ? -1 : id;
     }
 }
@@ -0,0 +1,41 @@
+package com.rc.tracking.service;
+
+import com.rc.tracking.exception.InvalidTrackingEventException;
+import com.rc.tracking.exception.ResourceNotFoundException;
+import com.rc.tracking.model.dto.TrackingEventRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Validação feita na thread da requisição, antes de o evento entrar no log de
+ * ingestão: id de pacote mal formado e pacote que certamente não existe são
+ * recusados ali mesmo, sem banco. O que passa ainda é conferido na gravação em
+ * lote (pacote expurgado, falso positivo do filtro, data anterior à criação).
+ */
+@Component
+public class TrackingEventValidator {
+
+    private final PackageExistenceFilter packageExistenceFilter;
+
+    private final Counter invalidIds;
+    private final Counter unknownPackages;
+
+    public TrackingEventValidator(PackageExistenceFilter packageExistenceFilter, MeterRegistry meterRegistry) {
+        this.packageExistenceFilter = packageExistenceFilter;
+        this.invalidIds = Counter.builder("tracking.ingestion.prevalidation.rejected").tag("reason", "invalid_id").register(meterRegistry);
+        this.unknownPackages = Counter.builder("tracking.ingestion.prevalidation.rejected").tag("reason", "unknown_package").register(meterRegistry);
+    }
+
+    public void validate(TrackingEventRequest request) {
+        long packageId = TrackingEventService.parsePackageId(request.packageId());
+        if (packageId < 0) {
+            invalidIds.increment();
+            throw new InvalidTrackingEventException("Invalid packageId format");
+        }
+        if (!packageExistenceFilter.mightExist(packageId)) {
+            unknownPackages.increment();
+            throw new ResourceNotFoundException("Package not found with id: " + packageId);
+        }
+    }
+}
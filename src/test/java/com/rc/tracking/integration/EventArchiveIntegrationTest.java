@@ -0,0 +1,126 @@
+package com.rc.tracking.integration;
+
+import com.rc.tracking.model.entity.EventArchiveSegment;
+import com.rc.tracking.model.entity.PackageEntity;
+import com.rc.tracking.model.entity.TrackingEvent;
+import com.rc.tracking.model.enums.StatusEnum;
+import com.rc.tracking.repository.EventArchiveSegmentRepository;
+import com.rc.tracking.repository.PackageRepository;
+import com.rc.tracking.repository.TrackingEventRepository;
+import com.rc.tracking.service.EventArchiveService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "tracking.archive.chunk-size=1")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class EventArchiveIntegrationTest {
+
+    @TempDir
+    private static Path archiveDirectory;
+
+    @DynamicPropertySource
+    static void archiveProperties(DynamicPropertyRegistry registry) {
+        registry.add("tracking.archive.directory", archiveDirectory::toString);
+    }
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2025, 6, 1, 0, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EventArchiveService eventArchiveService;
+
+    @Autowired
+    private PackageRepository packageRepository;
+
+    @Autowired
+    private TrackingEventRepository trackingEventRepository;
+
+    @Autowired
+    private EventArchiveSegmentRepository eventArchiveSegmentRepository;
+
+    @Test
+    public void testArchivesFinishedPackagesAndMergesTheirHistoryOnRead() throws Exception {
+        Long delivered = createPackage(StatusEnum.DELIVERED, CUTOFF.minusMonths(2), 3);
+        Long cancelled = createPackage(StatusEnum.CANCELLED, CUTOFF.minusMonths(1), 1);
+        Long inTransit = createPackage(StatusEnum.IN_TRANSIT, CUTOFF.minusMonths(2), 2);
+        Long recent = createPackage(StatusEnum.DELIVERED, CUTOFF.plusDays(1), 2);
+
+        eventArchiveService.archiveFinishedBefore(CUTOFF);
+
+        assertEquals(0, countEventsOf(delivered));
+        assertEquals(0, countEventsOf(cancelled));
+        assertEquals(2, countEventsOf(inTransit));
+        assertEquals(2, countEventsOf(recent));
+        List<EventArchiveSegment> segments = eventArchiveSegmentRepository.findByPackageIdOrderById(delivered);
+        assertEquals(1, segments.size());
+        assertEquals("events-2025-03.ndjson.gz", segments.get(0).getFileName());
+        assertEquals(3, segments.get(0).getEventCount());
+
+        mockMvc.perform(get("/api/packages/" + delivered))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events.length()").value(0));
+        mockMvc.perform(get("/api/packages/" + delivered).param("includeArchived", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events.length()").value(3))
+                .andExpect(jsonPath("$.events[0].location").value("Hub 2"));
+        mockMvc.perform(get("/api/packages/" + delivered + "/events")
+                        .param("includeArchived", "true")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[1].location").value("Hub 1"))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty());
+
+        assertEquals(0, eventArchiveService.archiveFinishedBefore(CUTOFF));
+    }
+
+    private Long createPackage(StatusEnum status, LocalDateTime updatedAt, int events) {
+        PackageEntity packageEntity = packageRepository.save(PackageEntity.builder()
+                .description("Archive package")
+                .sender("Sender A")
+                .recipient("Recipient A")
+                .estimatedDeliveryDate(LocalDate.of(2025, 3, 1))
+                .status(status)
+                .createdAt(updatedAt.minusDays(10))
+                .updatedAt(updatedAt)
+                .build());
+        List<TrackingEvent> trackingEvents = new ArrayList<>();
+        for (int i = 0; i < events; i++) {
+            trackingEvents.add(TrackingEvent.builder()
+                    .location("Hub " + i)
+                    .description("Scan " + i)
+                    .dateTime(updatedAt.minusDays(events - i))
+                    .packageEntity(packageEntity)
+                    .build());
+        }
+        trackingEventRepository.saveAll(trackingEvents);
+        return packageEntity.getId();
+    }
+
+    private long countEventsOf(Long packageId) {
+        return trackingEventRepository.findAll().stream()
+                .filter(event -> event.getPackageEntity().getId().equals(packageId))
+                .count();
+    }
+}
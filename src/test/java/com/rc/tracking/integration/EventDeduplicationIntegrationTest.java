@@ -0,0 +1,103 @@
+package com.rc.tracking.integration;
+
+import com.rc.tracking.model.dto.TrackingEventRequest;
+import com.rc.tracking.model.entity.PackageEntity;
+import com.rc.tracking.model.entity.TrackingEvent;
+import com.rc.tracking.model.enums.StatusEnum;
+import com.rc.tracking.repository.PackageRepository;
+import com.rc.tracking.repository.TrackingEventRepository;
+import com.rc.tracking.service.EventDeduplicator;
+import com.rc.tracking.service.TrackingEventService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Reenvio de um evento cuja chave já está em tracking_events, mas não na
+ * memória do {@link EventDeduplicator} (gravado por fora dele, como acontece
+ * depois que a chave sai do LRU e do Bloom).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class EventDeduplicationIntegrationTest {
+
+    @Autowired
+    private PackageRepository packageRepository;
+
+    @Autowired
+    private TrackingEventRepository trackingEventRepository;
+
+    @Autowired
+    private TrackingEventService trackingEventService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testRetryOfForgottenKeyIsIgnoredInBatchAndSingleEventPaths() {
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(2);
+        PackageEntity packageEntity = packageRepository.save(PackageEntity.builder()
+                .description("Dedup package")
+                .sender("Sender D")
+                .recipient("Recipient D")
+                .estimatedDeliveryDate(LocalDate.now().plusDays(1))
+                .status(StatusEnum.IN_TRANSIT)
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .build());
+        String packageId = "packageEntity-" + packageEntity.getId();
+        TrackingEventRequest stored = new TrackingEventRequest(packageId, "Hub", "Package left hub",
+                createdAt.plusHours(1), "carrier-scan-1");
+        TrackingEventRequest storedToo = new TrackingEventRequest(packageId, "Gateway", "Package left gateway",
+                createdAt.plusHours(3), "carrier-scan-2");
+        TrackingEventRequest fresh = new TrackingEventRequest(packageId, "Depot", "Package reached depot",
+                createdAt.plusHours(2));
+        String storedKey = store(packageEntity, stored);
+        String storedTooKey = store(packageEntity, storedToo);
+        double before = databaseDuplicates();
+
+        Map<Integer, String> rejected = trackingEventService.processBatch(List.of(stored, fresh));
+        trackingEventService.processTrackingEvent(new TrackingEventRequest(packageId, "Gateway (resent)",
+                "Package left gateway", createdAt.plusHours(3), storedToo.eventId()));
+
+        assertEquals(Map.of(), rejected);
+        assertEquals(1, countByKey(storedKey));
+        assertEquals(1, countByKey(storedTooKey));
+        assertEquals(1, countByKey(EventDeduplicator.keyOf(packageEntity.getId(), fresh)));
+        assertEquals(2.0, databaseDuplicates() - before);
+    }
+
+    private String store(PackageEntity packageEntity, TrackingEventRequest request) {
+        String eventKey = EventDeduplicator.keyOf(packageEntity.getId(), request);
+        trackingEventRepository.save(TrackingEvent.builder()
+                .location(request.location())
+                .description(request.description())
+                .dateTime(request.date())
+                .packageEntity(packageEntity)
+                .eventKey(eventKey)
+                .build());
+        return eventKey;
+    }
+
+    private int countByKey(String eventKey) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tracking_events WHERE event_key = ?",
+                Integer.class, eventKey);
+    }
+
+    private double databaseDuplicates() {
+        return meterRegistry.counter("tracking.ingestion.duplicates", "source", "database").count();
+    }
+}
@@ -0,0 +1,66 @@
+package com.rc.tracking.integration;
+
+import com.rc.tracking.model.entity.PackageEntity;
+import com.rc.tracking.model.entity.TrackingEvent;
+import com.rc.tracking.model.enums.StatusEnum;
+import com.rc.tracking.repository.PackageRepository;
+import com.rc.tracking.repository.TrackingEventRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class InsertBatchingIntegrationTest {
+
+    @Autowired
+    private PackageRepository packageRepository;
+
+    @Autowired
+    private TrackingEventRepository trackingEventRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void testEventInsertsAreBatchedWithSnowflakeIds() {
+        PackageEntity packageEntity = packageRepository.save(PackageEntity.builder()
+                .description("Batch package")
+                .sender("Sender B")
+                .recipient("Recipient B")
+                .estimatedDeliveryDate(LocalDate.now())
+                .status(StatusEnum.IN_TRANSIT)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build());
+        List<TrackingEvent> events = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            events.add(TrackingEvent.builder()
+                    .location("Hub " + i)
+                    .description("Scan " + i)
+                    .dateTime(LocalDateTime.now())
+                    .packageEntity(packageEntity)
+                    .build());
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<TrackingEvent> saved = trackingEventRepository.saveAll(events);
+
+        assertEquals(20, statistics.getEntityInsertCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(saved.get(19).getId() > saved.get(0).getId());
+    }
+}
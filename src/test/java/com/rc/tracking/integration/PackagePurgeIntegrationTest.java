@@ -0,0 +1,124 @@
+package com.rc.tracking.integration;
+
+import com.rc.tracking.model.entity.PackageEntity;
+import com.rc.tracking.model.entity.PurgeCheckpoint;
+import com.rc.tracking.model.entity.TrackingEvent;
+import com.rc.tracking.model.enums.StatusEnum;
+import com.rc.tracking.repository.PackageRepository;
+import com.rc.tracking.repository.PurgeCheckpointRepository;
+import com.rc.tracking.repository.TrackingEventRepository;
+import com.rc.tracking.service.PackagePurgeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"tracking.purge.chunk-size=2", "tracking.purge.pause=0ms"})
+@ActiveProfiles("test")
+public class PackagePurgeIntegrationTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2024, 6, 1, 0, 0);
+
+    @Autowired
+    private PackagePurgeService packagePurgeService;
+
+    @Autowired
+    private PackageRepository packageRepository;
+
+    @Autowired
+    private TrackingEventRepository trackingEventRepository;
+
+    @Autowired
+    private PurgeCheckpointRepository purgeCheckpointRepository;
+
+    @BeforeEach
+    public void setup() {
+        purgeCheckpointRepository.deleteAll();
+    }
+
+    @Test
+    public void testPurgesDeliveredPackagesInChunksAndKeepsTheRest() {
+        List<Long> old = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            old.add(createPackage(CUTOFF.minusMonths(1).plusDays(i)));
+        }
+        Long recent = createPackage(CUTOFF.plusDays(1));
+        Long undelivered = createPackage(null);
+
+        long purged = packagePurgeService.purgeDeliveredBefore(CUTOFF);
+
+        assertEquals(5, purged);
+        old.forEach(id -> assertFalse(packageRepository.existsById(id)));
+        assertTrue(packageRepository.existsById(recent));
+        assertTrue(packageRepository.existsById(undelivered));
+        assertEquals(0, countEventsOf(old));
+        assertEquals(2, countEventsOf(List.of(recent, undelivered)));
+
+        PurgeCheckpoint checkpoint = purgeCheckpointRepository.findById("packages").orElseThrow();
+        assertNotNull(checkpoint.getCompletedAt());
+        assertEquals(5, checkpoint.getPurgedPackages());
+    }
+
+    @Test
+    public void testResumesUnfinishedRunWithItsOriginalCutoff() {
+        Long first = createPackage(CUTOFF.minusDays(10));
+        Long second = createPackage(CUTOFF.minusDays(5));
+        purgeCheckpointRepository.save(PurgeCheckpoint.builder()
+                .job("packages")
+                .cutoff(CUTOFF.minusDays(7))
+                .lastId(first)
+                .purgedPackages(1L)
+                .startedAt(LocalDateTime.now().minusHours(1))
+                .build());
+
+        packagePurgeService.purgeDeliveredBefore(CUTOFF);
+
+        // o corte retomado (CUTOFF - 7d) não alcança o segundo pacote e o primeiro já estava antes do lastId
+        assertTrue(packageRepository.existsById(first));
+        assertTrue(packageRepository.existsById(second));
+        assertNotNull(purgeCheckpointRepository.findById("packages").orElseThrow().getCompletedAt());
+
+        packagePurgeService.purgeDeliveredBefore(CUTOFF);
+
+        assertFalse(packageRepository.existsById(first));
+        assertFalse(packageRepository.existsById(second));
+    }
+
+    private long countEventsOf(List<Long> packageIds) {
+        return trackingEventRepository.findAll().stream()
+                .filter(event -> packageIds.contains(event.getPackageEntity().getId()))
+                .count();
+    }
+
+    private Long createPackage(LocalDateTime deliveredAt) {
+        LocalDateTime createdAt = (deliveredAt != null ? deliveredAt : CUTOFF).minusDays(3);
+        PackageEntity packageEntity = packageRepository.save(PackageEntity.builder()
+                .description("Purge test")
+                .sender("Sender P")
+                .recipient("Recipient P")
+                .estimatedDeliveryDate(LocalDate.from(createdAt.plusDays(2)))
+                .status(deliveredAt != null ? StatusEnum.DELIVERED : StatusEnum.IN_TRANSIT)
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .deliveredAt(deliveredAt)
+                .build());
+        trackingEventRepository.save(TrackingEvent.builder()
+                .location("Hub")
+                .description("Scan")
+                .dateTime(createdAt.plusHours(1))
+                .packageEntity(packageEntity)
+                .build());
+        return packageEntity.getId();
+    }
+}
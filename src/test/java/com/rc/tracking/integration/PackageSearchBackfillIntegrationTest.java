@@ -0,0 +1,72 @@
+package com.rc.tracking.integration;
+
+import com.rc.tracking.model.entity.PackageEntity;
+import com.rc.tracking.model.enums.StatusEnum;
+import com.rc.tracking.repository.PackageRepository;
+import com.rc.tracking.service.PackageSearchIndexer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pacotes gravados sem passar pelo índice de trigramas, como os que existiam
+ * antes dele, são indexados pelo backfill uma única vez, e uma nova execução
+ * não volta a eles, nem aos que ficaram sem trigramas por serem curtos demais.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class PackageSearchBackfillIntegrationTest {
+
+    @Autowired
+    private PackageRepository packageRepository;
+
+    @Autowired
+    private PackageSearchIndexer packageSearchIndexer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testBackfillIndexesOnlyPackagesWithoutNgrams() {
+        Long first = saveUnindexed("Legacy Sender One", "Legacy Recipient");
+        Long second = saveUnindexed("Legacy Sender Two", "Legacy Recipient");
+        Long tooShort = saveUnindexed("AB", "CD");
+
+        long indexed = packageSearchIndexer.backfill();
+        int rowsAfterFirstRun = countNgrams(first);
+        long indexedAgain = packageSearchIndexer.backfill();
+
+        assertTrue(indexed >= 3);
+        assertTrue(rowsAfterFirstRun > 0);
+        assertTrue(countNgrams(second) > 0);
+        assertEquals(0, countNgrams(tooShort));
+        assertEquals(0, indexedAgain);
+        assertEquals(rowsAfterFirstRun, countNgrams(first));
+    }
+
+    private Long saveUnindexed(String sender, String recipient) {
+        LocalDateTime createdAt = LocalDateTime.now();
+        return packageRepository.save(PackageEntity.builder()
+                .description("Legacy package")
+                .sender(sender)
+                .recipient(recipient)
+                .estimatedDeliveryDate(LocalDate.now().plusDays(2))
+                .status(StatusEnum.CREATED)
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .build()).getId();
+    }
+
+    private int countNgrams(Long packageId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM package_search_ngrams WHERE package_id = ?",
+                Integer.class, packageId);
+    }
+}
@@ -0,0 +1,49 @@
+package com.rc.tracking.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+public class PrometheusEndpointIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testPrometheusScrapeExposesServiceAndExecutorMetrics() throws Exception {
+        mockMvc.perform(post("/api/packages")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "description": "Metrics package",
+                                    "sender": "Sender M",
+                                    "recipient": "Recipient M",
+                                    "estimatedDeliveryDate": "2030-01-15"
+                                }
+                                """))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("tracking_service_seconds_bucket{")))
+                .andExpect(content().string(containsString("method=\"createPackage\"")))
+                .andExpect(content().string(containsString("executor_queued_tasks{application=\"tracking\",name=\"enrichmentExecutor\"")))
+                .andExpect(content().string(containsString("tracking_executor_queue_wait_seconds_count{application=\"tracking\",name=\"enrichmentExecutor\"")))
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")));
+    }
+}
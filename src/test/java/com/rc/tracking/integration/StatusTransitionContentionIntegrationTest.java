@@ -0,0 +1,121 @@
+package com.rc.tracking.integration;
+
+import com.rc.tracking.exception.StatusConflictException;
+import com.rc.tracking.model.dto.TrackingEventRequest;
+import com.rc.tracking.model.entity.PackageEntity;
+import com.rc.tracking.model.enums.StatusEnum;
+import com.rc.tracking.repository.PackageRepository;
+import com.rc.tracking.service.PackageService;
+import com.rc.tracking.service.TrackingEventService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class StatusTransitionContentionIntegrationTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private PackageService packageService;
+
+    @Autowired
+    private TrackingEventService trackingEventService;
+
+    @Autowired
+    private PackageRepository packageRepository;
+
+    @Test
+    public void testConcurrentTransitionsHaveExactlyOneWinner() throws Exception {
+        Long packageId = createPackage();
+
+        List<Object> outcomes = race(() -> packageService.updateStatus(packageId, StatusEnum.IN_TRANSIT));
+
+        assertEquals(1, outcomes.stream().filter(outcome -> !(outcome instanceof Throwable)).count());
+        assertEquals(THREADS - 1, outcomes.stream().filter(StatusConflictException.class::isInstance).count());
+        assertEquals(StatusEnum.IN_TRANSIT, packageRepository.findById(packageId).orElseThrow().getStatus());
+    }
+
+    @Test
+    public void testTrackingEventsDoNotOverwriteAConcurrentStatusChange() throws Exception {
+        Long packageId = createPackage();
+        packageService.updateStatus(packageId, StatusEnum.IN_TRANSIT);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int hub = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                trackingEventService.processBatch(List.of(new TrackingEventRequest("packageEntity-" + packageId,
+                        "Hub " + hub, "Scan " + hub, LocalDateTime.now())));
+                return null;
+            }));
+        }
+        futures.add(executor.submit(() -> {
+            start.await();
+            return packageService.updateStatus(packageId, StatusEnum.DELIVERED);
+        }));
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        PackageEntity packageEntity = packageRepository.findById(packageId).orElseThrow();
+        assertEquals(StatusEnum.DELIVERED, packageEntity.getStatus());
+        assertNotNull(packageEntity.getDeliveredAt());
+    }
+
+    private List<Object> race(Callable<Object> action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    return action.call();
+                } catch (RuntimeException ex) {
+                    return ex;
+                }
+            }));
+        }
+        start.countDown();
+        List<Object> outcomes = new ArrayList<>();
+        for (Future<Object> future : futures) {
+            outcomes.add(future.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        return outcomes;
+    }
+
+    private Long createPackage() {
+        return packageRepository.save(PackageEntity.builder()
+                .description("Contention package")
+                .sender("Sender C")
+                .recipient("Recipient C")
+                .estimatedDeliveryDate(LocalDate.now().plusDays(2))
+                .status(StatusEnum.CREATED)
+                .createdAt(LocalDateTime.now().minusHours(1))
+                .updatedAt(LocalDateTime.now().minusHours(1))
+                .build()).getId();
+    }
+}
@@ -0,0 +1,23 @@
+package com.rc.tracking.integration;
+
+import com.rc.tracking.config.ConcurrencyLimitFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+@ActiveProfiles("test")
+public class VirtualThreadModeIntegrationTest {
+
+    @Autowired
+    private FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter;
+
+    @Test
+    public void testRequestsAreThrottledInVirtualMode() {
+        assertTrue(concurrencyLimitFilter.isEnabled());
+    }
+}
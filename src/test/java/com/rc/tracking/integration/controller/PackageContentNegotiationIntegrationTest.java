@@ -0,0 +1,141 @@
+package com.rc.tracking.integration.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.rc.tracking.model.entity.PackageEntity;
+import com.rc.tracking.model.entity.TrackingEvent;
+import com.rc.tracking.model.enums.StatusEnum;
+import com.rc.tracking.repository.PackageRepository;
+import com.rc.tracking.repository.TrackingEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class PackageContentNegotiationIntegrationTest {
+
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PackageRepository packageRepository;
+
+    @Autowired
+    private TrackingEventRepository trackingEventRepository;
+
+    @LocalServerPort
+    private int port;
+
+    private Long packageId;
+
+    @BeforeEach
+    public void setUp() {
+        packageId = createPackage(60);
+    }
+
+    @Test
+    public void testJsonIsTheDefaultRepresentation() throws Exception {
+        mockMvc.perform(get("/api/packages/{id}", packageId))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void testDetailsCanBeRequestedAsCborAndSmile() throws Exception {
+        MockHttpServletResponse json = fetch(MediaType.APPLICATION_JSON);
+        MockHttpServletResponse cbor = fetch(MediaType.APPLICATION_CBOR);
+        MockHttpServletResponse smile = fetch(SMILE);
+
+        JsonNode expected = objectMapper.readTree(json.getContentAsByteArray());
+        assertEquals(expected, new CBORMapper().readTree(cbor.getContentAsByteArray()));
+        assertEquals(expected, new SmileMapper().readTree(smile.getContentAsByteArray()));
+        assertTrue(cbor.getContentAsByteArray().length < json.getContentAsByteArray().length);
+        assertTrue(smile.getContentAsByteArray().length < json.getContentAsByteArray().length);
+        assertNotEquals(json.getHeader("ETag"), cbor.getHeader("ETag"));
+        assertNotEquals(cbor.getHeader("ETag"), smile.getHeader("ETag"));
+    }
+
+    @Test
+    public void testLargeResponsesAreGzipped() throws Exception {
+        HttpResponse<InputStream> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:" + port + "/api/packages/" + packageId + "/events?size=60"))
+                        .header("Accept", MediaType.APPLICATION_JSON_VALUE)
+                        .header("Accept-Encoding", "gzip")
+                        .build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        try (InputStream body = new GZIPInputStream(response.body())) {
+            assertEquals(60, objectMapper.readTree(body).get("items").size());
+        }
+    }
+
+    private MockHttpServletResponse fetch(MediaType mediaType) throws Exception {
+        return mockMvc.perform(get("/api/packages/{id}", packageId).accept(mediaType))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andExpect(header().string("Vary", containsString("Accept")))
+                .andReturn().getResponse();
+    }
+
+    private Long createPackage(int events) {
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(1);
+        PackageEntity packageEntity = packageRepository.save(PackageEntity.builder()
+                .description("Negotiated package")
+                .sender("Sender N")
+                .recipient("Recipient N")
+                .estimatedDeliveryDate(LocalDate.now().plusDays(3))
+                .status(StatusEnum.IN_TRANSIT)
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .build());
+        List<TrackingEvent> trackingEvents = new ArrayList<>();
+        for (int i = 0; i < events; i++) {
+            trackingEvents.add(TrackingEvent.builder()
+                    .location("Hub " + i)
+                    .description("Arrived at hub " + i)
+                    .dateTime(createdAt.plusMinutes(i))
+                    .packageEntity(packageEntity)
+                    .build());
+        }
+        trackingEventRepository.saveAll(trackingEvents);
+        return packageEntity.getId();
+    }
+}
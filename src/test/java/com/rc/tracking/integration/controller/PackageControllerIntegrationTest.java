@@ -1,5 +1,11 @@
 package com.rc.tracking.integration.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rc.tracking.model.entity.PackageEntity;
+import com.rc.tracking.model.entity.TrackingEvent;
+import com.rc.tracking.model.enums.StatusEnum;
+import com.rc.tracking.repository.PackageRepository;
+import com.rc.tracking.repository.TrackingEventRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -7,9 +13,23 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -20,6 +40,15 @@ public class PackageControllerIntegrationTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PackageRepository packageRepository;
+
+    @Autowired
+    private TrackingEventRepository trackingEventRepository;
+
     @Test
     public void testCreatePackageEndpoint() throws Exception {
         String jsonRequest = """
@@ -38,20 +67,227 @@ public class PackageControllerIntegrationTest {
                 .andExpect(header().exists("Location"));
     }
 
+    @Test
+    public void testBulkCreateReportsEachNdjsonRowIndependently() throws Exception {
+        String ndjson = """
+                {"description": "Bulk 1", "sender": "Bulk Sender", "recipient": "R1", "estimatedDeliveryDate": "2025-12-25"}
+                {"description": "Bulk 2", "sender": "", "recipient": "R2", "estimatedDeliveryDate": "2025-12-25"}
+                {"description": "Bulk 3", "sender": "Bulk Sender", "recipient": "R3", "estimatedDeliveryDate": "not a date"}
+                {"description": "Bulk 4", "sender": "Bulk Sender", "recipient": "R4", "estimatedDeliveryDate": "2025-12-26"}
+                """;
+
+        String[] lines = bulkCreate("application/x-ndjson", ndjson);
+
+        assertEquals(4, lines.length);
+        assertEquals(true, objectMapper.readTree(lines[0]).get("created").asBoolean());
+        assertEquals("sender must not be blank", objectMapper.readTree(lines[1]).get("errors").get(0).asText());
+        assertEquals(false, objectMapper.readTree(lines[2]).get("created").asBoolean());
+        assertEquals(4, objectMapper.readTree(lines[3]).get("row").asLong());
+        String id = objectMapper.readTree(lines[3]).get("id").asText();
+        mockMvc.perform(get("/api/packages/" + id.substring("packageEntity-".length())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recipient").value("R4"));
+        mockMvc.perform(get("/api/packages").param("sender", "bulk sender"))
+                .andExpect(jsonPath("$.items.length()").value(2));
+    }
+
+    @Test
+    public void testBulkCreateAcceptsJsonArray() throws Exception {
+        String array = """
+                [{"description": "Array 1", "sender": "Array Sender", "recipient": "A1", "estimatedDeliveryDate": "2025-11-01"},
+                 {"description": "Array 2", "sender": "Array Sender", "recipient": "A2", "estimatedDeliveryDate": "2025-11-01"}]
+                """;
+
+        String[] lines = bulkCreate(MediaType.APPLICATION_JSON_VALUE, array);
+
+        assertEquals(2, lines.length);
+        assertEquals(true, objectMapper.readTree(lines[1]).get("created").asBoolean());
+    }
+
+    private String[] bulkCreate(String contentType, String body) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/packages/bulk")
+                        .contentType(contentType)
+                        .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString().split("\n");
+    }
+
     @Test
     public void testTrackingEventEndpointAsync() throws Exception {
+        String location = createPackage("Tracking Sender", "Tracking Recipient");
+        String packageId = location.substring(location.lastIndexOf('/') + 1);
         String jsonRequest = """
                 {
-                    "packageId": "packageEntity-1",
+                    "packageId": "packageEntity-%s",
                     "location": "Warehouse",
                     "description": "Package reached warehouse",
-                    "date": "2025-10-10T12:00:00"
+                    "date": "%s"
                 }
-                """;
+                """.formatted(packageId, LocalDateTime.now().plusMinutes(1));
 
         mockMvc.perform(post("/api/tracking-events")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(jsonRequest))
                 .andExpect(status().isAccepted());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testListPackagesIsPaginatedByCursor() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            createPackage("Cursor Sender", "Recipient " + i);
+        }
+
+        String firstPage = mockMvc.perform(get("/api/packages")
+                        .param("sender", "cursor sender")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/packages")
+                        .param("sender", "cursor sender")
+                        .param("size", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].recipient").value("Recipient 2"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    public void testListPackagesRejectsMalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/packages").param("cursor", "packageEntity-abc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testStreamPackagesWritesOneJsonLinePerPackage() throws Exception {
+        createPackage("Stream Sender", "Recipient X");
+        createPackage("Stream Sender", "Recipient Y");
+
+        MvcResult result = mockMvc.perform(get("/api/packages/stream")
+                        .param("sender", "stream sender")
+                        .param("status", "CREATED"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Recipient X", objectMapper.readTree(lines[0]).get("recipient").asText());
+        assertEquals("Recipient Y", objectMapper.readTree(lines[1]).get("recipient").asText());
+    }
+
+    @Test
+    public void testPackageDetailsSupportConditionalGet() throws Exception {
+        String location = createPackage("ETag Sender", "ETag Recipient");
+        // o enriquecimento assíncrono avança o updatedAt, e com ele o ETag
+        awaitEnrichment(Long.valueOf(location.substring(location.lastIndexOf('/') + 1)));
+
+        String etag = mockMvc.perform(get(location))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get(location).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(put(location + "/status").param("status", "IN_TRANSIT"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(location).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("IN_TRANSIT"));
+    }
+
+    @Test
+    public void testBatchLookupReturnsItemsInRequestOrderWithLatestEventsPerPackage() throws Exception {
+        Long busy = createPackageWithEvents(25);
+        Long quiet = createPackageWithEvents(2);
+        String body = """
+                {"ids": ["packageEntity-%d", "packageEntity-999999999", "nope", "packageEntity-%d"]}
+                """.formatted(quiet, busy);
+
+        mockMvc.perform(post("/api/packages/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(4))
+                .andExpect(jsonPath("$.items[0].status").value("FOUND"))
+                .andExpect(jsonPath("$.items[0].details.id").value("packageEntity-" + quiet))
+                .andExpect(jsonPath("$.items[0].details.events.length()").value(2))
+                .andExpect(jsonPath("$.items[1].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$.items[1].details").doesNotExist())
+                .andExpect(jsonPath("$.items[2].status").value("INVALID_ID"))
+                .andExpect(jsonPath("$.items[3].id").value("packageEntity-" + busy))
+                .andExpect(jsonPath("$.items[3].details.events.length()").value(20))
+                .andExpect(jsonPath("$.items[3].details.events[0].location").value("Hub 24"));
+
+        mockMvc.perform(post("/api/packages/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void awaitEnrichment(Long packageId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (packageRepository.findById(packageId).orElseThrow().getFunFact() == null) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Package " + packageId + " was not enriched");
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private Long createPackageWithEvents(int events) {
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(1);
+        PackageEntity packageEntity = packageRepository.save(PackageEntity.builder()
+                .description("Batch package")
+                .sender("Batch Sender")
+                .recipient("Batch Recipient")
+                .estimatedDeliveryDate(LocalDate.now().plusDays(3))
+                .status(StatusEnum.IN_TRANSIT)
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .build());
+        List<TrackingEvent> trackingEvents = new ArrayList<>();
+        for (int i = 0; i < events; i++) {
+            trackingEvents.add(TrackingEvent.builder()
+                    .location("Hub " + i)
+                    .description("Arrived at hub " + i)
+                    .dateTime(createdAt.plusMinutes(i))
+                    .packageEntity(packageEntity)
+                    .build());
+        }
+        trackingEventRepository.saveAll(trackingEvents);
+        return packageEntity.getId();
+    }
+
+    private String createPackage(String sender, String recipient) throws Exception {
+        String jsonRequest = """
+                {
+                    "description": "Test Package",
+                    "sender": "%s",
+                    "recipient": "%s",
+                    "estimatedDeliveryDate": "2025-10-10"
+                }
+                """.formatted(sender, recipient);
+
+        String location = mockMvc.perform(post("/api/packages")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonRequest))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getHeader("Location");
+        return location.replace("packageEntity-", "");
+    }
+}
@@ -0,0 +1,173 @@
+package com.rc.tracking.integration.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rc.tracking.model.dto.TrackingEventRequest;
+import com.rc.tracking.model.entity.PackageEntity;
+import com.rc.tracking.model.entity.TrackingEvent;
+import com.rc.tracking.model.enums.StatusEnum;
+import com.rc.tracking.repository.PackageRepository;
+import com.rc.tracking.repository.TrackingEventRepository;
+import com.rc.tracking.service.TrackingEventService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// janela de touch longa: o updated_at dos pacotes não muda durante os testes
+@SpringBootTest(properties = "tracking.ingestion.touch-window-ms=3600000")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class PackageDetailsIntegrationTest {
+
+    private static final int EVENTS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PackageRepository packageRepository;
+
+    @Autowired
+    private TrackingEventRepository trackingEventRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TrackingEventService trackingEventService;
+
+    private Statistics statistics;
+    private Long packageId;
+    private LocalDateTime createdAt;
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        createdAt = LocalDateTime.now().withNano(0).minusDays(1);
+        PackageEntity packageEntity = packageRepository.save(PackageEntity.builder()
+                .description("Query count package")
+                .sender("Sender Q")
+                .recipient("Recipient Q")
+                .estimatedDeliveryDate(LocalDate.now().plusDays(3))
+                .status(StatusEnum.IN_TRANSIT)
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .build());
+        packageId = packageEntity.getId();
+
+        List<TrackingEvent> events = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            events.add(TrackingEvent.builder()
+                    .location("Hub " + i)
+                    .description("Arrived at hub " + i)
+                    .dateTime(createdAt.plusHours(i + 1))
+                    .packageEntity(packageEntity)
+                    .build());
+        }
+        trackingEventRepository.saveAll(events);
+    }
+
+    @Test
+    public void testDetailsWithEventsIssueTwoStatements() throws Exception {
+        statistics.clear();
+
+        mockMvc.perform(get("/api/packages/" + packageId).param("includeEvents", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events.length()").value(EVENTS))
+                .andExpect(jsonPath("$.events[0].location").value("Hub " + (EVENTS - 1)));
+
+        // pacote + eventos recentes, sem N+1 independente do tamanho do histórico
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testEventHistoryIsPaginatedByCursor() throws Exception {
+        String firstPage = mockMvc.perform(get("/api/packages/" + packageId + "/events").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(3))
+                .andExpect(jsonPath("$.items[0].location").value("Hub 4"))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/packages/" + packageId + "/events").param("size", "3").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].location").value("Hub 1"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    public void testEventHistoryLatestAndWindow() throws Exception {
+        mockMvc.perform(get("/api/packages/" + packageId + "/events").param("latest", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/api/packages/" + packageId + "/events")
+                        .param("since", createdAt.plusHours(2).toString())
+                        .param("until", createdAt.plusHours(4).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].location").value("Hub 2"));
+    }
+
+    @Test
+    public void testEventHistoryRejectsInvalidCursorAndUnknownPackage() throws Exception {
+        mockMvc.perform(get("/api/packages/" + packageId + "/events").param("cursor", "garbage"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/packages/999999/events"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testDetailsWithoutEventsDoNotTouchTrackingEvents() throws Exception {
+        statistics.clear();
+
+        mockMvc.perform(get("/api/packages/" + packageId).param("includeEvents", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events").doesNotExist());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionFetchCount());
+    }
+
+    @Test
+    public void testConditionalGetSeesNewEventsBeforeUpdatedAtIsTouched() throws Exception {
+        String etag = mockMvc.perform(get("/api/packages/" + packageId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        trackingEventService.processBatch(List.of(new TrackingEventRequest("packageEntity-" + packageId,
+                "Hub " + EVENTS, "Arrived at hub " + EVENTS, createdAt.plusHours(EVENTS + 1))));
+
+        mockMvc.perform(get("/api/packages/" + packageId).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events[0].location").value("Hub " + EVENTS));
+        String newEtag = mockMvc.perform(get("/api/packages/" + packageId))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/packages/" + packageId).header("If-None-Match", newEtag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", newEtag));
+    }
+}
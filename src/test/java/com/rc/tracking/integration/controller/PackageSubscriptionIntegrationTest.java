@@ -0,0 +1,135 @@
+package com.rc.tracking.integration.controller;
+
+import com.rc.tracking.model.entity.PackageEntity;
+import com.rc.tracking.model.enums.StatusEnum;
+import com.rc.tracking.repository.PackageRepository;
+import com.rc.tracking.service.PackageExistenceFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class PackageSubscriptionIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PackageRepository packageRepository;
+
+    @Autowired
+    private PackageExistenceFilter packageExistenceFilter;
+
+    @Test
+    public void testPackageSubscriberReceivesStatusChanges() throws Exception {
+        Long packageId = createPackage("Sender " + UUID.randomUUID());
+        MvcResult subscription = mockMvc.perform(get("/api/packages/{id}/subscribe", packageId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(put("/api/packages/{id}/status", packageId).param("status", "IN_TRANSIT"))
+                .andExpect(status().isOk());
+
+        awaitContent(subscription.getResponse(), "event:package", "\"status\":\"IN_TRANSIT\"");
+    }
+
+    @Test
+    public void testSenderSubscriberReceivesTrackingEvents() throws Exception {
+        String sender = "Sender " + UUID.randomUUID();
+        Long packageId = createPackage(sender);
+        MvcResult subscription = mockMvc.perform(get("/api/packages/senders/{sender}/subscribe", sender))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(post("/api/tracking-events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "packageId": "packageEntity-%d",
+                                    "location": "Sorting center",
+                                    "description": "Package sorted",
+                                    "date": "%s"
+                                }
+                                """.formatted(packageId, LocalDateTime.now().withNano(0))))
+                .andExpect(status().isAccepted());
+
+        awaitContent(subscription.getResponse(), "event:event", "\"location\":\"Sorting center\"");
+    }
+
+    @Test
+    public void testSenderSubscriberReceivesBulkCreatedPackages() throws Exception {
+        String sender = "Sender " + UUID.randomUUID();
+        MvcResult subscription = mockMvc.perform(get("/api/packages/senders/{sender}/subscribe", sender))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult bulk = mockMvc.perform(post("/api/packages/bulk")
+                        .contentType("application/x-ndjson")
+                        .content("""
+                                {"description": "Bulk", "sender": "%s", "recipient": "Bulk Recipient", "estimatedDeliveryDate": "2025-12-25"}
+                                """.formatted(sender)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(bulk)).andExpect(status().isOk());
+
+        awaitContent(subscription.getResponse(), "event:package", "\"recipient\":\"Bulk Recipient\"");
+    }
+
+    @Test
+    public void testSubscribingToUnknownPackageReturnsNotFound() throws Exception {
+        mockMvc.perform(get("/api/packages/{id}/subscribe", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+
+    private Long createPackage(String sender) {
+        LocalDateTime createdAt = LocalDateTime.now().minusHours(1);
+        Long packageId = packageRepository.save(PackageEntity.builder()
+                .description("Subscribed package")
+                .sender(sender)
+                .recipient("Recipient S")
+                .estimatedDeliveryDate(LocalDate.now().plusDays(3))
+                .status(StatusEnum.CREATED)
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .build()).getId();
+        packageExistenceFilter.add(List.of(packageId));
+        return packageId;
+    }
+
+    private void awaitContent(MockHttpServletResponse response, String... fragments) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            String content = response.getContentAsString();
+            boolean complete = true;
+            for (String fragment : fragments) {
+                complete &= content.contains(fragment);
+            }
+            if (complete) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        fail("Subscription did not receive the update, got: " + response.getContentAsString());
+    }
+}
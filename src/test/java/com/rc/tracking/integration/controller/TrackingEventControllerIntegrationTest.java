@@ -1,6 +1,9 @@
 package com.rc.tracking.integration.controller;
 
+import com.jayway.jsonpath.JsonPath;
 import com.rc.tracking.TrackingApplication;
+import com.rc.tracking.model.dto.PackageRequest;
+import com.rc.tracking.service.PackageService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -9,7 +12,15 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(classes = TrackingApplication.class)
@@ -20,21 +31,65 @@ public class TrackingEventControllerIntegrationTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private PackageService packageService;
+
     @Test
     public void whenValidTrackingEvent_thenReturnsAccepted() throws Exception {
-        String trackingEventJson = """
-                {
-                    "packageId": "packageEntity-1",
-                    "location": "Warehouse",
-                    "description": "Package reached warehouse",
-                    "date": "2025-10-10T12:00:00"
-                }
-                """;
+        mockMvc.perform(post("/api/tracking-events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(trackingEventJson(createPackage(), LocalDateTime.now().plusMinutes(1))))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.token").exists())
+                .andExpect(header().exists("Location"));
+    }
 
+    @Test
+    public void whenPackageDoesNotExist_thenReturnsNotFoundSynchronously() throws Exception {
         mockMvc.perform(post("/api/tracking-events")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(trackingEventJson))
-                .andExpect(status().isAccepted());
+                        .content(trackingEventJson("packageEntity-987654321", LocalDateTime.now())))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Package not found with id: 987654321"));
+    }
+
+    @Test
+    public void whenPackageIdIsMalformed_thenReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/tracking-events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(trackingEventJson("packageEntity-12ab", LocalDateTime.now())))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid packageId format"));
+    }
+
+    @Test
+    public void whenEventPredatesPackage_thenEventIsRejectedAndCanBeReplayed() throws Exception {
+        String receipt = mockMvc.perform(post("/api/tracking-events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(trackingEventJson(createPackage(), LocalDateTime.now().minusDays(1))))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        String token = JsonPath.read(receipt, "$.token");
+
+        awaitOutcome(token, "REJECTED");
+        mockMvc.perform(get("/api/tracking-events/{token}", token))
+                .andExpect(jsonPath("$.reason").value("Event date cannot be before package creation date"));
+        mockMvc.perform(get("/api/tracking-events/dead-letters").param("size", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].token", hasItem(token)))
+                .andExpect(jsonPath("$.items[0].id").isString());
+
+        String replay = mockMvc.perform(post("/api/tracking-events/dead-letters/replay"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String replayedToken = JsonPath.read(replay, "$.tokens[0]");
+        awaitOutcome(replayedToken, "REJECTED");
+    }
+
+    @Test
+    public void whenTokenIsUnknown_thenReturnsNotFound() throws Exception {
+        mockMvc.perform(get("/api/tracking-events/{token}", 42))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -53,4 +108,34 @@ public class TrackingEventControllerIntegrationTest {
                         .content(invalidJson))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    private String createPackage() {
+        return packageService.createPackage(
+                new PackageRequest("Tracked package", "Sender T", "Recipient T", LocalDate.now().plusDays(3))).id();
+    }
+
+    private static String trackingEventJson(String packageId, LocalDateTime date) {
+        return """
+                {
+                    "packageId": "%s",
+                    "location": "Warehouse",
+                    "description": "Package reached warehouse",
+                    "date": "%s"
+                }
+                """.formatted(packageId, date);
+    }
+
+    private void awaitOutcome(String token, String outcome) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = "";
+        while (System.currentTimeMillis() < deadline) {
+            content = mockMvc.perform(get("/api/tracking-events/{token}", token))
+                    .andReturn().getResponse().getContentAsString();
+            if (content.contains("\"outcome\":\"" + outcome + "\"")) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        fail("Tracking event " + token + " did not reach " + outcome + ", got: " + content);
+    }
+}
@@ -0,0 +1,102 @@
+package com.rc.tracking.load;
+
+import com.rc.tracking.model.entity.PackageEntity;
+import com.rc.tracking.model.entity.TrackingEvent;
+import com.rc.tracking.model.enums.StatusEnum;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Mede a vazão de INSERTs de eventos pelo Hibernate com um round-trip por
+ * linha (batch size 1, o que o IDENTITY forçava) e com o batch configurado em
+ * {@code hibernate.jdbc.batch_size}, agora possível com ids Snowflake. Roda
+ * contra o MySQL do perfil "load", por exemplo:
+ * {@code ./gradlew test --tests '*InsertBatchingBenchmarkTest' -Dbenchmark.inserts.rows=100000}
+ */
+@SpringBootTest
+@ActiveProfiles("load")
+@EnabledIfSystemProperty(named = "benchmark.inserts.rows", matches = "\\d+")
+public class InsertBatchingBenchmarkTest {
+
+    private static final int FLUSH_EVERY = 1_000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void compareRowByRowAndBatchedInserts() {
+        int rows = Integer.getInteger("benchmark.inserts.rows");
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Long packageId = transactionTemplate.execute(status -> {
+            PackageEntity packageEntity = PackageEntity.builder()
+                    .description("Insert benchmark")
+                    .sender("Benchmark")
+                    .recipient("Benchmark")
+                    .status(StatusEnum.IN_TRANSIT)
+                    .estimatedDeliveryDate(LocalDate.now())
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .build();
+            entityManager.persist(packageEntity);
+            return packageEntity.getId();
+        });
+
+        insert(transactionTemplate, packageId, Math.min(rows, 5_000), 1);
+        double rowByRow = insert(transactionTemplate, packageId, rows, 1);
+        double batched = insert(transactionTemplate, packageId, rows, null);
+
+        System.out.printf("%n%-22s %14s%n", "mode (" + rows + " rows)", "rows/s");
+        System.out.printf("%-22s %14.0f%n", "row by row (IDENTITY)", rowByRow);
+        System.out.printf("%-22s %14.0f%n", "batched (Snowflake)", batched);
+
+        jdbcTemplate.update("DELETE FROM tracking_events WHERE package_id = ?", packageId);
+        jdbcTemplate.update("DELETE FROM packages WHERE id = ?", packageId);
+    }
+
+    private double insert(TransactionTemplate transactionTemplate, Long packageId, int rows, Integer batchSize) {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            if (batchSize != null) {
+                session.setJdbcBatchSize(batchSize);
+            }
+            PackageEntity packageEntity = entityManager.getReference(PackageEntity.class, packageId);
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < rows; i++) {
+                entityManager.persist(TrackingEvent.builder()
+                        .location("Hub " + (i % 100))
+                        .description("Benchmark scan " + i)
+                        .dateTime(now.plusNanos(i * 1_000L))
+                        .packageEntity(packageEntity)
+                        .build());
+                if ((i + 1) % FLUSH_EVERY == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                    packageEntity = entityManager.getReference(PackageEntity.class, packageId);
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+            session.setJdbcBatchSize(null);
+        });
+        return rows / ((System.nanoTime() - start) / 1_000_000_000.0);
+    }
+}
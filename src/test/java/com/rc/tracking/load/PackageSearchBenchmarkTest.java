@@ -0,0 +1,123 @@
+package com.rc.tracking.load;
+
+import com.rc.tracking.model.id.SnowflakeIdGenerator;
+import com.rc.tracking.repository.PackageSearchIndexRepository;
+import com.rc.tracking.repository.SearchNgrams;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compara a busca por sender com LIKE '%termo%' (como faziam as consultas
+ * derivadas antigas) com a busca pelo índice de trigramas. Roda contra o MySQL
+ * do perfil "load" e só quando o tamanho da base é informado, por exemplo:
+ * {@code ./gradlew test --tests '*PackageSearchBenchmarkTest' -Dbenchmark.search.rows=1000000}
+ * (repetir com 10000000 e 50000000). A base é completada até o tamanho pedido.
+ */
+@SpringBootTest
+@ActiveProfiles("load")
+@EnabledIfSystemProperty(named = "benchmark.search.rows", matches = "\\d+")
+public class PackageSearchBenchmarkTest {
+
+    private static final String[] FIRST_NAMES = {"Loja", "Mercado", "Distribuidora", "Atacado", "Comercial", "Farmacia", "Livraria"};
+    private static final String[] LAST_NAMES = {"Silva", "Souza", "Oliveira", "Pereira", "Almeida", "Costa", "Rodrigues", "Martins"};
+    private static final String[] TERMS = {"silva", "comercial costa", "almeida 4242", "ia m", "xyz-not-found"};
+    private static final int INSERT_BATCH = 10_000;
+    private static final int RUNS = 5;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PackageSearchIndexRepository packageSearchIndexRepository;
+
+    @Test
+    public void compareLikeScanWithTrigramIndex() {
+        long targetRows = Long.getLong("benchmark.search.rows");
+        seed(targetRows);
+
+        System.out.printf("%n%-20s %12s %14s %14s%n", "term (" + targetRows + " rows)", "matches", "like p50 ms", "ngram p50 ms");
+        for (String term : TERMS) {
+            String pattern = "%" + term + "%";
+            List<Long> likeTimes = new ArrayList<>();
+            List<Long> ngramTimes = new ArrayList<>();
+            int matches = 0;
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                jdbcTemplate.queryForList("SELECT id FROM packages WHERE LOWER(sender) LIKE ?", Long.class, pattern);
+                likeTimes.add(System.nanoTime() - start);
+
+                start = System.nanoTime();
+                matches = ngramSearch(term, pattern).size();
+                ngramTimes.add(System.nanoTime() - start);
+            }
+            System.out.printf("%-20s %12d %14.1f %14.1f%n", term, matches, median(likeTimes), median(ngramTimes));
+        }
+    }
+
+    private List<Long> ngramSearch(String term, String pattern) {
+        Set<String> grams = SearchNgrams.trigrams(term);
+        if (grams.isEmpty()) {
+            return jdbcTemplate.queryForList("SELECT id FROM packages WHERE LOWER(sender) LIKE ?", Long.class, pattern);
+        }
+        List<Object> args = new ArrayList<>(grams);
+        args.add(0, "SENDER");
+        args.add(grams.size());
+        args.add(pattern);
+        String sql = "SELECT id FROM packages WHERE id IN (SELECT package_id FROM package_search_ngrams WHERE field = ? AND ngram IN ("
+                + String.join(", ", Collections.nCopies(grams.size(), "?"))
+                + ") GROUP BY package_id HAVING COUNT(DISTINCT ngram) = ?) AND LOWER(sender) LIKE ?";
+        return jdbcTemplate.queryForList(sql, Long.class, args.toArray());
+    }
+
+    private void seed(long targetRows) {
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM packages", Long.class);
+        Long lastId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM packages", Long.class);
+        Random random = new Random(42);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (long inserted = existing; inserted < targetRows; inserted += INSERT_BATCH) {
+            List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+            for (int i = 0; i < INSERT_BATCH && inserted + i < targetRows; i++) {
+                String sender = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                        + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " " + random.nextInt(10_000);
+                String recipient = LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " " + random.nextInt(100_000);
+                rows.add(new Object[]{SnowflakeIdGenerator.next(), "Benchmark", sender, recipient, "CREATED", now, now,
+                        Date.valueOf(LocalDate.of(2026, 1 + random.nextInt(12), 1 + random.nextInt(28)))});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO packages (id, description, sender, recipient, status, created_at, updated_at, "
+                    + "estimated_delivery_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        }
+        indexAfter(lastId);
+    }
+
+    /** Indexa os pacotes recém-inseridos, que entram sem trigramas. */
+    private void indexAfter(long afterId) {
+        List<Object[]> page;
+        while (!(page = jdbcTemplate.query("SELECT id, sender, recipient FROM packages WHERE id > ? ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new Object[]{rs.getLong("id"), rs.getString("sender"), rs.getString("recipient")},
+                afterId, INSERT_BATCH)).isEmpty()) {
+            packageSearchIndexRepository.indexAll(page);
+            afterId = (Long) page.get(page.size() - 1)[0];
+        }
+    }
+
+    private static double median(List<Long> nanos) {
+        long[] sorted = nanos.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,134 @@
+package com.rc.tracking.load;
+
+import com.rc.tracking.TrackingApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compara vazão e latência p99 do modo de threads de plataforma com o modo de
+ * virtual threads ({@code spring.threads.virtual.enabled}), subindo a aplicação
+ * duas vezes contra o MySQL do perfil "load". A carga mistura detalhes de
+ * pacote (com cache desligado, para que toda requisição vá ao banco) e páginas
+ * da listagem. Exemplo:
+ * {@code ./gradlew test --tests '*ThreadingModeBenchmarkTest' -Dbenchmark.threads.clients=400 -Dbenchmark.threads.seconds=30}
+ */
+@EnabledIfSystemProperty(named = "benchmark.threads.clients", matches = "\\d+")
+public class ThreadingModeBenchmarkTest {
+
+    private static final int WARMUP_SECONDS = 5;
+
+    @Test
+    public void comparePlatformAndVirtualThreads() throws Exception {
+        int clients = Integer.getInteger("benchmark.threads.clients");
+        int seconds = Integer.getInteger("benchmark.threads.seconds", 30);
+
+        List<String> rows = new ArrayList<>();
+        for (boolean virtual : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = start(virtual)) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                List<Long> ids = context.getBean(JdbcTemplate.class)
+                        .queryForList("SELECT id FROM packages ORDER BY id LIMIT 1000", Long.class);
+                if (ids.isEmpty()) {
+                    throw new IllegalStateException("Benchmark needs packages in the load database");
+                }
+                run(port, ids, clients, WARMUP_SECONDS);
+                Result result = run(port, ids, clients, seconds);
+                rows.add(String.format("%-10s %12.0f %10.1f %10.1f %8d",
+                        virtual ? "virtual" : "platform", result.throughput(), result.p50(), result.p99(), result.errors()));
+            }
+        }
+
+        System.out.printf("%n%-10s %12s %10s %10s %8s%n", "mode (" + clients + ")", "req/s", "p50 ms", "p99 ms", "errors");
+        rows.forEach(System.out::println);
+    }
+
+    private ConfigurableApplicationContext start(boolean virtual) {
+        return new SpringApplicationBuilder(TrackingApplication.class)
+                .profiles("load")
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "tracking.cache.package-details.max-size=0")
+                .run();
+    }
+
+    private Result run(int port, List<Long> ids, int clients, int seconds) throws InterruptedException, ExecutionException {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        AtomicInteger errors = new AtomicInteger();
+        List<Future<long[]>> workers = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                workers.add(executor.submit(() -> {
+                    long[] samples = new long[1024];
+                    int n = 0;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(nextUri(port, ids)).GET().build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (n == samples.length) {
+                            samples = Arrays.copyOf(samples, n * 2);
+                        }
+                        samples[n++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(samples, n);
+                }));
+            }
+        }
+
+        List<long[]> latencies = new ArrayList<>();
+        for (Future<long[]> worker : workers) {
+            latencies.add(worker.get());
+        }
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all.length / (double) seconds,
+                percentile(all, 0.50), percentile(all, 0.99), errors.get());
+    }
+
+    private static URI nextUri(int port, List<Long> ids) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(4) == 0) {
+            return URI.create("http://localhost:" + port + "/api/packages?size=20&cursor=packageEntity-" + ids.get(random.nextInt(ids.size())));
+        }
+        return URI.create("http://localhost:" + port + "/api/packages/" + ids.get(random.nextInt(ids.size())));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1_000_000.0;
+    }
+
+    private record Result(double throughput, double p50, double p99, int errors) {
+    }
+}
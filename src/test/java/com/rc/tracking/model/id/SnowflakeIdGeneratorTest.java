@@ -0,0 +1,60 @@
+package com.rc.tracking.model.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SnowflakeIdGeneratorTest {
+
+    private static final long NOW = SnowflakeIdGenerator.EPOCH + 86_400_000L;
+
+    @Test
+    public void testIdsAreIncreasingAndCarryTimestampAndNode() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(42, () -> NOW);
+
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        assertTrue(second > first);
+        assertEquals(NOW, SnowflakeIdGenerator.timestampOf(first));
+        assertEquals(42, SnowflakeIdGenerator.nodeOf(second));
+    }
+
+    @Test
+    public void testSequenceOverflowWaitsForTheNextMillisecond() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock::get);
+        long last = 0;
+        for (int i = 0; i < 4096; i++) {
+            last = generator.nextId();
+        }
+        assertEquals(NOW, SnowflakeIdGenerator.timestampOf(last));
+
+        clock.set(NOW + 1);
+        long next = generator.nextId();
+
+        assertTrue(next > last);
+        assertEquals(NOW + 1, SnowflakeIdGenerator.timestampOf(next));
+    }
+
+    @Test
+    public void testSmallClockRegressionKeepsIdsMonotonic() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock::getAndIncrement);
+        long first = generator.nextId();
+        clock.set(NOW - 3);
+
+        long second = generator.nextId();
+
+        assertTrue(second > first);
+    }
+
+    @Test
+    public void testRejectsNodeOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024, () -> NOW));
+    }
+}
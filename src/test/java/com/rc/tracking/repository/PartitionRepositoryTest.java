@@ -0,0 +1,26 @@
+package com.rc.tracking.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PartitionRepositoryTest {
+
+    @Test
+    public void testBoundsAreWrittenAsUtcEpochSecondsAndDays() {
+        LocalDate upperBound = LocalDate.of(2026, 11, 1);
+
+        assertEquals(1_793_491_200L, PartitionRepository.toBound(upperBound, true));
+        assertEquals(740_286L, PartitionRepository.toBound(upperBound, false));
+    }
+
+    @Test
+    public void testBoundsDecodeBackToTheSameDate() {
+        LocalDate upperBound = LocalDate.of(2026, 11, 1);
+
+        assertEquals(upperBound, PartitionRepository.toDate(Long.toString(PartitionRepository.toBound(upperBound, true)), true));
+        assertEquals(upperBound, PartitionRepository.toDate(Long.toString(PartitionRepository.toBound(upperBound, false)), false));
+    }
+}
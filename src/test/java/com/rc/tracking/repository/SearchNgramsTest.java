@@ -0,0 +1,32 @@
+package com.rc.tracking.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SearchNgramsTest {
+
+    @Test
+    public void testTrigramsAreNormalizedAndDistinct() {
+        Set<String> grams = SearchNgrams.trigrams("João  SILVA");
+
+        assertEquals(List.of("joa", "oao", "ao ", "o s", " si", "sil", "ilv", "lva"), List.copyOf(grams));
+    }
+
+    @Test
+    public void testShortTermsHaveNoTrigrams() {
+        assertTrue(SearchNgrams.trigrams("ab").isEmpty());
+        assertTrue(SearchNgrams.trigrams(null).isEmpty());
+    }
+
+    @Test
+    public void testQueryTrigramsAreSubsetOfIndexedTrigrams() {
+        Set<String> indexed = SearchNgrams.trigrams("Loja Ação Rápida");
+
+        assertTrue(indexed.containsAll(SearchNgrams.trigrams("acao rap")));
+    }
+}
@@ -0,0 +1,48 @@
+package com.rc.tracking.scheduled;
+
+import com.rc.tracking.model.entity.PackageEntity;
+import com.rc.tracking.repository.PackageRepository;
+import com.rc.tracking.service.PackageEnrichmentService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class EnrichmentBackfillSchedulerTest {
+
+    @Mock
+    private PackageRepository packageRepository;
+
+    @Mock
+    private PackageEnrichmentService packageEnrichmentService;
+
+    @Test
+    public void testResubmitsPackagesLeftWithoutFunFact() {
+        LocalDate deliveryDate = LocalDate.of(2025, 12, 25);
+        when(packageRepository.findByFunFactIsNullAndCreatedAtBetweenOrderById(
+                any(LocalDateTime.class), argThat(to -> to.isBefore(LocalDateTime.now().minusMinutes(4))), eq(Limit.of(50))))
+                .thenReturn(List.of(
+                        PackageEntity.builder().id(1L).estimatedDeliveryDate(deliveryDate).build(),
+                        PackageEntity.builder().id(2L).estimatedDeliveryDate(deliveryDate.plusDays(1)).build()));
+        EnrichmentBackfillScheduler scheduler = new EnrichmentBackfillScheduler(packageRepository,
+                packageEnrichmentService, Runnable::run, Duration.ofMinutes(5), Duration.ofDays(7), 50);
+
+        scheduler.backfillEnrichment();
+
+        verify(packageEnrichmentService).enrich(1L, deliveryDate);
+        verify(packageEnrichmentService).enrich(2L, deliveryDate.plusDays(1));
+    }
+}
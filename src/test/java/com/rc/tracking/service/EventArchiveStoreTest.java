@@ -0,0 +1,49 @@
+package com.rc.tracking.service;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.rc.tracking.model.dto.ArchivedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EventArchiveStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    private EventArchiveStore eventArchiveStore;
+
+    @BeforeEach
+    public void setup() {
+        eventArchiveStore = new EventArchiveStore(JsonMapper.builder().findAndAddModules().build(), directory.toString());
+    }
+
+    @Test
+    public void testSegmentsAreAppendedAndReadBackIndependently() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2025, 3, 10, 8, 0);
+        List<ArchivedEvent> first = List.of(
+                new ArchivedEvent(1L, "Warehouse", "Received", base),
+                new ArchivedEvent(2L, "Hub", "In transit", base.plusDays(1)));
+        List<ArchivedEvent> second = List.of(new ArchivedEvent(7L, "Door", "Delivered", base.plusDays(2)));
+
+        EventArchiveStore.Segment firstSegment = eventArchiveStore.append(YearMonth.of(2025, 3), first);
+        EventArchiveStore.Segment secondSegment = eventArchiveStore.append(YearMonth.of(2025, 3), second);
+
+        assertEquals("events-2025-03.ndjson.gz", firstSegment.fileName());
+        assertEquals(0, firstSegment.offset());
+        assertEquals(firstSegment.length(), secondSegment.offset());
+        assertEquals(firstSegment.length() + secondSegment.length(),
+                Files.size(directory.resolve(firstSegment.fileName())));
+
+        assertEquals(second, eventArchiveStore.read(secondSegment.fileName(), secondSegment.offset(), secondSegment.length()));
+        assertEquals(first, eventArchiveStore.read(firstSegment.fileName(), firstSegment.offset(), firstSegment.length()));
+    }
+}
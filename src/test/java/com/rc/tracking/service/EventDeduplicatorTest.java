@@ -0,0 +1,91 @@
+package com.rc.tracking.service;
+
+import com.rc.tracking.model.dto.TrackingEventRequest;
+import com.rc.tracking.repository.TrackingEventJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class EventDeduplicatorTest {
+
+    @Mock
+    private TrackingEventJdbcRepository trackingEventJdbcRepository;
+
+    private EventDeduplicator eventDeduplicator;
+
+    @BeforeEach
+    public void setup() {
+        eventDeduplicator = new EventDeduplicator(trackingEventJdbcRepository, new SimpleMeterRegistry(),
+                1_000, 10_000, 0.01, Duration.ZERO);
+    }
+
+    @Test
+    public void testUnseenKeysSkipTheDatabase() {
+        Set<String> fresh = eventDeduplicator.retainNew(List.of(key("a"), key("b")));
+
+        assertEquals(Set.of(key("a"), key("b")), fresh);
+        verify(trackingEventJdbcRepository, never()).findExistingKeys(anyCollection());
+    }
+
+    @Test
+    public void testRememberedKeysAreRejectedFromMemory() {
+        eventDeduplicator.remember(List.of(key("a")));
+
+        assertFalse(eventDeduplicator.isNew(key("a")));
+        assertTrue(eventDeduplicator.isNew(key("b")));
+        verify(trackingEventJdbcRepository, never()).findExistingKeys(anyCollection());
+    }
+
+    @Test
+    public void testBloomHitsWithoutMemoryHitAreCheckedInTheDatabase() {
+        EventDeduplicator tinyLru = new EventDeduplicator(trackingEventJdbcRepository, new SimpleMeterRegistry(),
+                0, 10_000, 0.01, Duration.ZERO);
+        tinyLru.remember(List.of(key("a"), key("b")));
+        when(trackingEventJdbcRepository.findExistingKeys(anyCollection())).thenReturn(Set.of(key("a")));
+
+        Set<String> fresh = tinyLru.retainNew(List.of(key("a"), key("b"), key("c")));
+
+        assertEquals(Set.of(key("b"), key("c")), fresh);
+        verify(trackingEventJdbcRepository).findExistingKeys(List.of(key("a"), key("b")));
+    }
+
+    @Test
+    public void testBloomFilterHasNoFalseNegatives() {
+        BloomFilter bloom = new BloomFilter(1_000, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            bloom.put(key("k" + i));
+        }
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(bloom.mightContain(key("k" + i)));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (bloom.mightContain(key("other" + i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    private static String key(String eventId) {
+        return EventDeduplicator.keyOf(1L, new TrackingEventRequest("packageEntity-1", "Hub", "Scan",
+                LocalDateTime.of(2025, 10, 10, 12, 0), eventId));
+    }
+}
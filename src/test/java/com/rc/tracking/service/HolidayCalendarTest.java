@@ -0,0 +1,126 @@
+package com.rc.tracking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HolidayCalendarTest {
+
+    private HttpServer stubServer;
+    private MeterRegistry meterRegistry;
+    private HolidayCalendar holidayCalendar;
+    private final AtomicInteger remoteCalls = new AtomicInteger();
+
+    @BeforeEach
+    public void setup() throws IOException {
+        remoteCalls.set(0);
+        stubServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubServer.createContext("/holidays/2030/BR", exchange -> {
+            remoteCalls.incrementAndGet();
+            byte[] body = """
+                    [{"date": "2030-12-25", "localName": "Natal", "name": "Christmas Day"},
+                     {"date": "2030-12-31", "localName": "Véspera", "name": "New Year's Eve"}]
+                    """.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stubServer.createContext("/holidays/2031/BR", exchange -> {
+            remoteCalls.incrementAndGet();
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        stubServer.start();
+
+        meterRegistry = new SimpleMeterRegistry();
+        holidayCalendar = newCalendar(Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        stubServer.stop(0);
+    }
+
+    @Test
+    public void testBundledYearsAreAnsweredWithoutRemoteCalls() {
+        assertTrue(holidayCalendar.isHoliday(LocalDate.of(2026, 9, 7)));
+        assertTrue(holidayCalendar.isHoliday(LocalDate.of(2026, 11, 20)));
+        assertFalse(holidayCalendar.isHoliday(LocalDate.of(2026, 9, 8)));
+
+        assertEquals(0, remoteCalls.get());
+        assertEquals(3.0, lookups("hit"));
+        assertEquals(0.0, lookups("miss"));
+    }
+
+    @Test
+    public void testUnknownYearIsFetchedOnceAndCached() {
+        assertTrue(holidayCalendar.isHoliday(LocalDate.of(2030, 12, 25)));
+        assertTrue(holidayCalendar.isHoliday(LocalDate.of(2030, 12, 31)));
+        assertFalse(holidayCalendar.isHoliday(LocalDate.of(2030, 1, 2)));
+
+        assertEquals(1, remoteCalls.get());
+        assertEquals(1.0, lookups("miss"));
+        assertEquals(2.0, lookups("hit"));
+    }
+
+    @Test
+    public void testFailedFetchIsCachedUntilRetryIsDue() {
+        assertFalse(holidayCalendar.isHoliday(LocalDate.of(2031, 1, 1)));
+        assertFalse(holidayCalendar.isHoliday(LocalDate.of(2031, 1, 2)));
+        assertFalse(holidayCalendar.isHoliday(LocalDate.of(2031, 1, 3)));
+
+        assertEquals(1, remoteCalls.get());
+        assertEquals(1.0, lookups("miss"));
+        assertEquals(2.0, lookups("hit"));
+    }
+
+    @Test
+    public void testFailedFetchIsRetriedOnceRetryIsDueAndOnRefresh() {
+        holidayCalendar = newCalendar(Duration.ZERO);
+
+        assertFalse(holidayCalendar.isHoliday(LocalDate.of(2031, 1, 1)));
+        assertFalse(holidayCalendar.isHoliday(LocalDate.of(2031, 1, 2)));
+        holidayCalendar.refresh();
+
+        assertEquals(3, remoteCalls.get());
+        assertEquals(2.0, lookups("miss"));
+    }
+
+    private HolidayCalendar newCalendar(Duration failureRetry) {
+        HolidayCalendar calendar = new HolidayCalendar(
+                new RestTemplate(),
+                new ObjectMapper().findAndRegisterModules(),
+                new DefaultResourceLoader(),
+                meterRegistry,
+                "http://localhost:" + stubServer.getAddress().getPort() + "/holidays/{year}/{country}",
+                "BR",
+                "classpath:holidays/",
+                failureRetry);
+        calendar.preloadBundled();
+        return calendar;
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("tracking.holiday.calendar.lookups").tag("result", result).counter().count();
+    }
+}
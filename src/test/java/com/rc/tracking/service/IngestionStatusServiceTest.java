@@ -0,0 +1,83 @@
+package com.rc.tracking.service;
+
+import com.rc.tracking.exception.ResourceNotFoundException;
+import com.rc.tracking.model.dto.AcceptedTrackingEvent;
+import com.rc.tracking.model.dto.TrackingEventRequest;
+import com.rc.tracking.model.enums.IngestionOutcome;
+import com.rc.tracking.repository.TrackingEventDeadLetterRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class IngestionStatusServiceTest {
+
+    @Mock
+    private TrackingEventDeadLetterRepository deadLetterRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private IngestionStatusService ingestionStatusService;
+
+    @BeforeEach
+    public void setUp() {
+        ingestionStatusService = new IngestionStatusService(deadLetterRepository, meterRegistry, 1000, Duration.ofHours(1));
+    }
+
+    @Test
+    public void testCompletedBatchRecordsAppliedAndDeadLettersRejected() {
+        List<AcceptedTrackingEvent> batch = List.of(event(1, "packageEntity-1"), event(2, "packageEntity-2"));
+
+        ingestionStatusService.completed(batch, Map.of(1, "Package not found with id: 2"));
+
+        assertEquals(IngestionOutcome.APPLIED, ingestionStatusService.status(1).outcome());
+        assertEquals(IngestionOutcome.REJECTED, ingestionStatusService.status(2).outcome());
+        assertEquals("Package not found with id: 2", ingestionStatusService.status(2).reason());
+        verify(deadLetterRepository).saveAll(argThat(deadLetters -> deadLetters.iterator().next().getToken() == 2L));
+        assertEquals(1.0, meterRegistry.counter("tracking.ingestion.outcomes", "outcome", "rejected").count());
+    }
+
+    @Test
+    public void testCompletedRecordsNothingWhenDeadLettersCannotBeStored() {
+        when(deadLetterRepository.saveAll(anyList())).thenThrow(new IllegalStateException("database down"));
+
+        assertThrows(IllegalStateException.class,
+                () -> ingestionStatusService.completed(List.of(event(1, "packageEntity-1")), Map.of(0, "Invalid packageId format")));
+
+        assertThrows(ResourceNotFoundException.class, () -> ingestionStatusService.status(1));
+    }
+
+    @Test
+    public void testAcceptedDoesNotOverwriteAnOutcomeAlreadyRecorded() {
+        ingestionStatusService.applied(event(1, "packageEntity-1"));
+
+        IngestionOutcome outcome = ingestionStatusService.accepted(1, false);
+
+        assertEquals(IngestionOutcome.APPLIED, outcome);
+        assertEquals(IngestionOutcome.APPLIED, ingestionStatusService.status(1).outcome());
+        assertNull(ingestionStatusService.status(1).reason());
+        verify(deadLetterRepository, never()).save(any());
+    }
+
+    private AcceptedTrackingEvent event(long token, String packageId) {
+        return new AcceptedTrackingEvent(token,
+                new TrackingEventRequest(packageId, "Warehouse", "Package reached warehouse", LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,223 @@
+package com.rc.tracking.service;
+
+import com.rc.tracking.exception.InvalidCursorException;
+import com.rc.tracking.exception.ResourceNotFoundException;
+import com.rc.tracking.mapper.PackageMapper;
+import com.rc.tracking.model.dto.ArchivedEvent;
+import com.rc.tracking.model.dto.EventCursor;
+import com.rc.tracking.model.dto.EventDTO;
+import com.rc.tracking.model.dto.EventPageResponse;
+import com.rc.tracking.model.dto.PackageDetailResponse;
+import com.rc.tracking.model.entity.EventArchiveSegment;
+import com.rc.tracking.model.entity.PackageEntity;
+import com.rc.tracking.model.entity.TrackingEvent;
+import com.rc.tracking.model.enums.StatusEnum;
+import com.rc.tracking.repository.EventArchiveSegmentRepository;
+import com.rc.tracking.repository.PackageRepository;
+import com.rc.tracking.repository.TrackingEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PackageDetailsReaderTest {
+
+    @Mock
+    private PackageRepository packageRepository;
+
+    @Mock
+    private PackageMapper packageMapper;
+
+    @Mock
+    private TrackingEventRepository trackingEventRepository;
+
+    @Mock
+    private EventArchiveSegmentRepository eventArchiveSegmentRepository;
+
+    @Mock
+    private EventArchiveStore eventArchiveStore;
+
+    private PackageDetailsReader packageDetailsReader;
+
+    private PackageEntity packageEntity;
+
+    @BeforeEach
+    public void setup() {
+        packageDetailsReader = new PackageDetailsReader(packageRepository, trackingEventRepository,
+                eventArchiveSegmentRepository, eventArchiveStore, packageMapper, 20);
+        packageEntity = PackageEntity.builder()
+                .id(1L)
+                .description("Test Package")
+                .sender("Sender A")
+                .recipient("Recipient B")
+                .estimatedDeliveryDate(LocalDate.now().plusDays(1))
+                .isHolliday(false)
+                .funFact("Test Dog Fact")
+                .status(StatusEnum.CREATED)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    public void testGetPackageDetails_WithAndWithoutEvents() {
+        TrackingEvent trackingEvent = TrackingEvent.builder()
+                .id(10L)
+                .location("Warehouse")
+                .description("Package reached warehouse")
+                .dateTime(LocalDateTime.of(2025, 10, 10, 12, 0))
+                .packageEntity(packageEntity)
+                .build();
+
+        List<EventDTO> expectedEvents = Arrays.asList(
+                new EventDTO("packageEntity-" + packageEntity.getId(),
+                        trackingEvent.getLocation(),
+                        trackingEvent.getDescription(),
+                        trackingEvent.getDateTime())
+        );
+
+        PackageDetailResponse expectedDetail = new PackageDetailResponse(
+                "packageEntity-" + packageEntity.getId(),
+                packageEntity.getDescription(),
+                packageEntity.getSender(),
+                packageEntity.getRecipient(),
+                packageEntity.getStatus(),
+                packageEntity.getCreatedAt(),
+                packageEntity.getUpdatedAt(),
+                expectedEvents
+        );
+
+        when(packageRepository.findById(1L)).thenReturn(Optional.of(packageEntity));
+        when(trackingEventRepository.findBy(ArgumentMatchers.<Specification<TrackingEvent>>any(), any())).thenReturn(List.of(trackingEvent));
+        when(packageMapper.packageEntityToPackageDetailResponse(packageEntity, List.of(trackingEvent)))
+                .thenReturn(expectedDetail);
+
+        PackageDetailResponse responseWithEvents = packageDetailsReader.read(1L, true);
+        assertNotNull(responseWithEvents);
+        assertEquals(expectedDetail, responseWithEvents);
+
+        PackageEntity entityWithoutEvents = PackageEntity.builder()
+                .id(packageEntity.getId())
+                .description(packageEntity.getDescription())
+                .sender(packageEntity.getSender())
+                .recipient(packageEntity.getRecipient())
+                .status(packageEntity.getStatus())
+                .createdAt(packageEntity.getCreatedAt())
+                .updatedAt(packageEntity.getUpdatedAt())
+                .events(null)
+                .build();
+
+        PackageDetailResponse expectedNoEvents = new PackageDetailResponse(
+                "packageEntity-" + entityWithoutEvents.getId(),
+                entityWithoutEvents.getDescription(),
+                entityWithoutEvents.getSender(),
+                entityWithoutEvents.getRecipient(),
+                entityWithoutEvents.getStatus(),
+                entityWithoutEvents.getCreatedAt(),
+                entityWithoutEvents.getUpdatedAt(),
+                null
+        );
+
+        when(packageRepository.findById(1L)).thenReturn(Optional.of(entityWithoutEvents));
+        when(packageMapper.packageEntityToPackageDetailResponseWithoutEvents(entityWithoutEvents))
+                .thenReturn(expectedNoEvents);
+
+        PackageDetailResponse responseWithoutEvents = packageDetailsReader.read(1L, false);
+        assertNotNull(responseWithoutEvents);
+        assertNull(responseWithoutEvents.events());
+        assertEquals(expectedNoEvents, responseWithoutEvents);
+    }
+
+    @Test
+    public void testRead_WithoutEventsDoesNotQueryEvents() {
+        when(packageRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> packageDetailsReader.read(1L, false));
+        verify(trackingEventRepository, never()).findBy(ArgumentMatchers.<Specification<TrackingEvent>>any(), any());
+    }
+
+    @Test
+    public void testReadEvents_ReturnsCursorOfLastItemWhenMoreRowsExist() {
+        LocalDateTime base = LocalDateTime.of(2025, 10, 10, 12, 0);
+        List<TrackingEvent> events = List.of(event(3L, base.plusHours(2)), event(2L, base.plusHours(1)), event(1L, base));
+        when(trackingEventRepository.findBy(ArgumentMatchers.<Specification<TrackingEvent>>any(), any())).thenReturn(events);
+        when(packageMapper.trackingEventToEventDTO(any(TrackingEvent.class)))
+                .thenAnswer(invocation -> {
+                    TrackingEvent e = invocation.getArgument(0);
+                    return new EventDTO("packageEntity-1", e.getLocation(), e.getDescription(), e.getDateTime());
+                });
+
+        EventPageResponse page = packageDetailsReader.readEvents(1L, null, null, null, 2, true);
+
+        assertEquals(2, page.items().size());
+        assertEquals(new EventCursor(base.plusHours(1), 2L), EventCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    public void testReadEvents_UnknownPackage() {
+        when(trackingEventRepository.findBy(ArgumentMatchers.<Specification<TrackingEvent>>any(), any())).thenReturn(List.of());
+        when(packageRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> packageDetailsReader.readEvents(99L, null, null, null, 10, true));
+    }
+
+    @Test
+    public void testReadEvents_MergesArchivedEventsAfterTheCursor() {
+        LocalDateTime base = LocalDateTime.of(2025, 10, 10, 12, 0);
+        when(trackingEventRepository.findBy(ArgumentMatchers.<Specification<TrackingEvent>>any(), any()))
+                .thenReturn(List.of(event(5L, base.plusHours(5))));
+        when(eventArchiveSegmentRepository.findByPackageIdOrderById(1L)).thenReturn(List.of(EventArchiveSegment.builder()
+                .packageId(1L).fileName("events-2025-10.ndjson.gz").fileOffset(0L).segmentLength(42).eventCount(3).build()));
+        when(eventArchiveStore.read("events-2025-10.ndjson.gz", 0L, 42)).thenReturn(List.of(
+                new ArchivedEvent(1L, "Hub 1", "Scan 1", base),
+                new ArchivedEvent(2L, "Hub 2", "Scan 2", base.plusHours(1)),
+                new ArchivedEvent(3L, "Hub 3", "Scan 3", base.plusHours(6))));
+        when(packageRepository.getReferenceById(1L)).thenReturn(packageEntity);
+        when(packageMapper.trackingEventToEventDTO(any(TrackingEvent.class)))
+                .thenAnswer(invocation -> {
+                    TrackingEvent e = invocation.getArgument(0);
+                    return new EventDTO("packageEntity-1", e.getLocation(), e.getDescription(), e.getDateTime());
+                });
+
+        EventPageResponse page = packageDetailsReader.readEvents(
+                1L, null, null, new EventCursor(base.plusHours(6), 3L), 1, true, true);
+
+        assertEquals(List.of("Hub 5"), page.items().stream().map(EventDTO::location).toList());
+        assertEquals(new EventCursor(base.plusHours(5), 5L), EventCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    public void testEventCursor_RejectsGarbage() {
+        assertThrows(InvalidCursorException.class, () -> EventCursor.decode("not a cursor"));
+    }
+
+    private TrackingEvent event(Long id, LocalDateTime dateTime) {
+        return TrackingEvent.builder()
+                .id(id)
+                .location("Hub " + id)
+                .description("Scan " + id)
+                .dateTime(dateTime)
+                .packageEntity(packageEntity)
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package com.rc.tracking.service;
+
+import com.rc.tracking.mapper.PackageMapper;
+import com.rc.tracking.model.dto.PackageResponse;
+import com.rc.tracking.model.entity.PackageEntity;
+import com.rc.tracking.model.event.PackageChangedEvent;
+import com.rc.tracking.repository.PackageRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PackageEnrichmentServiceTest {
+
+    @Mock
+    private PackageRepository packageRepository;
+
+    @Mock
+    private HolidayCalendar holidayCalendar;
+
+    @Mock
+    private PackageDetailCache packageDetailCache;
+
+    @Mock
+    private PackageMapper packageMapper;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private HttpServer stubServer;
+    private PackageEnrichmentService enrichmentService;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        stubServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubServer.createContext("/facts", exchange -> respond(exchange, """
+                {"fact": "Dogs have three eyelids."}
+                """));
+        stubServer.createContext("/slow-facts", exchange -> {
+            try {
+                Thread.sleep(3000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, "{\"fact\": \"too late\"}");
+        });
+        stubServer.start();
+        enrichmentService = newService("/facts");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        stubServer.stop(0);
+    }
+
+    @Test
+    public void testEnrich_UpdatesHolidayAndFunFact() {
+        PackageEntity packageEntity = PackageEntity.builder().id(1L).build();
+        PackageResponse response = new PackageResponse("packageEntity-1", "Test Package", "Sender A", "Recipient B",
+                null, null, null, null);
+        when(holidayCalendar.isHoliday(LocalDate.of(2025, 12, 25))).thenReturn(true);
+        when(packageRepository.updateEnrichment(eq(1L), eq(true), eq("Dogs have three eyelids."), any(LocalDateTime.class)))
+                .thenReturn(1);
+        when(packageRepository.findById(1L)).thenReturn(Optional.of(packageEntity));
+        when(packageMapper.packageEntityToPackageResponse(packageEntity)).thenReturn(response);
+
+        enrichmentService.enrich(1L, LocalDate.of(2025, 12, 25));
+
+        verify(packageDetailCache).invalidate(1L);
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof PackageChangedEvent changed
+                && changed.packageId().equals(1L) && changed.packageResponse() == response));
+    }
+
+    @Test
+    public void testEnrich_SkipsCacheAndSubscribersWhenPackageIsGone() {
+        when(packageRepository.updateEnrichment(eq(1L), eq(false), any(), any(LocalDateTime.class))).thenReturn(0);
+
+        enrichmentService.enrich(1L, null);
+
+        verify(packageDetailCache, never()).invalidate(anyLong());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void testFetchDogFunFact_FallsBackOnReadTimeout() {
+        PackageEnrichmentService slowService = newService("/slow-facts");
+
+        assertEquals(PackageEnrichmentService.FUN_FACT_FALLBACK, slowService.fetchDogFunFact());
+    }
+
+    private PackageEnrichmentService newService(String funFactPath) {
+        String baseUrl = "http://localhost:" + stubServer.getAddress().getPort();
+        return new PackageEnrichmentService(
+                packageRepository,
+                holidayCalendar,
+                new RestTemplateBuilder()
+                        .connectTimeout(Duration.ofMillis(750))
+                        .readTimeout(Duration.ofMillis(750))
+                        .build(),
+                packageDetailCache,
+                packageMapper,
+                eventPublisher,
+                baseUrl + funFactPath);
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
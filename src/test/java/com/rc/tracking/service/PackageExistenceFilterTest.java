@@ -0,0 +1,75 @@
+package com.rc.tracking.service;
+
+import com.rc.tracking.repository.PackageRepository;
+import com.rc.tracking.repository.PackageStreamRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PackageExistenceFilterTest {
+
+    @Mock
+    private PackageRepository packageRepository;
+
+    @Mock
+    private PackageStreamRepository packageStreamRepository;
+
+    private PackageExistenceFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        filter = new PackageExistenceFilter(packageRepository, packageStreamRepository, new SimpleMeterRegistry(), 1000, 0.001);
+    }
+
+    @Test
+    public void testEverythingMightExistUntilFirstLoad() {
+        assertTrue(filter.mightExist(42L));
+    }
+
+    @Test
+    public void testLoadedAndCreatedPackagesExistAndOthersDoNot() {
+        loadIds(1L, 2L, 3L);
+
+        filter.rebuild();
+        filter.add(List.of(742918374651392001L));
+
+        assertTrue(filter.mightExist(2L));
+        assertTrue(filter.mightExist(742918374651392001L));
+        assertFalse(filter.mightExist(987654321L));
+    }
+
+    @Test
+    public void testPackagesAddedBeforeRebuildSurviveIt() {
+        loadIds(1L);
+        filter.rebuild();
+        // criado antes da reconstrução, mas ainda sem commit quando ela leu a tabela
+        filter.add(List.of(99L));
+
+        filter.rebuild();
+
+        assertTrue(filter.mightExist(99L));
+    }
+
+    private void loadIds(long... ids) {
+        when(packageRepository.count()).thenReturn((long) ids.length);
+        when(packageStreamRepository.forEachId(any())).thenAnswer(invocation -> {
+            LongConsumer consumer = invocation.getArgument(0);
+            for (long id : ids) {
+                consumer.accept(id);
+            }
+            return (long) ids.length;
+        });
+    }
+}
@@ -0,0 +1,113 @@
+package com.rc.tracking.service;
+
+import com.rc.tracking.model.entity.PurgeCheckpoint;
+import com.rc.tracking.repository.PackagePurgeRepository;
+import com.rc.tracking.repository.PackageSearchIndexRepository;
+import com.rc.tracking.repository.PartitionRepository;
+import com.rc.tracking.repository.PartitionRepository.Partition;
+import com.rc.tracking.repository.PurgeCheckpointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PackagePurgeServiceTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2024, 6, 1, 0, 0);
+    private static final String PARTITION = "p2024_04";
+
+    @Mock
+    private PackagePurgeRepository packagePurgeRepository;
+
+    @Mock
+    private PackageSearchIndexRepository packageSearchIndexRepository;
+
+    @Mock
+    private PartitionRepository partitionRepository;
+
+    @Mock
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @Mock
+    private PurgeCheckpointRepository purgeCheckpointRepository;
+
+    @Mock
+    private PackageDetailCache packageDetailCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void testPartitionIsKeptWhenAPackageToKeepArrivesBeforeTheDrop() {
+        AtomicBoolean pastDatedPackageCreated = new AtomicBoolean();
+        when(purgeCheckpointRepository.findById(PackagePurgeService.JOB)).thenReturn(Optional.empty());
+        when(purgeCheckpointRepository.save(any(PurgeCheckpoint.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(partitionRepository.isSupported()).thenReturn(true);
+        when(partitionRepository.findPartitions("packages"))
+                .thenReturn(List.of(new Partition(PARTITION, LocalDate.of(2024, 5, 1), 2, 0)));
+        when(partitionRepository.hasPackagesToKeep(PARTITION, CUTOFF)).thenReturn(false);
+        when(partitionRepository.findPurgeablePackageIds(PARTITION, CUTOFF, 0L, 10)).thenAnswer(invocation -> {
+            // POST /api/packages com entrega estimada no passado, durante a limpeza da partição
+            pastDatedPackageCreated.set(true);
+            return List.of(1L, 2L);
+        });
+        when(partitionRepository.findPurgeablePackageIds(PARTITION, CUTOFF, 2L, 10)).thenReturn(List.of());
+        when(partitionRepository.dropPackagePartitionUnlessKept(PARTITION, CUTOFF))
+                .thenAnswer(invocation -> !pastDatedPackageCreated.get());
+        when(packagePurgeRepository.findDeliveredBefore(CUTOFF, 0L, 10)).thenReturn(List.of(1L, 2L));
+        when(packagePurgeRepository.deletePackages(List.of(1L, 2L))).thenReturn(2);
+
+        long purged = newService().purgeDeliveredBefore(CUTOFF);
+
+        assertEquals(2, purged);
+        assertEquals(0.0, meterRegistry.counter("tracking.purge.partitions.dropped").count());
+        verify(packagePurgeRepository).deletePackages(List.of(1L, 2L));
+        verify(packageSearchIndexRepository, never()).remove(argThat(ids -> ids.contains(3L)));
+        verify(partitionMaintenanceService, never()).refreshMetrics();
+    }
+
+    @Test
+    public void testPartitionIsDroppedWhenNothingToKeepAppears() {
+        when(purgeCheckpointRepository.findById(PackagePurgeService.JOB)).thenReturn(Optional.empty());
+        when(purgeCheckpointRepository.save(any(PurgeCheckpoint.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(partitionRepository.isSupported()).thenReturn(true);
+        when(partitionRepository.findPartitions("packages"))
+                .thenReturn(List.of(new Partition(PARTITION, LocalDate.of(2024, 5, 1), 2, 0)));
+        when(partitionRepository.hasPackagesToKeep(PARTITION, CUTOFF)).thenReturn(false);
+        when(partitionRepository.findPurgeablePackageIds(PARTITION, CUTOFF, 0L, 10)).thenReturn(List.of(1L, 2L));
+        when(partitionRepository.findPurgeablePackageIds(PARTITION, CUTOFF, 2L, 10)).thenReturn(List.of());
+        when(partitionRepository.dropPackagePartitionUnlessKept(PARTITION, CUTOFF)).thenReturn(true);
+        when(packagePurgeRepository.findDeliveredBefore(CUTOFF, 0L, 10)).thenReturn(List.of());
+
+        long purged = newService().purgeDeliveredBefore(CUTOFF);
+
+        assertEquals(2, purged);
+        assertEquals(1.0, meterRegistry.counter("tracking.purge.partitions.dropped").count());
+        verify(partitionMaintenanceService).refreshMetrics();
+    }
+
+    private PackagePurgeService newService() {
+        return new PackagePurgeService(packagePurgeRepository, packageSearchIndexRepository, partitionRepository,
+                partitionMaintenanceService, purgeCheckpointRepository, packageDetailCache, transactionManager,
+                meterRegistry, 10, Duration.ZERO);
+    }
+}
@@ -2,29 +2,42 @@ package com.rc.tracking.service;
 
 import com.rc.tracking.exception.InvalidStatusTransitionException;
 import com.rc.tracking.exception.PackageCannotBeCancelledException;
+import com.rc.tracking.exception.ResourceNotFoundException;
+import com.rc.tracking.exception.StatusConflictException;
 import com.rc.tracking.mapper.PackageMapper;
-import com.rc.tracking.model.dto.EventDTO;
+import com.rc.tracking.model.dto.PackageBatchResponse;
 import com.rc.tracking.model.dto.PackageDetailResponse;
+import com.rc.tracking.model.dto.PackageFilter;
+import com.rc.tracking.model.dto.PackagePageResponse;
 import com.rc.tracking.model.dto.PackageRequest;
 import com.rc.tracking.model.dto.PackageResponse;
 import com.rc.tracking.model.entity.PackageEntity;
-import com.rc.tracking.model.entity.TrackingEvent;
+import com.rc.tracking.model.enums.PackageLookupStatus;
 import com.rc.tracking.model.enums.StatusEnum;
+import com.rc.tracking.model.event.PackageCreatedEvent;
 import com.rc.tracking.repository.PackageRepository;
+import com.rc.tracking.repository.PackageSearchIndexRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static com.rc.tracking.model.enums.StatusEnum.CREATED;
 import static com.rc.tracking.model.enums.StatusEnum.DELIVERED;
 import static com.rc.tracking.model.enums.StatusEnum.IN_TRANSIT;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -34,6 +47,12 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,11 +65,26 @@ public class PackageServiceTest {
     private PackageMapper packageMapper;
 
     @Mock
-    private RestTemplate restTemplate;
+    private PackageSearchIndexRepository packageSearchIndexRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PackageDetailsReader packageDetailsReader;
+
+    @Mock
+    private PackageExistenceFilter packageExistenceFilter;
+
+    @Spy
+    private PackageDetailCache packageDetailCache =
+            new PackageDetailCache(100, Duration.ofSeconds(30), new SimpleMeterRegistry());
 
     @InjectMocks
     private PackageService packageService;
 
+    private static final PackageFilter EMPTY_FILTER = new PackageFilter(null, null, null, null, null, null, null);
+
     private PackageRequest packageRequest;
     private PackageEntity packageEntity;
 
@@ -93,11 +127,14 @@ public class PackageServiceTest {
         PackageResponse response = packageService.createPackage(packageRequest);
 
         assertEquals(expectedResponse, response);
+        verify(packageRepository).save(argThat(entity -> entity.getIsHolliday() == null && entity.getFunFact() == null));
+        verify(packageSearchIndexRepository).index(1L, packageRequest.sender(), packageRequest.recipient());
+        verify(packageExistenceFilter).add(List.of(1L));
+        verify(eventPublisher).publishEvent(new PackageCreatedEvent(1L, packageRequest.estimatedDeliveryDate()));
     }
 
     @Test
     public void testUpdateStatus_ValidTransition_CreatedToInTransit() {
-        when(packageRepository.findById(1L)).thenReturn(Optional.of(packageEntity));
         PackageEntity updatedEntity = PackageEntity.builder()
                 .id(1L)
                 .description(packageEntity.getDescription())
@@ -110,7 +147,9 @@ public class PackageServiceTest {
                 .createdAt(packageEntity.getCreatedAt())
                 .updatedAt(LocalDateTime.now())
                 .build();
-        when(packageRepository.save(any(PackageEntity.class))).thenReturn(updatedEntity);
+        when(packageRepository.transitionStatus(eq(1L), eq(CREATED), eq(IN_TRANSIT), isNull(), any(LocalDateTime.class)))
+                .thenReturn(1);
+        when(packageRepository.findById(1L)).thenReturn(Optional.of(updatedEntity));
         PackageResponse expectedResponse = new PackageResponse("packageEntity-1",
                 updatedEntity.getDescription(),
                 updatedEntity.getSender(),
@@ -126,17 +165,63 @@ public class PackageServiceTest {
         assertEquals(IN_TRANSIT, response.status());
     }
 
+    @Test
+    public void testUpdateStatus_CachedDetailsAnswerWithoutReadingThePackage() {
+        PackageDetailResponse cached = new PackageDetailResponse("packageEntity-1", packageEntity.getDescription(),
+                packageEntity.getSender(), packageEntity.getRecipient(), CREATED, packageEntity.getCreatedAt(),
+                packageEntity.getUpdatedAt(), null);
+        packageDetailCache.get(1L, false, () -> cached);
+        when(packageRepository.transitionStatus(eq(1L), eq(IN_TRANSIT), eq(DELIVERED), notNull(), any(LocalDateTime.class)))
+                .thenReturn(1);
+
+        PackageResponse response = packageService.updateStatus(1L, DELIVERED);
+
+        assertEquals(DELIVERED, response.status());
+        assertEquals(packageEntity.getSender(), response.sender());
+        assertEquals(packageEntity.getCreatedAt(), response.createdAt());
+        assertNotNull(response.deliveredAt());
+        assertEquals(response.deliveredAt(), response.updatedAt());
+        verify(packageRepository, never()).findById(any());
+    }
+
     @Test
     public void testUpdateStatus_InvalidTransition() {
+        when(packageRepository.transitionStatus(eq(1L), eq(IN_TRANSIT), eq(DELIVERED), any(), any())).thenReturn(0);
         when(packageRepository.findById(1L)).thenReturn(Optional.of(packageEntity));
 
         assertThrows(InvalidStatusTransitionException.class, () ->
                 packageService.updateStatus(1L, DELIVERED));
+        verify(packageDetailCache, never()).invalidate(1L);
     }
 
     @Test
-    public void testCancelPackage_Success() {
+    public void testUpdateStatus_UnsupportedTargetIsRejectedWithoutUpdating() {
+        when(packageRepository.findById(1L)).thenReturn(Optional.of(packageEntity));
+
+        assertThrows(InvalidStatusTransitionException.class, () ->
+                packageService.updateStatus(1L, CREATED));
+        verify(packageRepository, never()).transitionStatus(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testUpdateStatus_LostRaceIsAConflict() {
+        packageEntity.setStatus(IN_TRANSIT);
+        when(packageRepository.transitionStatus(eq(1L), eq(CREATED), eq(IN_TRANSIT), any(), any())).thenReturn(0);
         when(packageRepository.findById(1L)).thenReturn(Optional.of(packageEntity));
+
+        assertThrows(StatusConflictException.class, () -> packageService.updateStatus(1L, IN_TRANSIT));
+    }
+
+    @Test
+    public void testUpdateStatus_UnknownPackage() {
+        when(packageRepository.transitionStatus(eq(99L), any(), any(), any(), any())).thenReturn(0);
+        when(packageRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> packageService.updateStatus(99L, IN_TRANSIT));
+    }
+
+    @Test
+    public void testCancelPackage_Success() {
         PackageEntity cancelledEntity = PackageEntity.builder()
                 .id(1L)
                 .description(packageEntity.getDescription())
@@ -149,7 +234,9 @@ public class PackageServiceTest {
                 .createdAt(packageEntity.getCreatedAt())
                 .updatedAt(LocalDateTime.now())
                 .build();
-        when(packageRepository.save(any(PackageEntity.class))).thenReturn(cancelledEntity);
+        when(packageRepository.transitionStatus(eq(1L), eq(CREATED), eq(StatusEnum.CANCELLED), isNull(), any(LocalDateTime.class)))
+                .thenReturn(1);
+        when(packageRepository.findById(1L)).thenReturn(Optional.of(cancelledEntity));
         PackageResponse expectedResponse = new PackageResponse("packageEntity-1",
                 cancelledEntity.getDescription(),
                 cancelledEntity.getSender(),
@@ -168,6 +255,7 @@ public class PackageServiceTest {
     @Test
     public void testCancelPackage_Failure() {
         packageEntity.setStatus(IN_TRANSIT);
+        when(packageRepository.transitionStatus(eq(1L), eq(CREATED), eq(StatusEnum.CANCELLED), any(), any())).thenReturn(0);
         when(packageRepository.findById(1L)).thenReturn(Optional.of(packageEntity));
 
         assertThrows(PackageCannotBeCancelledException.class, () ->
@@ -175,75 +263,13 @@ public class PackageServiceTest {
     }
 
     @Test
-    public void testGetPackageDetails_WithAndWithoutEvents() {
-        TrackingEvent trackingEvent = TrackingEvent.builder()
-                .id(10L)
-                .location("Warehouse")
-                .description("Package reached warehouse")
-                .dateTime(LocalDateTime.of(2025, 10, 10, 12, 0))
-                .packageEntity(packageEntity)
-                .build();
-
-        packageEntity.setEvents(Arrays.asList(trackingEvent));
+    public void testGetPackageDetails_DelegatesToReader() {
+        PackageDetailResponse detail = new PackageDetailResponse("packageEntity-1", packageEntity.getDescription(),
+                packageEntity.getSender(), packageEntity.getRecipient(), packageEntity.getStatus(),
+                packageEntity.getCreatedAt(), packageEntity.getUpdatedAt(), null);
+        when(packageDetailsReader.read(1L, false)).thenReturn(detail);
 
-        List<EventDTO> expectedEvents = Arrays.asList(
-                new EventDTO("packageEntity-" + packageEntity.getId(),
-                        trackingEvent.getLocation(),
-                        trackingEvent.getDescription(),
-                        trackingEvent.getDateTime())
-        );
-
-        PackageDetailResponse expectedDetail = new PackageDetailResponse(
-                "packageEntity-" + packageEntity.getId(),
-                packageEntity.getDescription(),
-                packageEntity.getSender(),
-                packageEntity.getRecipient(),
-                packageEntity.getStatus(),
-                packageEntity.getCreatedAt(),
-                packageEntity.getUpdatedAt(),
-                expectedEvents
-        );
-
-        when(packageRepository.findById(1L)).thenReturn(Optional.of(packageEntity));
-        when(packageMapper.packageEntityToPackageDetailResponse(argThat(
-                entity -> entity != null && entity.getEvents() != null && !entity.getEvents().isEmpty()
-        ))).thenReturn(expectedDetail);
-
-        PackageDetailResponse responseWithEvents = packageService.getPackageDetails(1L, true);
-        assertNotNull(responseWithEvents);
-        assertEquals(expectedDetail, responseWithEvents);
-
-        PackageEntity entityWithoutEvents = PackageEntity.builder()
-                .id(packageEntity.getId())
-                .description(packageEntity.getDescription())
-                .sender(packageEntity.getSender())
-                .recipient(packageEntity.getRecipient())
-                .status(packageEntity.getStatus())
-                .createdAt(packageEntity.getCreatedAt())
-                .updatedAt(packageEntity.getUpdatedAt())
-                .events(null)
-                .build();
-
-        PackageDetailResponse expectedNoEvents = new PackageDetailResponse(
-                "packageEntity-" + entityWithoutEvents.getId(),
-                entityWithoutEvents.getDescription(),
-                entityWithoutEvents.getSender(),
-                entityWithoutEvents.getRecipient(),
-                entityWithoutEvents.getStatus(),
-                entityWithoutEvents.getCreatedAt(),
-                entityWithoutEvents.getUpdatedAt(),
-                null
-        );
-
-        when(packageRepository.findById(1L)).thenReturn(Optional.of(entityWithoutEvents));
-        when(packageMapper.packageEntityToPackageDetailResponse(argThat(
-                entity -> entity != null && entity.getEvents() == null
-        ))).thenReturn(expectedNoEvents);
-
-        PackageDetailResponse responseWithoutEvents = packageService.getPackageDetails(1L, false);
-        assertNotNull(responseWithoutEvents);
-        assertNull(responseWithoutEvents.events());
-        assertEquals(expectedNoEvents, responseWithoutEvents);
+        assertEquals(detail, packageService.getPackageDetails(1L, false));
     }
 
     @Test
@@ -262,7 +288,7 @@ public class PackageServiceTest {
                 .build();
 
         List<PackageEntity> entities = Arrays.asList(packageEntity, packageEntity2);
-        when(packageRepository.findAll()).thenReturn(entities);
+        when(packageRepository.findBy(ArgumentMatchers.<Specification<PackageEntity>>any(), any())).thenReturn(entities);
 
         PackageResponse response1 = new PackageResponse("packageEntity-1", packageEntity.getDescription(),
                 packageEntity.getSender(), packageEntity.getRecipient(), StatusEnum.CREATED,
@@ -274,11 +300,29 @@ public class PackageServiceTest {
         when(packageMapper.packageEntityToPackageResponse(packageEntity)).thenReturn(response1);
         when(packageMapper.packageEntityToPackageResponse(packageEntity2)).thenReturn(response2);
 
-        List<PackageResponse> responses = packageService.listPackages(null, null);
+        PackagePageResponse page = packageService.listPackages(EMPTY_FILTER, null, 50);
 
-        assertEquals(2, responses.size());
-        assertTrue(responses.contains(response1));
-        assertTrue(responses.contains(response2));
+        assertEquals(List.of(response1, response2), page.items());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    public void testListPackages_ReturnsCursorWhenMoreRowsExist() {
+        PackageEntity packageEntity2 = PackageEntity.builder()
+                .id(2L)
+                .status(StatusEnum.CREATED)
+                .build();
+        when(packageRepository.findBy(ArgumentMatchers.<Specification<PackageEntity>>any(), any()))
+                .thenReturn(Arrays.asList(packageEntity, packageEntity2));
+        PackageResponse response1 = new PackageResponse("packageEntity-1", packageEntity.getDescription(),
+                packageEntity.getSender(), packageEntity.getRecipient(), StatusEnum.CREATED,
+                packageEntity.getCreatedAt(), packageEntity.getUpdatedAt(), null);
+        when(packageMapper.packageEntityToPackageResponse(packageEntity)).thenReturn(response1);
+
+        PackagePageResponse page = packageService.listPackages(EMPTY_FILTER, null, 1);
+
+        assertEquals(List.of(response1), page.items());
+        assertEquals("packageEntity-1", page.nextCursor());
     }
 
     @Test
@@ -288,8 +332,6 @@ public class PackageServiceTest {
         packageEntity.setCreatedAt(originalCreatedAt);
         packageEntity.setUpdatedAt(originalCreatedAt);
 
-        when(packageRepository.findById(1L)).thenReturn(Optional.of(packageEntity));
-
         PackageEntity updatedEntity = PackageEntity.builder()
                 .id(packageEntity.getId())
                 .description(packageEntity.getDescription())
@@ -304,7 +346,9 @@ public class PackageServiceTest {
                 .deliveredAt(LocalDateTime.now())
                 .build();
 
-        when(packageRepository.save(any(PackageEntity.class))).thenReturn(updatedEntity);
+        when(packageRepository.transitionStatus(eq(1L), eq(IN_TRANSIT), eq(DELIVERED), notNull(), any(LocalDateTime.class)))
+                .thenReturn(1);
+        when(packageRepository.findById(1L)).thenReturn(Optional.of(updatedEntity));
 
         PackageResponse expectedResponse = new PackageResponse(
                 "packageEntity-" + updatedEntity.getId(),
@@ -325,4 +369,63 @@ public class PackageServiceTest {
                 "deliveredAt should be after the creation date");
         assertEquals(DELIVERED, response.status(), "Status should be DELIVERED");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetPackageDetails_IsCachedUntilStatusChanges() {
+        PackageDetailResponse detail = new PackageDetailResponse("packageEntity-1", packageEntity.getDescription(),
+                packageEntity.getSender(), packageEntity.getRecipient(), packageEntity.getStatus(),
+                packageEntity.getCreatedAt(), packageEntity.getUpdatedAt(), List.of());
+        when(packageDetailsReader.read(1L, true)).thenReturn(detail);
+        when(packageRepository.transitionStatus(eq(1L), eq(CREATED), eq(IN_TRANSIT), any(), any())).thenReturn(1);
+
+        packageService.getPackageDetails(1L, true);
+        packageService.getPackageDetails(1L, true);
+        verify(packageDetailsReader, times(1)).read(1L, true);
+
+        packageService.updateStatus(1L, IN_TRANSIT);
+        packageService.getPackageDetails(1L, true);
+
+        verify(packageDetailCache).invalidate(1L);
+        verify(packageDetailsReader, times(2)).read(1L, true);
+    }
+
+    @Test
+    public void testGetPackageDetailsBatch_KeepsRequestOrderAndLoadsOnlyCacheMisses() {
+        PackageDetailResponse first = new PackageDetailResponse("packageEntity-1", "First", "Sender A",
+                "Recipient B", CREATED, packageEntity.getCreatedAt(), packageEntity.getUpdatedAt(), List.of());
+        PackageDetailResponse second = new PackageDetailResponse("packageEntity-2", "Second", "Sender A",
+                "Recipient B", CREATED, packageEntity.getCreatedAt(), packageEntity.getUpdatedAt(), List.of());
+        when(packageDetailsReader.read(1L, true)).thenReturn(first);
+        when(packageDetailsReader.readAll(List.of(3L, 2L), true)).thenReturn(Map.of(2L, second));
+        packageService.getPackageDetails(1L, true);
+
+        PackageBatchResponse response = packageService.getPackageDetails(
+                List.of("packageEntity-3", "packageEntity-2", "not-an-id", "packageEntity-1", "packageEntity-2"), true);
+
+        assertEquals(List.of(PackageLookupStatus.NOT_FOUND, PackageLookupStatus.FOUND, PackageLookupStatus.INVALID_ID,
+                        PackageLookupStatus.FOUND, PackageLookupStatus.FOUND),
+                response.items().stream().map(item -> item.status()).toList());
+        assertEquals("packageEntity-3", response.items().get(0).id());
+        assertNull(response.items().get(0).details());
+        assertEquals(second, response.items().get(1).details());
+        assertEquals(first, response.items().get(3).details());
+        verify(packageDetailsReader, times(1)).readAll(any(), eq(true));
+    }
+
+    @Test
+    public void testGetPackageDetailsBatch_DoesNotCacheDetailsInvalidatedDuringTheLoad() {
+        PackageDetailResponse stale = new PackageDetailResponse("packageEntity-2", "Second", "Sender A",
+                "Recipient B", CREATED, packageEntity.getCreatedAt(), packageEntity.getUpdatedAt(), List.of());
+        PackageDetailResponse fresh = new PackageDetailResponse("packageEntity-2", "Second", "Sender A",
+                "Recipient B", IN_TRANSIT, packageEntity.getCreatedAt(), LocalDateTime.now(), List.of());
+        when(packageDetailsReader.readAll(List.of(2L), true)).thenAnswer(invocation -> {
+            packageDetailCache.invalidate(2L);
+            return Map.of(2L, stale);
+        });
+        when(packageDetailsReader.read(2L, true)).thenReturn(fresh);
+
+        packageService.getPackageDetails(List.of("packageEntity-2"), true);
+
+        assertEquals(fresh, packageService.getPackageDetails(2L, true));
+    }
+}
@@ -0,0 +1,75 @@
+package com.rc.tracking.service;
+
+import com.rc.tracking.repository.TrackingEventJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class PackageTouchCoalescerTest {
+
+    @Mock
+    private TrackingEventJdbcRepository trackingEventJdbcRepository;
+
+    @Mock
+    private PackageDetailCache packageDetailCache;
+
+    private PackageTouchCoalescer coalescer;
+
+    @BeforeEach
+    public void setUp() {
+        coalescer = new PackageTouchCoalescer(trackingEventJdbcRepository, packageDetailCache, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void testKeepsLatestTimestampPerPackageAndWritesOnce() {
+        LocalDateTime first = LocalDateTime.of(2025, 3, 1, 10, 0);
+        LocalDateTime later = first.plusSeconds(5);
+
+        coalescer.touch(List.of(1L, 2L), first);
+        coalescer.touch(List.of(1L), later);
+        coalescer.touch(List.of(1L), first);
+        coalescer.flush();
+
+        verify(trackingEventJdbcRepository, times(1)).touchPackages(Map.of(1L, later, 2L, first));
+        verify(packageDetailCache).invalidateAll(Set.of(1L, 2L));
+        assertEquals(0, coalescer.pendingCount());
+    }
+
+    @Test
+    public void testFlushWithNothingPendingDoesNotHitDatabase() {
+        coalescer.flush();
+
+        verifyNoInteractions(trackingEventJdbcRepository);
+    }
+
+    @Test
+    public void testRequeuesTouchesWhenFlushFails() {
+        LocalDateTime at = LocalDateTime.of(2025, 3, 1, 10, 0);
+        doThrow(new CannotAcquireLockException("lock wait timeout"))
+                .when(trackingEventJdbcRepository).touchPackages(anyMap());
+
+        coalescer.touch(List.of(7L), at);
+        coalescer.flush();
+
+        assertEquals(1, coalescer.pendingCount());
+        verify(packageDetailCache, never()).invalidateAll(Set.of(7L));
+    }
+}
@@ -0,0 +1,100 @@
+package com.rc.tracking.service;
+
+import com.rc.tracking.repository.PartitionRepository;
+import com.rc.tracking.repository.PartitionRepository.Partition;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PartitionMaintenanceServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 18);
+
+    @Mock
+    private PartitionRepository partitionRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        Clock clock = Clock.fixed(TODAY.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        partitionMaintenanceService = new PartitionMaintenanceService(partitionRepository, meterRegistry, 3, clock);
+    }
+
+    @Test
+    public void testMissingMonthsFillTheGapUpToTheLookahead() {
+        List<Partition> existing = List.of(
+                new Partition("p2025_12", LocalDate.of(2026, 1, 1), 10, 0),
+                new Partition("p_future", null, 5000, 0));
+
+        List<Partition> missing = PartitionMaintenanceService.missingMonths(existing, TODAY, 3);
+
+        assertEquals(13, missing.size());
+        assertEquals("p2026_01", missing.get(0).name());
+        assertEquals(LocalDate.of(2026, 2, 1), missing.get(0).upperBound());
+        assertEquals("p2027_01", missing.get(12).name());
+        assertEquals(LocalDate.of(2027, 2, 1), missing.get(12).upperBound());
+    }
+
+    @Test
+    public void testSplitsMaxValuePartitionAndPublishesMetrics() {
+        when(partitionRepository.isSupported()).thenReturn(true);
+        when(partitionRepository.findPartitions("packages")).thenReturn(List.of(
+                new Partition("p2026_11", LocalDate.of(2026, 12, 1), 100, 16384),
+                new Partition("p_future", null, 0, 16384)));
+        when(partitionRepository.findPartitions("tracking_events")).thenReturn(List.of(
+                new Partition("p2026_11", LocalDate.of(2026, 12, 1), 900, 65536),
+                new Partition("p_future", null, 0, 16384)));
+
+        partitionMaintenanceService.maintain();
+
+        verify(partitionRepository).splitMaxValuePartition(eq("packages"), eq("p_future"), argThat(created ->
+                created.size() == 2 && created.get(1).name().equals("p2027_01")));
+        verify(partitionRepository).splitMaxValuePartition(eq("tracking_events"), eq("p_future"), anyList());
+        assertEquals(100, meterRegistry.get("tracking.partitions.rows")
+                .tags("table", "packages", "partition", "p2026_11").gauge().value());
+        assertEquals(4, meterRegistry.get("tracking.partitions.created").counter().count());
+    }
+
+    @Test
+    public void testNothingToDoWhenAlreadyAhead() {
+        when(partitionRepository.isSupported()).thenReturn(true);
+        when(partitionRepository.findPartitions(anyString())).thenReturn(List.of(
+                new Partition("p2027_01", LocalDate.of(2027, 2, 1), 0, 0),
+                new Partition("p_future", null, 0, 0)));
+
+        partitionMaintenanceService.maintain();
+
+        verify(partitionRepository, never()).splitMaxValuePartition(anyString(), anyString(), anyList());
+    }
+
+    @Test
+    public void testSkippedOutsideMySql() {
+        when(partitionRepository.isSupported()).thenReturn(false);
+
+        partitionMaintenanceService.maintain();
+
+        verify(partitionRepository, never()).findPartitions(any());
+    }
+}
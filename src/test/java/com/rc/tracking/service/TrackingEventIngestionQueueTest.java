@@ -0,0 +1,218 @@
+package com.rc.tracking.service;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.rc.tracking.exception.IngestionOverloadedException;
+import com.rc.tracking.exception.ResourceNotFoundException;
+import com.rc.tracking.model.dto.IngestionReceipt;
+import com.rc.tracking.model.dto.TrackingEventRequest;
+import com.rc.tracking.model.enums.IngestionOutcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TrackingEventIngestionQueueTest {
+
+    @Mock
+    private TrackingEventService trackingEventService;
+
+    @Mock
+    private IngestionStatusService ingestionStatusService;
+
+    @TempDir
+    private Path walDirectory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TrackingEventLog trackingEventLog;
+    private TrackingEventIngestionQueue ingestionQueue;
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        if (ingestionQueue != null) {
+            ingestionQueue.stop();
+        }
+        if (trackingEventLog != null) {
+            trackingEventLog.close();
+        }
+    }
+
+    @Test
+    public void testFlushesWhenBatchSizeIsReached() {
+        ingestionQueue = newQueue(DataSize.ofMegabytes(1), 3, 10_000);
+        ingestionQueue.start();
+
+        ingestionQueue.submit(event("packageEntity-1"));
+        ingestionQueue.submit(event("packageEntity-2"));
+        ingestionQueue.submit(event("packageEntity-1"));
+
+        verify(trackingEventService, timeout(2000)).processBatch(argThat(batch -> batch.size() == 3));
+    }
+
+    @Test
+    public void testFlushesPartialBatchWhenWindowElapses() {
+        ingestionQueue = newQueue(DataSize.ofMegabytes(1), 500, 50);
+        ingestionQueue.start();
+
+        ingestionQueue.submit(event("packageEntity-1"));
+
+        verify(trackingEventService, timeout(2000)).processBatch(argThat(batch -> batch.size() == 1));
+    }
+
+    @Test
+    public void testRejectsWhenLogBacklogIsFull() {
+        ingestionQueue = newQueue(DataSize.ofBytes(100), 500, 50);
+
+        ingestionQueue.submit(event("packageEntity-1"));
+
+        assertThrows(IngestionOverloadedException.class, () -> ingestionQueue.submit(event("packageEntity-2")));
+    }
+
+    @Test
+    public void testFallsBackToPerEventProcessingWhenBatchFails() {
+        doThrow(new RuntimeException("bad data")).when(trackingEventService).processBatch(anyList());
+        ingestionQueue = newQueue(DataSize.ofMegabytes(1), 2, 10_000);
+        ingestionQueue.start();
+
+        ingestionQueue.submit(event("packageEntity-1"));
+        ingestionQueue.submit(event("packageEntity-2"));
+
+        verify(trackingEventService, timeout(2000).times(2)).processTrackingEvent(argThat(request -> request != null));
+        verify(trackingEventService, times(1)).processBatch(anyList());
+    }
+
+    @Test
+    public void testRetriesBatchWhileDatabaseIsUnavailable() {
+        doThrow(new CannotAcquireLockException("lock wait timeout"))
+                .doReturn(Map.of())
+                .when(trackingEventService).processBatch(anyList());
+        ingestionQueue = newQueue(DataSize.ofMegabytes(1), 2, 10_000);
+        ingestionQueue.start();
+
+        ingestionQueue.submit(event("packageEntity-1"));
+        ingestionQueue.submit(event("packageEntity-2"));
+
+        verify(trackingEventService, timeout(2000).times(2)).processBatch(argThat(batch -> batch.size() == 2));
+        verify(trackingEventService, never()).processTrackingEvent(any());
+        assertEquals(1.0, meterRegistry.counter("tracking.ingestion.batch.retries").count());
+        verify(ingestionStatusService).retrying(argThat(batch -> batch.size() == 2));
+    }
+
+    @Test
+    public void testSubmitReturnsTokenRecordedAsAccepted() {
+        when(ingestionStatusService.accepted(anyLong(), eq(true))).thenReturn(IngestionOutcome.ACCEPTED);
+        ingestionQueue = newQueue(DataSize.ofMegabytes(1), 500, 50);
+
+        IngestionReceipt receipt = ingestionQueue.submit(event("packageEntity-1"));
+
+        assertEquals(IngestionOutcome.ACCEPTED, receipt.outcome());
+        verify(ingestionStatusService).accepted(Long.parseLong(receipt.token()), true);
+    }
+
+    @Test
+    public void testSyncTimeoutAcceptsEventAsPendingDurabilityAndStillFlushesIt() {
+        when(ingestionStatusService.accepted(anyLong(), eq(false))).thenReturn(IngestionOutcome.PENDING_DURABILITY);
+        when(trackingEventService.processBatch(anyList())).thenReturn(Map.of());
+        ingestionQueue = newQueue(DataSize.ofMegabytes(1), 500, 50, Duration.ZERO);
+        ingestionQueue.start();
+
+        IngestionReceipt receipt = ingestionQueue.submit(event("packageEntity-1"));
+
+        assertEquals(IngestionOutcome.PENDING_DURABILITY, receipt.outcome());
+        verify(trackingEventService, timeout(2000)).processBatch(argThat(batch -> batch.size() == 1));
+        assertEquals(1.0, trackingEventLogTimeouts());
+    }
+
+    @Test
+    public void testReportsRejectedEventsOfBatch() {
+        when(trackingEventService.processBatch(anyList())).thenReturn(Map.of(1, "Package not found with id: 2"));
+        ingestionQueue = newQueue(DataSize.ofMegabytes(1), 2, 10_000);
+        ingestionQueue.start();
+
+        ingestionQueue.submit(event("packageEntity-1"));
+        ingestionQueue.submit(event("packageEntity-2"));
+
+        verify(ingestionStatusService, timeout(2000)).completed(
+                argThat(batch -> batch.size() == 2 && batch.get(1).request().packageId().equals("packageEntity-2")),
+                eq(Map.of(1, "Package not found with id: 2")));
+    }
+
+    @Test
+    public void testDeadLettersEventsThatFailInFallback() {
+        doThrow(new RuntimeException("bad data")).when(trackingEventService).processBatch(anyList());
+        lenient().doThrow(new ResourceNotFoundException("Package not found with id: 2"))
+                .when(trackingEventService).processTrackingEvent(argThat(request -> request.packageId().equals("packageEntity-2")));
+        ingestionQueue = newQueue(DataSize.ofMegabytes(1), 2, 10_000);
+        ingestionQueue.start();
+
+        ingestionQueue.submit(event("packageEntity-1"));
+        ingestionQueue.submit(event("packageEntity-2"));
+
+        verify(ingestionStatusService, timeout(2000)).deadLetter(argThat(event -> event.request().packageId().equals("packageEntity-2")),
+                eq(IngestionOutcome.REJECTED), eq("Package not found with id: 2"));
+        verify(ingestionStatusService).applied(argThat(event -> event.request().packageId().equals("packageEntity-1")));
+    }
+
+    @Test
+    public void testReplaysAcceptedEventsAfterRestart() throws InterruptedException {
+        ingestionQueue = newQueue(DataSize.ofMegabytes(1), 500, 50);
+        ingestionQueue.submit(event("packageEntity-1"));
+        ingestionQueue.submit(event("packageEntity-2"));
+        ingestionQueue.stop();
+        trackingEventLog.close();
+
+        when(trackingEventService.processBatch(anyList())).thenReturn(Map.of());
+        ingestionQueue = newQueue(DataSize.ofMegabytes(1), 500, 50);
+        ingestionQueue.start();
+
+        verify(trackingEventService, timeout(2000)).processBatch(argThat(batch -> batch.size() == 2
+                && batch.get(0).packageId().equals("packageEntity-1")));
+    }
+
+    private TrackingEventIngestionQueue newQueue(DataSize maxBacklog, int batchSize, long flushIntervalMs) {
+        return newQueue(maxBacklog, batchSize, flushIntervalMs, Duration.ofSeconds(5));
+    }
+
+    private TrackingEventIngestionQueue newQueue(DataSize maxBacklog, int batchSize, long flushIntervalMs,
+                                                 Duration syncTimeout) {
+        trackingEventLog = new TrackingEventLog(JsonMapper.builder().findAndAddModules().build(), meterRegistry,
+                walDirectory.toString(), DataSize.ofKilobytes(64), maxBacklog, syncTimeout);
+        trackingEventLog.open();
+        return new TrackingEventIngestionQueue(trackingEventService, trackingEventLog, ingestionStatusService, meterRegistry,
+                batchSize, flushIntervalMs, Duration.ofMillis(10));
+    }
+
+    private double trackingEventLogTimeouts() {
+        return meterRegistry.counter("tracking.ingestion.wal.sync.timeouts").count();
+    }
+
+    private TrackingEventRequest event(String packageId) {
+        return new TrackingEventRequest(packageId, "Warehouse", "Package reached warehouse", LocalDateTime.now());
+    }
+}
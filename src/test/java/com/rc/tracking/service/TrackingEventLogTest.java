@@ -0,0 +1,146 @@
+package com.rc.tracking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.rc.tracking.model.dto.AcceptedTrackingEvent;
+import com.rc.tracking.model.dto.TrackingEventRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TrackingEventLogTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 3, 10, 8, 0);
+
+    @TempDir
+    private Path directory;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private TrackingEventLog log;
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    @Test
+    public void testCommittedEventsAreNotReplayed() throws Exception {
+        log = open(DataSize.ofKilobytes(64));
+        log.append(event(1));
+        log.append(event(2));
+
+        assertEquals(List.of(event(1), event(2)), log.poll(10, 0));
+        log.commit();
+        log.append(event(3));
+        reopen(DataSize.ofKilobytes(64));
+
+        assertEquals(List.of(event(3)), log.poll(10, 0));
+    }
+
+    @Test
+    public void testUncommittedEventsAreReplayedAndAppendsContinueAfterThem() throws Exception {
+        log = open(DataSize.ofKilobytes(64));
+        log.append(event(1));
+        log.append(event(2));
+        log.poll(10, 0);
+        reopen(DataSize.ofKilobytes(64));
+        log.append(event(3));
+
+        assertEquals(List.of(event(1), event(2), event(3)), log.poll(10, 0));
+    }
+
+    @Test
+    public void testRollsSegmentsAndDeletesThemOnceConsumed() throws Exception {
+        log = open(DataSize.ofKilobytes(1));
+        List<AcceptedTrackingEvent> expected = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            expected.add(event(i));
+            log.append(event(i));
+        }
+        assertTrue(segmentCount() > 1);
+
+        List<AcceptedTrackingEvent> read = new ArrayList<>();
+        List<AcceptedTrackingEvent> batch;
+        while (!(batch = log.poll(7, 0)).isEmpty()) {
+            read.addAll(batch);
+        }
+        log.commit();
+
+        assertEquals(expected, read);
+        assertEquals(1, segmentCount());
+    }
+
+    @Test
+    public void testSyncTimeoutLeavesEventInTheLog() throws Exception {
+        log = open(DataSize.ofKilobytes(64), Duration.ZERO);
+
+        assertFalse(log.append(event(1)));
+        assertEquals(List.of(event(1)), log.poll(10, TimeUnit.SECONDS.toNanos(2)));
+    }
+
+    @Test
+    public void testTornTailIsDiscardedOnRecovery() throws Exception {
+        log = open(DataSize.ofKilobytes(64));
+        log.append(event(1));
+        log.append(event(2));
+        log.close();
+
+        int secondPayloadOffset = 8 + objectMapper.writeValueAsBytes(event(1)).length + 8;
+        try (Stream<Path> files = Files.list(directory);
+             RandomAccessFile segment = new RandomAccessFile(
+                     files.filter(file -> file.toString().endsWith(".wal")).findFirst().orElseThrow().toFile(), "rw")) {
+            segment.seek(secondPayloadOffset);
+            segment.write('#');
+        }
+
+        log = open(DataSize.ofKilobytes(64));
+        log.append(event(3));
+
+        assertEquals(List.of(event(1), event(3)), log.poll(10, 0));
+    }
+
+    private void reopen(DataSize segmentSize) throws InterruptedException {
+        log.close();
+        log = open(segmentSize);
+    }
+
+    private TrackingEventLog open(DataSize segmentSize) {
+        return open(segmentSize, Duration.ofSeconds(5));
+    }
+
+    private TrackingEventLog open(DataSize segmentSize, Duration syncTimeout) {
+        TrackingEventLog opened = new TrackingEventLog(objectMapper, new SimpleMeterRegistry(),
+                directory.toString(), segmentSize, DataSize.ofMegabytes(1), syncTimeout);
+        opened.open();
+        return opened;
+    }
+
+    private long segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".wal")).count();
+        }
+    }
+
+    private AcceptedTrackingEvent event(int sequence) {
+        return new AcceptedTrackingEvent(sequence,
+                new TrackingEventRequest("pkg-" + sequence, "Warehouse", "Scan " + sequence, BASE.plusMinutes(sequence)));
+    }
+}
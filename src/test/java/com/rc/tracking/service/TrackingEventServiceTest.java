@@ -1,11 +1,14 @@
 package com.rc.tracking.service;
 
+import com.rc.tracking.mapper.PackageMapper;
+import com.rc.tracking.model.dto.EventDTO;
 import com.rc.tracking.model.dto.TrackingEventRequest;
 import com.rc.tracking.model.entity.PackageEntity;
 import com.rc.tracking.model.entity.TrackingEvent;
+import com.rc.tracking.model.event.TrackingEventsRecordedEvent;
 import com.rc.tracking.model.enums.StatusEnum;
 import com.rc.tracking.repository.PackageRepository;
-import com.rc.tracking.repository.TrackingEventRepository;
+import com.rc.tracking.repository.TrackingEventJdbcRepository;
 import com.rc.tracking.exception.ResourceNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,13 +16,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -29,10 +44,25 @@ import static org.mockito.Mockito.when;
 public class TrackingEventServiceTest {
 
     @Mock
-    private TrackingEventRepository trackingEventRepository;
+    private PackageRepository packageRepository;
 
     @Mock
-    private PackageRepository packageRepository;
+    private TrackingEventJdbcRepository trackingEventJdbcRepository;
+
+    @Mock
+    private PackageDetailCache packageDetailCache;
+
+    @Mock
+    private EventDeduplicator eventDeduplicator;
+
+    @Mock
+    private PackageTouchCoalescer packageTouchCoalescer;
+
+    @Mock
+    private PackageMapper packageMapper;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private TrackingEventService trackingEventService;
@@ -58,18 +88,27 @@ public class TrackingEventServiceTest {
                 "Package reached warehouse",
                 LocalDateTime.now()
         );
+
+        lenient().when(eventDeduplicator.isNew(anyString())).thenReturn(true);
+        lenient().when(eventDeduplicator.retainNew(anyCollection()))
+                .thenAnswer(invocation -> new LinkedHashSet<String>(invocation.getArgument(0)));
+        lenient().when(packageMapper.trackingEventToEventDTO(any(TrackingEvent.class)))
+                .thenAnswer(invocation -> {
+                    TrackingEvent event = invocation.getArgument(0);
+                    return new EventDTO("packageEntity-1", event.getLocation(), event.getDescription(), event.getDateTime());
+                });
     }
 
     @Test
     public void testProcessTrackingEvent_Success() {
         when(packageRepository.findById(1L)).thenReturn(Optional.of(packageEntity));
-        when(trackingEventRepository.save(any(TrackingEvent.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(packageRepository.save(any(PackageEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         trackingEventService.processTrackingEvent(validRequest);
 
-        verify(trackingEventRepository, times(1)).save(any(TrackingEvent.class));
-        verify(packageRepository, times(1)).save(any(PackageEntity.class));
+        verify(trackingEventJdbcRepository, times(1)).insertAll(argThat(events -> events.size() == 1));
+        verify(packageTouchCoalescer).touch(eq(List.of(1L)), any(LocalDateTime.class));
+        verify(packageRepository, never()).save(any(PackageEntity.class));
+        verify(packageDetailCache).invalidate(1L);
     }
 
     @Test
@@ -85,7 +124,24 @@ public class TrackingEventServiceTest {
                 trackingEventService.processTrackingEvent(requestInvalidId));
         assertEquals("Invalid packageId format", exception.getMessage());
         verify(packageRepository, never()).findById(anyLong());
-        verify(trackingEventRepository, never()).save(any(TrackingEvent.class));
+        verify(trackingEventJdbcRepository, never()).insertAll(any());
+    }
+
+    @Test
+    public void testParsePackageId_AcceptsPrefixedAndBareIds() {
+        assertEquals(742918374651392001L, TrackingEventService.parsePackageId("packageEntity-742918374651392001"));
+        assertEquals(1L, TrackingEventService.parsePackageId("1"));
+        assertEquals(Long.MAX_VALUE, TrackingEventService.parsePackageId(Long.toString(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void testParsePackageId_RejectsMalformedIds() {
+        assertEquals(-1, TrackingEventService.parsePackageId("packageEntity-"));
+        assertEquals(-1, TrackingEventService.parsePackageId("packageEntity-12ab"));
+        assertEquals(-1, TrackingEventService.parsePackageId("-5"));
+        assertEquals(-1, TrackingEventService.parsePackageId("9223372036854775808"));
+        assertEquals(-1, TrackingEventService.parsePackageId("12345678901234567890"));
+        assertEquals(-1, TrackingEventService.parsePackageId((String) null));
     }
 
     @Test
@@ -95,7 +151,7 @@ public class TrackingEventServiceTest {
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () ->
                 trackingEventService.processTrackingEvent(validRequest));
         assertTrue(exception.getMessage().contains("Package not found with id: 1"));
-        verify(trackingEventRepository, never()).save(any(TrackingEvent.class));
+        verify(trackingEventJdbcRepository, never()).insertAll(any());
     }
 
     @Test
@@ -111,6 +167,136 @@ public class TrackingEventServiceTest {
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
                 trackingEventService.processTrackingEvent(requestWithPastDate));
         assertEquals("Event date cannot be before package creation date", exception.getMessage());
-        verify(trackingEventRepository, never()).save(any(TrackingEvent.class));
+        verify(trackingEventJdbcRepository, never()).insertAll(any());
+    }
+
+    @Test
+    public void testProcessBatch_LoadsPackagesOnceAndTouchesEachPackageOnce() {
+        TrackingEventRequest secondEvent = new TrackingEventRequest(
+                "packageEntity-1",
+                "Hub",
+                "Package left hub",
+                LocalDateTime.now()
+        );
+        when(packageRepository.findAllById(Set.of(1L))).thenReturn(List.of(packageEntity));
+
+        trackingEventService.processBatch(List.of(validRequest, secondEvent));
+
+        verify(packageRepository, times(1)).findAllById(Set.of(1L));
+        verify(trackingEventJdbcRepository).insertAll(argThat(events -> events.size() == 2));
+        verify(packageTouchCoalescer).touch(eq(Set.of(1L)), any(LocalDateTime.class));
+        verify(packageDetailCache).invalidateAll(Set.of(1L));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof TrackingEventsRecordedEvent recorded
+                && recorded.packageId().equals(1L) && recorded.events().size() == 2));
+        verify(packageRepository, never()).save(any(PackageEntity.class));
+    }
+
+    @Test
+    public void testProcessBatch_SkipsInvalidAndUnknownPackages() {
+        TrackingEventRequest invalidId = new TrackingEventRequest(
+                "invalid-id",
+                "Warehouse",
+                "Package reached warehouse",
+                LocalDateTime.now()
+        );
+        TrackingEventRequest unknownPackage = new TrackingEventRequest(
+                "packageEntity-2",
+                "Warehouse",
+                "Package reached warehouse",
+                LocalDateTime.now()
+        );
+        when(packageRepository.findAllById(anyCollection())).thenReturn(List.of(packageEntity));
+
+        Map<Integer, String> rejected = trackingEventService.processBatch(List.of(invalidId, validRequest, unknownPackage));
+
+        assertEquals(Map.of(0, "Invalid packageId format", 2, "Package not found with id: 2"), rejected);
+        verify(trackingEventJdbcRepository).insertAll(argThat(events -> events.size() == 1
+                && events.get(0).getPackageEntity().getId() == 1L));
+        verify(packageTouchCoalescer).touch(eq(Set.of(1L)), any(LocalDateTime.class));
+    }
+
+    @Test
+    public void testProcessTrackingEvent_DuplicateIsIgnored() {
+        when(eventDeduplicator.isNew(anyString())).thenReturn(false);
+
+        trackingEventService.processTrackingEvent(validRequest);
+
+        verify(packageRepository, never()).findById(anyLong());
+        verify(trackingEventJdbcRepository, never()).insertAll(any());
+    }
+
+    @Test
+    public void testProcessBatch_DropsRepeatedAndAlreadyStoredEvents() {
+        TrackingEventRequest retry = new TrackingEventRequest(validRequest.packageId(), validRequest.location(),
+                validRequest.description(), validRequest.date());
+        TrackingEventRequest stored = new TrackingEventRequest("packageEntity-1", "Hub", "Package left hub",
+                LocalDateTime.now(), "carrier-scan-42");
+        String storedKey = EventDeduplicator.keyOf(1L, stored);
+        when(packageRepository.findAllById(Set.of(1L))).thenReturn(List.of(packageEntity));
+        when(eventDeduplicator.retainNew(anyCollection())).thenAnswer(invocation -> {
+            Set<String> fresh = new LinkedHashSet<String>(invocation.getArgument(0));
+            fresh.remove(storedKey);
+            return fresh;
+        });
+
+        trackingEventService.processBatch(List.of(validRequest, retry, stored));
+
+        verify(eventDeduplicator).retainNew(argThat(keys -> keys.size() == 2));
+        verify(trackingEventJdbcRepository).insertAll(argThat(events -> events.size() == 1
+                && events.get(0).getEventKey().equals(EventDeduplicator.keyOf(1L, validRequest))));
+        verify(eventDeduplicator).remember(argThat(keys -> keys.size() == 1));
+    }
+
+    @Test
+    public void testEventKey_PrefersClientEventId() {
+        TrackingEventRequest first = new TrackingEventRequest("packageEntity-1", "Hub", "Scan", LocalDateTime.now(), "abc");
+        TrackingEventRequest resent = new TrackingEventRequest("packageEntity-1", "Hub (corrected)", "Scan",
+                LocalDateTime.now().plusMinutes(1), "abc");
+
+        assertEquals(EventDeduplicator.keyOf(1L, first), EventDeduplicator.keyOf(1L, resent));
+        assertNotEquals(EventDeduplicator.keyOf(1L, first), EventDeduplicator.keyOf(2L, first));
+        assertNotEquals(EventDeduplicator.keyOf(1L, validRequest),
+                EventDeduplicator.keyOf(1L, new TrackingEventRequest(validRequest.packageId(), "Other",
+                        validRequest.description(), validRequest.date())));
+    }
+
+    @Test
+    public void testProcessTrackingEvent_KeyAlreadyInTableIsTreatedAsDuplicate() {
+        String eventKey = EventDeduplicator.keyOf(1L, validRequest);
+        when(packageRepository.findById(1L)).thenReturn(Optional.of(packageEntity));
+        when(trackingEventJdbcRepository.insertAll(anyList())).thenReturn(Set.of(eventKey));
+
+        trackingEventService.processTrackingEvent(validRequest);
+
+        verify(eventDeduplicator).duplicatesInDatabase(Set.of(eventKey));
+        verify(packageTouchCoalescer, never()).touch(anyCollection(), any(LocalDateTime.class));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void testProcessTrackingEvent_ConcurrentInsertOfSameKeyIsTreatedAsDuplicate() {
+        when(packageRepository.findById(1L)).thenReturn(Optional.of(packageEntity));
+        when(trackingEventJdbcRepository.insertAll(anyList())).thenThrow(new DuplicateKeyException("uk_event_key"));
+
+        trackingEventService.processTrackingEvent(validRequest);
+
+        verify(eventDeduplicator).duplicatesInDatabase(Set.of(EventDeduplicator.keyOf(1L, validRequest)));
+        verify(packageDetailCache, never()).invalidate(anyLong());
+    }
+
+    @Test
+    public void testProcessBatch_DoesNotPublishEventsTheInsertSkipped() {
+        TrackingEventRequest stored = new TrackingEventRequest("packageEntity-1", "Hub", "Package left hub",
+                LocalDateTime.now(), "carrier-scan-42");
+        String storedKey = EventDeduplicator.keyOf(1L, stored);
+        when(packageRepository.findAllById(Set.of(1L))).thenReturn(List.of(packageEntity));
+        when(trackingEventJdbcRepository.insertAll(anyList())).thenReturn(Set.of(storedKey));
+
+        Map<Integer, String> rejected = trackingEventService.processBatch(List.of(validRequest, stored));
+
+        assertTrue(rejected.isEmpty());
+        verify(eventDeduplicator).duplicatesInDatabase(Set.of(storedKey));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof TrackingEventsRecordedEvent recorded
+                && recorded.events().size() == 1 && recorded.events().get(0).location().equals("Warehouse")));
     }
 }